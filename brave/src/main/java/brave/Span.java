@@ -31,9 +31,22 @@ public abstract class Span implements SpanCustomizer {
    * When true, no recording is done and nothing is reported to zipkin. However, this span should
    * still be injected into outgoing requests. Use this flag to avoid performing expensive
    * computation.
+   *
+   * @see #isRecordingData()
    */
   public abstract boolean isNoop();
 
+  /**
+   * When false, tags, annotations and the remote endpoint are ignored, so instrumentation should
+   * skip the work of deriving them. This is false for {@link #isNoop() noop} spans and for
+   * unsampled spans that only time the operation for a {@link
+   * Tracing.Builder#spanObserver(brave.metrics.SpanObserver) span observer}. Those still need a
+   * name, kind and start, and are tagged {@link Constants#ERROR} on failure.
+   */
+  public boolean isRecordingData() {
+    return !isNoop();
+  }
+
   public abstract TraceContext context();
 
   /**
@@ -69,7 +82,8 @@ public abstract class Span implements SpanCustomizer {
   /**
    * For a client span, this would be the server's address.
    *
-   * <p>It is often expensive to derive a remote address: always check {@link #isNoop()} first!
+   * <p>It is often expensive to derive a remote address: always check {@link #isRecordingData()}
+   * first!
    */
   public abstract Span remoteEndpoint(Endpoint endpoint);
 
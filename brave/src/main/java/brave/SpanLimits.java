@@ -0,0 +1,123 @@
+package brave;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limits the data recorded per span, so that a few oversized spans don't fill the reporter's queue
+ * and cause unrelated spans to be dropped.
+ *
+ * <p>For example, SQL or URL tags can be tens of kilobytes. Here's how to truncate tag values to
+ * 1KiB and limit spans to 64 tags and annotations:
+ * <pre>{@code
+ * tracingBuilder.spanLimits(SpanLimits.newBuilder()
+ *   .maxTagValueLength(1024)
+ *   .maxTags(64)
+ *   .maxAnnotations(64)
+ *   .build());
+ * }</pre>
+ *
+ * <p>Limits are enforced as data is added to a span, before it is retained. Core annotations, such
+ * as "sr", and the "error" tag are always kept, as they affect how the span is interpreted.
+ */
+public final class SpanLimits {
+
+  public static Builder newBuilder() {
+    return new Builder();
+  }
+
+  public static final class Builder {
+    int maxTagValueLength = Integer.MAX_VALUE;
+    int maxTags = Integer.MAX_VALUE;
+    int maxAnnotations = Integer.MAX_VALUE;
+
+    /** Tag values longer than this many characters are truncated. Defaults to unlimited. */
+    public Builder maxTagValueLength(int maxTagValueLength) {
+      if (maxTagValueLength <= 0) throw new IllegalArgumentException("maxTagValueLength <= 0");
+      this.maxTagValueLength = maxTagValueLength;
+      return this;
+    }
+
+    /** Tags added after a span has this many are dropped. Defaults to unlimited. */
+    public Builder maxTags(int maxTags) {
+      if (maxTags < 0) throw new IllegalArgumentException("maxTags < 0");
+      this.maxTags = maxTags;
+      return this;
+    }
+
+    /** Annotations added after a span has this many are dropped. Defaults to unlimited. */
+    public Builder maxAnnotations(int maxAnnotations) {
+      if (maxAnnotations < 0) throw new IllegalArgumentException("maxAnnotations < 0");
+      this.maxAnnotations = maxAnnotations;
+      return this;
+    }
+
+    public SpanLimits build() {
+      return new SpanLimits(this);
+    }
+
+    Builder() {
+    }
+  }
+
+  final int maxTagValueLength;
+  final int maxTags;
+  final int maxAnnotations;
+  final AtomicLong tagsTruncated = new AtomicLong();
+  final AtomicLong tagsDropped = new AtomicLong();
+  final AtomicLong annotationsDropped = new AtomicLong();
+
+  SpanLimits(Builder builder) {
+    this.maxTagValueLength = builder.maxTagValueLength;
+    this.maxTags = builder.maxTags;
+    this.maxAnnotations = builder.maxAnnotations;
+  }
+
+  public int maxTagValueLength() {
+    return maxTagValueLength;
+  }
+
+  public int maxTags() {
+    return maxTags;
+  }
+
+  public int maxAnnotations() {
+    return maxAnnotations;
+  }
+
+  /** Count of tag values truncated to {@link #maxTagValueLength()} */
+  public long tagsTruncated() {
+    return tagsTruncated.get();
+  }
+
+  /** Count of tags dropped because a span already had {@link #maxTags()} */
+  public long tagsDropped() {
+    return tagsDropped.get();
+  }
+
+  /** Count of annotations dropped because a span already had {@link #maxAnnotations()} */
+  public long annotationsDropped() {
+    return annotationsDropped.get();
+  }
+
+  // the recorder updates these via brave.internal.Internal
+  void incrementTagsTruncated() {
+    tagsTruncated.incrementAndGet();
+  }
+
+  void incrementTagsDropped() {
+    tagsDropped.incrementAndGet();
+  }
+
+  void incrementAnnotationsDropped() {
+    annotationsDropped.incrementAndGet();
+  }
+
+  @Override public String toString() {
+    return "SpanLimits{maxTagValueLength=" + maxTagValueLength
+        + ", maxTags=" + maxTags
+        + ", maxAnnotations=" + maxAnnotations
+        + ", tagsTruncated=" + tagsTruncated
+        + ", tagsDropped=" + tagsDropped
+        + ", annotationsDropped=" + annotationsDropped + "}";
+  }
+}
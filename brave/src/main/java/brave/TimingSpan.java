@@ -0,0 +1,113 @@
+package brave;
+
+import brave.metrics.SpanObserver;
+import brave.propagation.TraceContext;
+import zipkin.Constants;
+import zipkin.Endpoint;
+
+/**
+ * Used for unsampled spans when a {@link Tracing.Builder#spanObserver(SpanObserver) span observer}
+ * is configured. This records only the name, kind, timestamps and whether there was an error,
+ * then passes them to the observer on finish. Nothing is reported to zipkin.
+ *
+ * <p>Unlike {@link RealSpan}, state is held in this object as opposed to shared by trace context.
+ * This means only calls on the same instance affect the timing record. Instrumentation usually
+ * passes the span object around, so this is a reasonable tradeoff for not allocating per-span
+ * state in the recorder.
+ */
+final class TimingSpan extends Span {
+  final TraceContext context;
+  final Clock clock;
+  final SpanObserver spanObserver;
+
+  // Fields are volatile as async instrumentation can start and finish on different threads
+  volatile String name = "";
+  volatile Kind kind;
+  volatile long startTimestamp;
+  volatile boolean error, finished;
+
+  TimingSpan(TraceContext context, Clock clock, SpanObserver spanObserver) {
+    this.context = context;
+    this.clock = clock;
+    this.spanObserver = spanObserver;
+  }
+
+  /** Returns false as instrumentation needs to name and start this span. */
+  @Override public boolean isNoop() {
+    return false;
+  }
+
+  /** Returns false as tags other than error, annotations and the remote endpoint are ignored. */
+  @Override public boolean isRecordingData() {
+    return false;
+  }
+
+  @Override public TraceContext context() {
+    return context;
+  }
+
+  @Override public Span start() {
+    return start(clock.currentTimeMicroseconds());
+  }
+
+  @Override public Span start(long timestamp) {
+    startTimestamp = timestamp;
+    return this;
+  }
+
+  @Override public Span name(String name) {
+    if (name == null) throw new NullPointerException("name == null");
+    this.name = name;
+    return this;
+  }
+
+  @Override public Span kind(Kind kind) {
+    if (kind == null) throw new NullPointerException("kind == null");
+    this.kind = kind;
+    return this;
+  }
+
+  @Override public Span annotate(String value) {
+    return this;
+  }
+
+  @Override public Span annotate(long timestamp, String value) {
+    return this;
+  }
+
+  /** Only the {@link Constants#ERROR error} tag is considered, as it is needed for metrics. */
+  @Override public Span tag(String key, String value) {
+    if (key.equals(Constants.ERROR)) error = true;
+    return this;
+  }
+
+  @Override public Span remoteEndpoint(Endpoint endpoint) {
+    return this;
+  }
+
+  @Override public void finish() {
+    if (finished) return; // don't read the clock when there's nothing to do
+    finish(clock.currentTimeMicroseconds());
+  }
+
+  @Override public void finish(long timestamp) {
+    if (finished) return;
+    finished = true;
+    long startTimestamp = this.startTimestamp;
+    if (startTimestamp == 0) return;
+    spanObserver.onFinish(name, kind, startTimestamp, timestamp, error);
+  }
+
+  @Override public void abandon() {
+    finished = true;
+  }
+
+  /** Drops the record, as unfinished spans have no duration. */
+  @Override public void flush() {
+    finished = true;
+  }
+
+  @Override public String toString() {
+    return "TimingSpan(" + context + ")";
+  }
+}
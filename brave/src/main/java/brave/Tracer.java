@@ -2,6 +2,7 @@ package brave;
 
 import brave.internal.Platform;
 import brave.internal.recorder.Recorder;
+import brave.metrics.SpanObserver;
 import brave.propagation.CurrentTraceContext;
 import brave.propagation.Propagation;
 import brave.propagation.SamplingFlags;
@@ -105,6 +106,7 @@ public final class Tracer {
   final Endpoint localEndpoint;
   final Recorder recorder;
   final Sampler sampler;
+  final SpanObserver spanObserver;
   final CurrentTraceContext currentTraceContext;
   final boolean traceId128Bit;
   final AtomicBoolean noop;
@@ -113,8 +115,14 @@ public final class Tracer {
     this.noop = noop;
     this.clock = builder.clock;
     this.localEndpoint = builder.localEndpoint;
-    this.recorder = new Recorder(localEndpoint, clock, builder.reporter, this.noop);
+    this.recorder = new Recorder(localEndpoint, clock, builder.reporter, this.noop,
+        new Recorder.Settings()
+            .tailSampler(builder.tailSampler)
+            .spanObserver(builder.spanObserver)
+            .spanLimits(builder.spanLimits)
+            .finishedSpanHandlers(builder.finishedSpanHandlers));
     this.sampler = builder.sampler;
+    this.spanObserver = builder.spanObserver;
     this.currentTraceContext = builder.currentTraceContext;
     this.traceId128Bit = builder.traceId128Bit;
   }
@@ -185,7 +193,13 @@ public final class Tracer {
     if (noop.get() == false && Boolean.TRUE.equals(context.sampled())) {
       return RealSpan.create(context, clock, recorder);
     }
-    return NoopSpan.create(context);
+    return unsampledSpan(context);
+  }
+
+  /** Unsampled spans are only timed when there's a span observer to receive them. */
+  Span unsampledSpan(TraceContext context) {
+    if (spanObserver == SpanObserver.NOOP || noop.get()) return NoopSpan.create(context);
+    return new TimingSpan(context, clock, spanObserver);
   }
 
   /**
@@ -195,7 +209,7 @@ public final class Tracer {
   public Span newChild(TraceContext parent) {
     if (parent == null) throw new NullPointerException("parent == null");
     if (Boolean.FALSE.equals(parent.sampled())) {
-      return NoopSpan.create(parent);
+      return unsampledSpan(parent);
     }
     return ensureSampled(nextContext(parent, parent));
   }
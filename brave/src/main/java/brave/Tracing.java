@@ -1,12 +1,18 @@
 package brave;
 
+import brave.handler.FinishedSpanHandler;
 import brave.internal.Internal;
 import brave.internal.Platform;
+import brave.metrics.LatencyHistograms;
+import brave.metrics.SpanObserver;
 import brave.propagation.CurrentTraceContext;
 import brave.propagation.Propagation;
 import brave.propagation.TraceContext;
 import brave.sampler.Sampler;
+import brave.sampler.TailSampler;
 import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
 import javax.annotation.Nullable;
 import zipkin.Endpoint;
@@ -109,6 +115,10 @@ public abstract class Tracing implements Closeable {
     Reporter<zipkin.Span> reporter;
     Clock clock;
     Sampler sampler = Sampler.ALWAYS_SAMPLE;
+    TailSampler tailSampler;
+    SpanObserver spanObserver = SpanObserver.NOOP;
+    SpanLimits spanLimits;
+    List<FinishedSpanHandler> finishedSpanHandlers = new ArrayList<>();
     CurrentTraceContext currentTraceContext = new CurrentTraceContext.Default();
     boolean traceId128Bit = false;
     Propagation.Factory propagationFactory = Propagation.Factory.B3;
@@ -173,6 +183,63 @@ public abstract class Tracing implements Closeable {
       return this;
     }
 
+    /**
+     * Optional. When set, sampled spans are buffered until the local root of their trace finishes,
+     * then reported or dropped together, depending on the tail sampler's decision. This allows you
+     * to report only slow or failed requests, at the cost of recording all of them.
+     *
+     * <p>This is applied after the {@link #sampler(Sampler) sampler}, which decides which spans are
+     * recorded in the first place.
+     *
+     * @see TailSampler
+     */
+    public Builder tailSampler(TailSampler tailSampler) {
+      if (tailSampler == null) throw new NullPointerException("tailSampler == null");
+      this.tailSampler = tailSampler;
+      return this;
+    }
+
+    /**
+     * Observes the name, kind and timing of every finished span, before it is reported. This allows
+     * you to derive metrics, such as {@link LatencyHistograms latency histograms}, without the
+     * overhead of reporting every span. Defaults to {@link SpanObserver#NOOP}.
+     *
+     * <p>When set, unsampled spans are no longer {@link Span#isNoop() noop}. Instead, they record
+     * only their name, kind and timestamps for this observer, ignoring other data such as tags.
+     */
+    public Builder spanObserver(SpanObserver spanObserver) {
+      if (spanObserver == null) throw new NullPointerException("spanObserver == null");
+      this.spanObserver = spanObserver;
+      return this;
+    }
+
+    /**
+     * Optional. When set, limits the size of tags and count of tags and annotations recorded per
+     * span. This prevents oversized spans, such as those with large SQL tags, from filling the
+     * {@link #reporter(Reporter) reporter's} queue and causing other spans to drop.
+     *
+     * @see SpanLimits
+     */
+    public Builder spanLimits(SpanLimits spanLimits) {
+      if (spanLimits == null) throw new NullPointerException("spanLimits == null");
+      this.spanLimits = spanLimits;
+      return this;
+    }
+
+    /**
+     * Adds a handler invoked after a span finishes and before it is reported. Handlers can rename
+     * or redact spans, or drop them by returning false. They are invoked in the order added.
+     *
+     * @see FinishedSpanHandler
+     */
+    public Builder addFinishedSpanHandler(FinishedSpanHandler finishedSpanHandler) {
+      if (finishedSpanHandler == null) {
+        throw new NullPointerException("finishedSpanHandler == null");
+      }
+      finishedSpanHandlers.add(finishedSpanHandler);
+      return this;
+    }
+
     /**
      * Responsible for implementing {@link Tracer#currentSpan()} and {@link
      * Tracer#withSpanInScope(Span)}. By default a simple thread-local is used. Override to support
@@ -211,6 +278,18 @@ public abstract class Tracing implements Closeable {
       @Override public Long timestamp(Tracer tracer, TraceContext context) {
         return tracer.recorder.timestamp(context);
       }
+
+      @Override public void incrementTagsTruncated(SpanLimits limits) {
+        limits.incrementTagsTruncated();
+      }
+
+      @Override public void incrementTagsDropped(SpanLimits limits) {
+        limits.incrementTagsDropped();
+      }
+
+      @Override public void incrementAnnotationsDropped(SpanLimits limits) {
+        limits.incrementAnnotationsDropped();
+      }
     };
   }
 
@@ -0,0 +1,35 @@
+package brave.handler;
+
+import brave.propagation.TraceContext;
+
+/**
+ * Handles a span after it is finished and before it is reported. This can rename or redact
+ * spans, or drop them entirely.
+ *
+ * <p>Ex. Here's how to drop health-check spans and redact passwords in urls:
+ * <pre>{@code
+ * tracingBuilder.addFinishedSpanHandler(new FinishedSpanHandler() {
+ *   @Override public boolean handle(TraceContext context, MutableSpan span) {
+ *     if ("/health".equals(span.tag("http.path"))) return false;
+ *     span.forEachTag((key, value) -> value.replaceAll("password=[^&]*", "password=xxx"));
+ *     return true;
+ *   }
+ * });
+ * }</pre>
+ *
+ * <p>Handlers are invoked in the order they were added, on the thread that finishes the span.
+ * Since this happens before the span is encoded, dropping a span costs no more than the handler
+ * itself.
+ */
+// abstract for factory-method support on Java language level 7
+public abstract class FinishedSpanHandler {
+
+  /**
+   * Returns false to drop the span. When false, subsequent handlers are not invoked.
+   *
+   * @param context the trace context of the span. When the span was orphaned, this only includes
+   * identifiers and sampling flags.
+   * @param span the span, which is only valid during this call.
+   */
+  public abstract boolean handle(TraceContext context, MutableSpan span);
+}
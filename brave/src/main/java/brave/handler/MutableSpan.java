@@ -0,0 +1,49 @@
+package brave.handler;
+
+import brave.Span;
+import javax.annotation.Nullable;
+
+/**
+ * The state of a finished span before it is encoded and reported. This is only valid during {@link
+ * FinishedSpanHandler#handle}: do not retain references to it.
+ *
+ * <p>Only data commonly redacted or renamed is mutable. Timestamps and annotations are read-only.
+ */
+// abstract for factory-method support on Java language level 7
+public abstract class MutableSpan {
+
+  /** Returns the span name, or empty string if unset. */
+  public abstract String name();
+
+  /** Replaces the span name. */
+  public abstract void name(String name);
+
+  /** Returns the kind of the span, or null if it is a local span. */
+  @Nullable public abstract Span.Kind kind();
+
+  /** Epoch microseconds when the span started, or zero if unknown. */
+  public abstract long startTimestamp();
+
+  /** Epoch microseconds when the span finished, or zero if it was flushed instead. */
+  public abstract long finishTimestamp();
+
+  /** Returns the first value of the tag with this key, or null if there isn't one. */
+  @Nullable public abstract String tag(String key);
+
+  /** Replaces any values of the tag with this key, or adds it if absent. */
+  public abstract void tag(String key, String value);
+
+  /** Removes any tag with this key. */
+  public abstract void removeTag(String key);
+
+  /** Allows you to update or remove tags in one pass, for example to redact them. */
+  public abstract void forEachTag(TagUpdater tagUpdater);
+
+  public interface TagUpdater {
+    /**
+     * Returns the value to keep for this tag, which is usually the input value. Returns null to
+     * remove the tag.
+     */
+    @Nullable String update(String key, String value);
+  }
+}
@@ -1,5 +1,6 @@
 package brave.internal;
 
+import brave.SpanLimits;
 import brave.Tracer;
 import brave.propagation.TraceContext;
 import javax.annotation.Nullable;
@@ -7,7 +8,7 @@ import javax.annotation.Nullable;
 /**
  * Allows internal classes outside the package {@code brave} to use non-public methods. This allows
  * us access internal methods while also making obvious the hooks are not for public use. The only
- * implementation of this interface is in {@link brave.Tracer}.
+ * implementation of this interface is in {@link brave.Tracing}.
  *
  * <p>Originally designed by OkHttp team, derived from {@code okhttp3.internal.Internal}
  */
@@ -16,5 +17,12 @@ public abstract class Internal {
   // Used by Brave 3 apis
   public abstract @Nullable Long timestamp(Tracer tracer, TraceContext context);
 
+  // Counters of SpanLimits, which are read-only outside the package brave
+  public abstract void incrementTagsTruncated(SpanLimits limits);
+
+  public abstract void incrementTagsDropped(SpanLimits limits);
+
+  public abstract void incrementAnnotationsDropped(SpanLimits limits);
+
   public static Internal instance;
 }
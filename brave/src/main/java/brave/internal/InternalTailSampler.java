@@ -0,0 +1,21 @@
+package brave.internal;
+
+import brave.sampler.TailSampler;
+
+/**
+ * Allows the recorder to update the {@link TailSampler.Metrics metrics} of a tail sampler, which
+ * are read-only outside the package {@code brave.sampler}. The only implementation of this is in
+ * {@link TailSampler}, which is always loaded before the recorder buffers spans for it.
+ *
+ * @see Internal
+ */
+public abstract class InternalTailSampler {
+
+  public abstract void incrementTracesKept(TailSampler.Metrics metrics);
+
+  public abstract void incrementTracesDiscarded(TailSampler.Metrics metrics);
+
+  public abstract void incrementTracesEvicted(TailSampler.Metrics metrics);
+
+  public static InternalTailSampler instance;
+}
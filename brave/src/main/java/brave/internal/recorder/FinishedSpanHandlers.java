@@ -0,0 +1,36 @@
+package brave.internal.recorder;
+
+import brave.handler.FinishedSpanHandler;
+import brave.handler.MutableSpan;
+import brave.propagation.TraceContext;
+import java.util.Arrays;
+import java.util.List;
+import javax.annotation.Nullable;
+
+/** Invokes handlers in order, stopping at the first that drops the span. */
+final class FinishedSpanHandlers extends FinishedSpanHandler {
+
+  /** Returns null if there are no handlers, which avoids allocating a view of the span. */
+  @Nullable static FinishedSpanHandler compose(List<FinishedSpanHandler> handlers) {
+    if (handlers.isEmpty()) return null;
+    if (handlers.size() == 1) return handlers.get(0);
+    return new FinishedSpanHandlers(handlers);
+  }
+
+  final FinishedSpanHandler[] handlers;
+
+  FinishedSpanHandlers(List<FinishedSpanHandler> handlers) {
+    this.handlers = handlers.toArray(new FinishedSpanHandler[handlers.size()]);
+  }
+
+  @Override public boolean handle(TraceContext context, MutableSpan span) {
+    for (FinishedSpanHandler handler : handlers) {
+      if (!handler.handle(context, span)) return false;
+    }
+    return true;
+  }
+
+  @Override public String toString() {
+    return "FinishedSpanHandlers(" + Arrays.toString(handlers) + ")";
+  }
+}
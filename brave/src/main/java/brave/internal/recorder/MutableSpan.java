@@ -1,7 +1,11 @@
 package brave.internal.recorder;
 
 import brave.Span;
+import brave.SpanLimits;
+import brave.handler.FinishedSpanHandler;
+import brave.internal.Internal;
 import brave.propagation.TraceContext;
+import java.util.ArrayList;
 import javax.annotation.Nullable;
 import zipkin.Annotation;
 import zipkin.BinaryAnnotation;
@@ -12,11 +16,22 @@ import static zipkin.Constants.LOCAL_COMPONENT;
 
 final class MutableSpan {
   final Endpoint localEndpoint;
+  @Nullable final SpanLimits limits;
   final zipkin.Span.Builder span;
+  // tags are kept apart from the span builder, so that finished span handlers can edit them
+  final ArrayList<String> tags = new ArrayList<>(); // alternating key and value
+  int tagCount, annotationCount;
   boolean shared;
+  // identifiers, in case the context is garbage collected before the span is reported
+  final long traceIdHigh, traceId, spanId;
+  @Nullable final Long parentId;
+  final boolean debug;
   // fields which are added late
-  long startTimestamp;
+  long startTimestamp, finishTimestamp;
   Endpoint remoteEndpoint;
+  // fields read by the span observer, which can't read the zipkin span builder
+  String name = "";
+  boolean error;
 
   // flags which help us know how to reassemble the span
   Span.Kind kind;
@@ -33,13 +48,23 @@ final class MutableSpan {
   // Since this is not exposed, this class could be refactored later as needed to act in a pool
   // to reduce GC churn. This would involve calling span.clear and resetting the fields below.
   MutableSpan(TraceContext context, Endpoint localEndpoint) {
+    this(context, localEndpoint, null);
+  }
+
+  MutableSpan(TraceContext context, Endpoint localEndpoint, @Nullable SpanLimits limits) {
     this.localEndpoint = localEndpoint;
+    this.limits = limits;
+    this.traceIdHigh = context.traceIdHigh();
+    this.traceId = context.traceId();
+    this.parentId = context.parentId();
+    this.spanId = context.spanId();
+    this.debug = context.debug();
     this.span = zipkin.Span.builder()
-        .traceIdHigh(context.traceIdHigh())
-        .traceId(context.traceId())
-        .parentId(context.parentId())
-        .id(context.spanId())
-        .debug(context.debug())
+        .traceIdHigh(traceIdHigh)
+        .traceId(traceId)
+        .parentId(parentId)
+        .id(spanId)
+        .debug(debug)
         .name(""); // avoid a NPE
     shared = context.shared();
     startTimestamp = 0;
@@ -54,7 +79,7 @@ final class MutableSpan {
   }
 
   synchronized MutableSpan name(String name) {
-    span.name(name);
+    this.name = name;
     return this;
   }
 
@@ -64,9 +89,21 @@ final class MutableSpan {
   }
 
   synchronized MutableSpan annotate(long timestamp, String value) {
+    if (!coreAnnotation(value) && limits != null) { // core annotations are always kept
+      if (annotationCount >= limits.maxAnnotations()) {
+        Internal.instance.incrementAnnotationsDropped(limits);
+        return this;
+      }
+      annotationCount++;
+    }
     span.addAnnotation(Annotation.create(timestamp, value, localEndpoint));
     flags |= FLAG_LOCAL_ENDPOINT;
-    if (value.length() != 2) return this;
+    return this;
+  }
+
+  /** Returns true and updates flags if the value is a core annotation, such as "sr" */
+  boolean coreAnnotation(String value) {
+    if (value.length() != 2) return false;
     if (value.equals(Constants.CLIENT_SEND)) {
       flags |= FLAG_CS;
       kind = Span.Kind.CLIENT;
@@ -79,16 +116,38 @@ final class MutableSpan {
     } else if (value.equals(Constants.CLIENT_RECV)) {
       flags |= FLAG_CR;
       kind = Span.Kind.CLIENT;
+    } else {
+      return false;
     }
-    return this;
+    return true;
   }
 
   synchronized MutableSpan tag(String key, String value) {
-    span.addBinaryAnnotation(BinaryAnnotation.create(key, value, localEndpoint));
+    if (key.equals(Constants.ERROR)) {
+      error = true; // the error tag doesn't count towards the limit
+    } else if (limits != null) {
+      if (tagCount >= limits.maxTags()) {
+        Internal.instance.incrementTagsDropped(limits);
+        return this;
+      }
+      tagCount++;
+    }
+    if (limits != null && value.length() > limits.maxTagValueLength()) {
+      value = truncate(value, limits.maxTagValueLength());
+      Internal.instance.incrementTagsTruncated(limits);
+    }
+    tags.add(key);
+    tags.add(value);
     flags |= FLAG_LOCAL_ENDPOINT;
     return this;
   }
 
+  /** Truncates the value without splitting a surrogate pair. */
+  static String truncate(String value, int length) {
+    if (Character.isHighSurrogate(value.charAt(length - 1))) length--;
+    return value.substring(0, length);
+  }
+
   synchronized MutableSpan remoteEndpoint(Endpoint remoteEndpoint) {
     this.remoteEndpoint = remoteEndpoint;
     return this;
@@ -98,6 +157,7 @@ final class MutableSpan {
   synchronized MutableSpan finish(@Nullable Long finishTimestamp) {
     if (finished) return this;
     finished = true;
+    if (finishTimestamp != null) this.finishTimestamp = finishTimestamp;
 
     if (startTimestamp != 0) {
       span.timestamp(startTimestamp);
@@ -151,7 +211,113 @@ final class MutableSpan {
     return this;
   }
 
+  /** Returns a context with the same identifiers as the one this span was created with. */
+  TraceContext context() {
+    return TraceContext.newBuilder()
+        .traceIdHigh(traceIdHigh)
+        .traceId(traceId)
+        .parentId(parentId)
+        .spanId(spanId)
+        .sampled(true)
+        .debug(debug)
+        .shared(shared).build();
+  }
+
   synchronized zipkin.Span toSpan() {
+    span.name(name);
+    for (int i = 0, length = tags.size(); i < length; i += 2) {
+      String key = tags.get(i), value = tags.get(i + 1);
+      span.addBinaryAnnotation(BinaryAnnotation.create(key, value, localEndpoint));
+    }
     return span.build();
   }
+
+  /** Returns a view of this span for {@link FinishedSpanHandler finished span handlers} */
+  brave.handler.MutableSpan handlerView() {
+    return new HandlerView();
+  }
+
+  // not synchronized as handlers are invoked while the recorder holds the lock on this span
+  final class HandlerView extends brave.handler.MutableSpan {
+    @Override public String name() {
+      return name;
+    }
+
+    @Override public void name(String name) {
+      if (name == null) throw new NullPointerException("name == null");
+      MutableSpan.this.name = name;
+    }
+
+    @Override @Nullable public Span.Kind kind() {
+      return kind;
+    }
+
+    @Override public long startTimestamp() {
+      return startTimestamp;
+    }
+
+    @Override public long finishTimestamp() {
+      return finishTimestamp;
+    }
+
+    @Override @Nullable public String tag(String key) {
+      if (key == null) throw new NullPointerException("key == null");
+      for (int i = 0, length = tags.size(); i < length; i += 2) {
+        if (key.equals(tags.get(i))) return tags.get(i + 1);
+      }
+      return null;
+    }
+
+    @Override public void tag(String key, String value) {
+      if (key == null) throw new NullPointerException("key == null");
+      if (value == null) throw new NullPointerException("value == null");
+      boolean replaced = false;
+      for (int i = 0; i < tags.size(); i += 2) {
+        if (!key.equals(tags.get(i))) continue;
+        if (replaced) {
+          removePair(i);
+          i -= 2;
+        } else {
+          tags.set(i + 1, value);
+          replaced = true;
+        }
+      }
+      if (!replaced) {
+        tags.add(key);
+        tags.add(value);
+      }
+    }
+
+    @Override public void removeTag(String key) {
+      if (key == null) throw new NullPointerException("key == null");
+      for (int i = 0; i < tags.size(); i += 2) {
+        if (key.equals(tags.get(i))) {
+          removePair(i);
+          i -= 2;
+        }
+      }
+    }
+
+    @Override public void forEachTag(TagUpdater tagUpdater) {
+      if (tagUpdater == null) throw new NullPointerException("tagUpdater == null");
+      for (int i = 0; i < tags.size(); i += 2) {
+        String value = tagUpdater.update(tags.get(i), tags.get(i + 1));
+        if (value != null) {
+          tags.set(i + 1, value);
+        } else {
+          removePair(i);
+          i -= 2;
+        }
+      }
+    }
+
+    void removePair(int i) {
+      tags.remove(i + 1);
+      tags.remove(i);
+    }
+
+    @Override public String toString() {
+      return "MutableSpan(" + context() + ")";
+    }
+  }
 }
@@ -1,6 +1,8 @@
 package brave.internal.recorder;
 
 import brave.Clock;
+import brave.SpanLimits;
+import brave.handler.FinishedSpanHandler;
 import brave.propagation.TraceContext;
 import java.lang.ref.Reference;
 import java.lang.ref.ReferenceQueue;
@@ -34,17 +36,26 @@ final class MutableSpanMap extends ReferenceQueue<TraceContext> {
   final Clock clock;
   final Reporter<zipkin.Span> reporter;
   final AtomicBoolean noop;
+  @Nullable final PendingTraces pendingTraces;
+  @Nullable final SpanLimits spanLimits;
+  @Nullable final FinishedSpanHandler finishedSpanHandler;
 
   MutableSpanMap(
       Endpoint localEndpoint,
       Clock clock,
       Reporter<zipkin.Span> reporter,
-      AtomicBoolean noop
+      AtomicBoolean noop,
+      @Nullable PendingTraces pendingTraces,
+      @Nullable SpanLimits spanLimits,
+      @Nullable FinishedSpanHandler finishedSpanHandler
   ) {
     this.localEndpoint = localEndpoint;
     this.clock = clock;
     this.reporter = reporter;
     this.noop = noop;
+    this.pendingTraces = pendingTraces;
+    this.spanLimits = spanLimits;
+    this.finishedSpanHandler = finishedSpanHandler;
   }
 
   @Nullable MutableSpan get(TraceContext context) {
@@ -57,9 +68,10 @@ final class MutableSpanMap extends ReferenceQueue<TraceContext> {
     MutableSpan result = get(context);
     if (result != null) return result;
 
-    MutableSpan newSpan = new MutableSpan(context, localEndpoint);
+    MutableSpan newSpan = new MutableSpan(context, localEndpoint, spanLimits);
     MutableSpan previousSpan = delegate.putIfAbsent(new RealKey(context, this), newSpan);
     if (previousSpan != null) return previousSpan; // lost race
+    if (pendingTraces != null) pendingTraces.started(context);
     return newSpan;
   }
 
@@ -79,6 +91,15 @@ final class MutableSpanMap extends ReferenceQueue<TraceContext> {
       if (value == null || noop.get()) continue;
       try {
         value.annotate(clock.currentTimeMicroseconds(), "brave.flush");
+        if (finishedSpanHandler != null) {
+          TraceContext orphaned = context != null ? context : value.context();
+          synchronized (value) {
+            if (!finishedSpanHandler.handle(orphaned, value.handlerView())) {
+              if (pendingTraces != null) pendingTraces.abandoned(orphaned);
+              continue;
+            }
+          }
+        }
         reporter.report(value.toSpan());
       } catch (RuntimeException e) {
         // don't crash the caller if there was a problem reporting an unrelated span.
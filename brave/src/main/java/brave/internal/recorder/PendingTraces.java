@@ -0,0 +1,237 @@
+package brave.internal.recorder;
+
+import brave.internal.InternalTailSampler;
+import brave.propagation.TraceContext;
+import brave.sampler.TailSampler;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import zipkin.Codec;
+import zipkin.reporter.Reporter;
+
+/**
+ * Buffers finished spans until the local root of their trace finishes, then reports or drops all of
+ * them according to the {@link TailSampler}.
+ *
+ * <p>A local root is a span whose parent was not recorded in this process. Each local root and its
+ * descendants are tracked as a group, so two requests in the same trace are decided separately.
+ * Spans that finish after their local root follow the decision already made.
+ *
+ * <p>Groups are striped by trace ID, so that unrelated traces don't contend on the same lock. All
+ * spans of a trace share a stripe. The buffer bounds are global, so when they are exceeded, the
+ * oldest undecided group across all stripes is evicted under a separate lock. Reporting happens
+ * outside any lock.
+ */
+final class PendingTraces implements Reporter<zipkin.Span> {
+  static final Logger logger = Logger.getLogger(PendingTraces.class.getName());
+  static final int STRIPE_COUNT = 16; // must be a power of two
+
+  final TailSampler sampler;
+  final TailSampler.Metrics metrics;
+  final Reporter<zipkin.Span> delegate;
+  final Stripe[] stripes = new Stripe[STRIPE_COUNT];
+  final AtomicLong nextSequence = new AtomicLong();
+  final AtomicInteger bufferedSpans = new AtomicInteger(), bufferedBytes = new AtomicInteger();
+  final Object evictionLock = new Object();
+
+  PendingTraces(TailSampler sampler, Reporter<zipkin.Span> delegate) {
+    this.sampler = sampler;
+    this.metrics = sampler.metrics();
+    this.delegate = delegate;
+    for (int i = 0; i < STRIPE_COUNT; i++) stripes[i] = new Stripe();
+  }
+
+  /** Called when a span is first recorded, which is how we know if it is a local root. */
+  void started(TraceContext context) {
+    Stripe stripe = stripe(context.traceId());
+    synchronized (stripe) {
+      Group group = stripe.lookup(context.traceIdHigh(), context.traceId(), context.spanId());
+      if (group == null && context.parentId() != null) {
+        group = stripe.lookup(context.traceIdHigh(), context.traceId(), context.parentId());
+      }
+      if (group == null) {
+        group = new Group(context.traceIdHigh(), context.traceId(), context.spanId(),
+            nextSequence.getAndIncrement());
+        stripe.undecided.add(group);
+      }
+      group.spanIds.add(context.spanId());
+      stripe.groups.put(context.spanId(), group);
+      group.unfinished++;
+    }
+  }
+
+  /** Called when a span was abandoned, so that we don't wait for it to finish. */
+  void abandoned(TraceContext context) {
+    Stripe stripe = stripe(context.traceId());
+    synchronized (stripe) {
+      Group group = stripe.lookup(context.traceIdHigh(), context.traceId(), context.spanId());
+      if (group == null) return;
+      if (group.decision == null && group.rootSpanId == context.spanId()) {
+        decide(stripe, group, false);
+        InternalTailSampler.instance.incrementTracesDiscarded(metrics);
+      }
+      stripe.release(group);
+    }
+  }
+
+  /** Buffers the span, or reports its group if it was the local root. */
+  @Override public void report(zipkin.Span span) {
+    List<zipkin.Span> toReport = buffer(span);
+    for (int i = 0, length = toReport.size(); i < length; i++) {
+      try {
+        delegate.report(toReport.get(i));
+      } catch (RuntimeException e) {
+        // don't crash the caller if there was a problem reporting an unrelated span.
+        if (logger.isLoggable(Level.FINE)) {
+          logger.log(Level.FINE, "error reporting " + toReport.get(i), e);
+        }
+      }
+    }
+  }
+
+  List<zipkin.Span> buffer(zipkin.Span span) {
+    Stripe stripe = stripe(span.traceId);
+    synchronized (stripe) {
+      Group group = stripe.lookup(span.traceIdHigh, span.traceId, span.id);
+      if (group == null) return Collections.emptyList(); // evicted and released
+      try {
+        if (group.decision != null) { // local root already finished
+          return group.decision ? Collections.singletonList(span)
+              : Collections.<zipkin.Span>emptyList();
+        }
+        if (group.rootSpanId == span.id) {
+          group.spans.add(span); // the local root isn't sized as it is never retained
+          bufferedSpans.incrementAndGet();
+          boolean sampled = sampler.isSampled(span, group.spans);
+          List<zipkin.Span> spans = decide(stripe, group, sampled);
+          if (sampled) {
+            InternalTailSampler.instance.incrementTracesKept(metrics);
+            return spans;
+          }
+          InternalTailSampler.instance.incrementTracesDiscarded(metrics);
+          return Collections.emptyList();
+        }
+        int bytes = Codec.THRIFT.sizeInBytes(span);
+        group.spans.add(span);
+        group.bytes += bytes;
+        bufferedSpans.incrementAndGet();
+        bufferedBytes.addAndGet(bytes);
+      } finally {
+        stripe.release(group);
+      }
+    }
+    // outside the stripe lock, as eviction may need to lock any stripe
+    evictUntilWithinBounds();
+    return Collections.emptyList();
+  }
+
+  void evictUntilWithinBounds() {
+    if (withinBounds()) return;
+    synchronized (evictionLock) {
+      while (!withinBounds()) {
+        Stripe oldest = null;
+        long oldestSequence = Long.MAX_VALUE;
+        for (Stripe stripe : stripes) {
+          synchronized (stripe) {
+            Iterator<Group> undecided = stripe.undecided.iterator();
+            if (!undecided.hasNext()) continue;
+            long sequence = undecided.next().sequence;
+            if (sequence < oldestSequence) {
+              oldest = stripe;
+              oldestSequence = sequence;
+            }
+          }
+        }
+        if (oldest == null) return; // the remaining spans are being decided
+        synchronized (oldest) {
+          Iterator<Group> undecided = oldest.undecided.iterator();
+          if (!undecided.hasNext()) continue; // decided meanwhile
+          Group group = undecided.next();
+          undecided.remove();
+          dropBuffered(group);
+          group.decision = false;
+          InternalTailSampler.instance.incrementTracesEvicted(metrics);
+        }
+      }
+    }
+  }
+
+  boolean withinBounds() {
+    return bufferedSpans.get() <= sampler.maxSpans() && bufferedBytes.get() <= sampler.maxBytes();
+  }
+
+  /** Records the decision, returning any spans buffered for the group. */
+  List<zipkin.Span> decide(Stripe stripe, Group group, boolean sampled) {
+    stripe.undecided.remove(group);
+    List<zipkin.Span> result = group.spans;
+    dropBuffered(group);
+    group.decision = sampled;
+    return result;
+  }
+
+  void dropBuffered(Group group) {
+    bufferedSpans.addAndGet(-group.spans.size());
+    bufferedBytes.addAndGet(-group.bytes);
+    group.spans = new ArrayList<>(0);
+    group.bytes = 0;
+  }
+
+  Stripe stripe(long traceId) {
+    return stripes[(int) (traceId ^ (traceId >>> 32)) & (STRIPE_COUNT - 1)];
+  }
+
+  @Override public String toString() {
+    return "PendingTraces{bufferedSpans=" + bufferedSpans + ", bufferedBytes=" + bufferedBytes + "}";
+  }
+
+  /** Groups of traces whose IDs hash to the same stripe. All state is guarded by this object. */
+  static final class Stripe {
+    // Looks up the group of a span by its ID. IDs are random, so we check the trace ID on read.
+    final Map<Long, Group> groups = new HashMap<>();
+    // Undecided groups in creation order, so that we evict the oldest first
+    final LinkedHashSet<Group> undecided = new LinkedHashSet<>();
+
+    Group lookup(long traceIdHigh, long traceId, long spanId) {
+      Group result = groups.get(spanId);
+      if (result == null || result.traceIdHigh != traceIdHigh || result.traceId != traceId) {
+        return null;
+      }
+      return result;
+    }
+
+    /** Once all spans in a decided group finished, we no longer need to track it. */
+    void release(Group group) {
+      if (--group.unfinished > 0 || group.decision == null) return;
+      for (Long spanId : group.spanIds) {
+        if (groups.get(spanId) == group) groups.remove(spanId);
+      }
+    }
+  }
+
+  static final class Group {
+    final long traceIdHigh;
+    final long traceId;
+    final long rootSpanId;
+    final long sequence; // creation order across stripes
+    final List<Long> spanIds = new ArrayList<>();
+    List<zipkin.Span> spans = new ArrayList<>();
+    int bytes;
+    int unfinished;
+    Boolean decision; // null until the local root finishes
+
+    Group(long traceIdHigh, long traceId, long rootSpanId, long sequence) {
+      this.traceIdHigh = traceIdHigh;
+      this.traceId = traceId;
+      this.rootSpanId = rootSpanId;
+      this.sequence = sequence;
+    }
+  }
+}
@@ -2,7 +2,14 @@ package brave.internal.recorder;
 
 import brave.Clock;
 import brave.Span;
+import brave.SpanLimits;
+import brave.handler.FinishedSpanHandler;
+import brave.metrics.SpanObserver;
 import brave.propagation.TraceContext;
+import brave.sampler.TailSampler;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
 import javax.annotation.Nullable;
 import zipkin.Endpoint;
@@ -14,6 +21,9 @@ public final class Recorder {
   final MutableSpanMap spanMap;
   final Reporter<zipkin.Span> reporter;
   final AtomicBoolean noop;
+  final SpanObserver spanObserver;
+  @Nullable final FinishedSpanHandler finishedSpanHandler;
+  @Nullable final PendingTraces pendingTraces;
 
   public Recorder(
       Endpoint localEndpoint,
@@ -21,9 +31,61 @@ public final class Recorder {
       Reporter<zipkin.Span> reporter,
       AtomicBoolean noop
   ) {
-    this.spanMap = new MutableSpanMap(localEndpoint, clock, reporter, noop);
-    this.reporter = reporter;
+    this(localEndpoint, clock, reporter, noop, new Settings());
+  }
+
+  public Recorder(
+      Endpoint localEndpoint,
+      Clock clock,
+      Reporter<zipkin.Span> reporter,
+      AtomicBoolean noop,
+      Settings settings
+  ) {
+    if (settings == null) throw new NullPointerException("settings == null");
+    TailSampler tailSampler = settings.tailSampler;
+    this.pendingTraces = tailSampler != null ? new PendingTraces(tailSampler, reporter) : null;
+    this.reporter = pendingTraces != null ? pendingTraces : reporter;
+    this.finishedSpanHandler = FinishedSpanHandlers.compose(settings.finishedSpanHandlers);
+    this.spanMap = new MutableSpanMap(localEndpoint, clock, this.reporter, noop, pendingTraces,
+        settings.spanLimits, finishedSpanHandler);
     this.noop = noop;
+    this.spanObserver = settings.spanObserver;
+  }
+
+  /** Optional features of the recorder, which are all disabled by default. */
+  public static final class Settings {
+    @Nullable TailSampler tailSampler;
+    SpanObserver spanObserver = SpanObserver.NOOP;
+    @Nullable SpanLimits spanLimits;
+    List<FinishedSpanHandler> finishedSpanHandlers = Collections.emptyList();
+
+    /** When present, spans are buffered until their local root finishes. */
+    public Settings tailSampler(@Nullable TailSampler tailSampler) {
+      this.tailSampler = tailSampler;
+      return this;
+    }
+
+    /** Sees the timing of each finished span, before it is reported. */
+    public Settings spanObserver(SpanObserver spanObserver) {
+      if (spanObserver == null) throw new NullPointerException("spanObserver == null");
+      this.spanObserver = spanObserver;
+      return this;
+    }
+
+    /** When present, limits the data recorded per span. */
+    public Settings spanLimits(@Nullable SpanLimits spanLimits) {
+      this.spanLimits = spanLimits;
+      return this;
+    }
+
+    /** Invoked in order after a span finishes, before it is reported. */
+    public Settings finishedSpanHandlers(List<FinishedSpanHandler> finishedSpanHandlers) {
+      if (finishedSpanHandlers == null) {
+        throw new NullPointerException("finishedSpanHandlers == null");
+      }
+      this.finishedSpanHandlers = new ArrayList<>(finishedSpanHandlers);
+      return this;
+    }
   }
 
   /**
@@ -77,25 +139,49 @@ public final class Recorder {
   /** @see Span#finish() */
   public void finish(TraceContext context, long finishTimestamp) {
     MutableSpan span = spanMap.remove(context);
-    if (span == null || noop.get()) return;
+    if (span == null) return;
+    if (noop.get()) {
+      if (pendingTraces != null) pendingTraces.abandoned(context);
+      return;
+    }
     synchronized (span) {
       span.finish(finishTimestamp);
+      if (span.startTimestamp != 0) {
+        spanObserver.onFinish(span.name, span.kind, span.startTimestamp, finishTimestamp,
+            span.error);
+      }
+      if (!handle(context, span)) return;
       reporter.report(span.toSpan());
     }
   }
 
   /** @see Span#abandon() */
   public void abandon(TraceContext context) {
-    spanMap.remove(context);
+    MutableSpan span = spanMap.remove(context);
+    if (span != null && pendingTraces != null) pendingTraces.abandoned(context);
   }
 
   /** @see Span#flush() */
   public void flush(TraceContext context) {
     MutableSpan span = spanMap.remove(context);
-    if (span == null || noop.get()) return;
+    if (span == null) return;
+    if (noop.get()) {
+      if (pendingTraces != null) pendingTraces.abandoned(context);
+      return;
+    }
     synchronized (span) {
       span.finish(null);
+      if (!handle(context, span)) return;
       reporter.report(span.toSpan());
     }
   }
+
+  /** Returns false if a finished span handler dropped the span. */
+  boolean handle(TraceContext context, MutableSpan span) {
+    if (finishedSpanHandler == null || finishedSpanHandler.handle(context, span.handlerView())) {
+      return true;
+    }
+    if (pendingTraces != null) pendingTraces.abandoned(context);
+    return false;
+  }
 }
@@ -0,0 +1,128 @@
+package brave.metrics;
+
+import brave.Span;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import javax.annotation.Nullable;
+
+/**
+ * Latency distribution of spans with the same name and kind, in microseconds.
+ *
+ * <p>Durations are counted in log-linear buckets: each power of two is split into 16 equal
+ * buckets, so values are accurate within 1/16th (6.25%) of their magnitude. Durations over 2^36
+ * microseconds (about 19 hours) are counted in the last bucket. Recording is lock-free and doesn't
+ * allocate.
+ */
+public final class LatencyHistogram {
+  static final int SUB_BUCKET_BITS = 4;
+  static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  static final int MAX_BITS = 36;
+  static final long MAX_VALUE = (1L << MAX_BITS) - 1;
+  static final int BUCKETS = bucketIndex(MAX_VALUE) + 1;
+
+  final String name;
+  @Nullable final Span.Kind kind;
+  final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+  final AtomicLong count = new AtomicLong();
+  final AtomicLong errorCount = new AtomicLong();
+  final AtomicLong totalDuration = new AtomicLong();
+  final AtomicLong maxDuration = new AtomicLong();
+
+  LatencyHistogram(String name, @Nullable Span.Kind kind) {
+    this.name = name;
+    this.kind = kind;
+  }
+
+  /** The span name these durations were recorded for */
+  public String name() {
+    return name;
+  }
+
+  /** The span kind these durations were recorded for, or null for local spans. */
+  @Nullable public Span.Kind kind() {
+    return kind;
+  }
+
+  /** Count of spans recorded */
+  public long count() {
+    return count.get();
+  }
+
+  /** Count of spans recorded which had an error */
+  public long errorCount() {
+    return errorCount.get();
+  }
+
+  /** Sum of all recorded durations in microseconds. */
+  public long totalDuration() {
+    return totalDuration.get();
+  }
+
+  /** Longest recorded duration in microseconds, or zero if nothing was recorded. */
+  public long maxDuration() {
+    return maxDuration.get();
+  }
+
+  /**
+   * Returns the duration in microseconds at or below which the given percentage of spans
+   * completed, or zero if nothing was recorded. The result is the upper bound of the bucket the
+   * percentile falls into, but never more than {@link #maxDuration()}.
+   *
+   * @param percentile a value between 0 and 100, for example 99.9
+   */
+  public long valueAtPercentile(double percentile) {
+    if (percentile < 0 || percentile > 100) {
+      throw new IllegalArgumentException("percentile should be between 0 and 100");
+    }
+    // Take a snapshot as recording can happen concurrently
+    long[] snapshot = new long[BUCKETS];
+    long total = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      total += (snapshot[i] = buckets.get(i));
+    }
+    if (total == 0) return 0L;
+    long target = Math.max(1L, (long) Math.ceil(percentile / 100 * total));
+    long max = maxDuration.get();
+    long seen = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      seen += snapshot[i];
+      if (seen >= target) return Math.min(bucketUpperBound(i), max);
+    }
+    return max;
+  }
+
+  void record(long duration, boolean error) {
+    if (duration < 0) duration = 0;
+    buckets.incrementAndGet(bucketIndex(Math.min(duration, MAX_VALUE)));
+    count.incrementAndGet();
+    if (error) errorCount.incrementAndGet();
+    totalDuration.addAndGet(duration);
+    long max;
+    while (duration > (max = maxDuration.get())) {
+      if (maxDuration.compareAndSet(max, duration)) break;
+    }
+  }
+
+  /** Values under 16 have their own bucket. Otherwise, the top 5 bits determine the bucket. */
+  static int bucketIndex(long value) {
+    if (value < SUB_BUCKETS) return (int) value;
+    int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+    return (shift + 1) * SUB_BUCKETS + (int) ((value >>> shift) & (SUB_BUCKETS - 1));
+  }
+
+  /** Returns the largest value counted in the bucket at this index */
+  static long bucketUpperBound(int index) {
+    if (index < SUB_BUCKETS) return index;
+    int shift = index / SUB_BUCKETS - 1;
+    long subBucket = index % SUB_BUCKETS;
+    return ((SUB_BUCKETS + subBucket + 1) << shift) - 1;
+  }
+
+  @Override public String toString() {
+    return "LatencyHistogram{name=" + name
+        + ", kind=" + kind
+        + ", count=" + count
+        + ", errorCount=" + errorCount
+        + ", maxDuration=" + maxDuration + "}";
+  }
+}
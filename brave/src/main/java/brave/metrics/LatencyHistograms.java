@@ -0,0 +1,114 @@
+package brave.metrics;
+
+import brave.Span;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.Nullable;
+
+/**
+ * Aggregates span durations into a {@link LatencyHistogram} per span name and kind. Metrics
+ * systems can poll {@link #histograms()} to export request rate, error rate and latency
+ * percentiles.
+ *
+ * <p>The number of distinct names is bounded, as instrumentation that uses a high cardinality span
+ * name, such as one including an ID, would otherwise exhaust memory. Spans with a name beyond this
+ * limit are counted in {@link #droppedSpans()}.
+ */
+public final class LatencyHistograms extends SpanObserver {
+
+  /** Tracks up to 1000 distinct span names. */
+  public static LatencyHistograms create() {
+    return create(1000);
+  }
+
+  /** @param maxNames maximum count of distinct span names to track, per span kind */
+  public static LatencyHistograms create(int maxNames) {
+    if (maxNames <= 0) throw new IllegalArgumentException("maxNames <= 0");
+    return new LatencyHistograms(maxNames);
+  }
+
+  final int maxNames;
+  // one map per kind, so that lookup needn't allocate a composite key
+  final Histograms local = new Histograms(null), client = new Histograms(Span.Kind.CLIENT),
+      server = new Histograms(Span.Kind.SERVER);
+  final AtomicLong droppedSpans = new AtomicLong();
+
+  LatencyHistograms(int maxNames) {
+    this.maxNames = maxNames;
+  }
+
+  @Override public void onFinish(String name, @Nullable Span.Kind kind, long startTimestamp,
+      long finishTimestamp, boolean error) {
+    LatencyHistogram histogram = histograms(kind).getOrCreate(name);
+    if (histogram == null) {
+      droppedSpans.incrementAndGet();
+      return;
+    }
+    histogram.record(finishTimestamp - startTimestamp, error);
+  }
+
+  /** Returns the histogram for the given span name and kind or null if none were recorded. */
+  @Nullable public LatencyHistogram get(String name, @Nullable Span.Kind kind) {
+    if (name == null) throw new NullPointerException("name == null");
+    return histograms(kind).map.get(name);
+  }
+
+  /** Returns all histograms recorded so far. */
+  public List<LatencyHistogram> histograms() {
+    List<LatencyHistogram> result = new ArrayList<>();
+    result.addAll(local.map.values());
+    result.addAll(client.map.values());
+    result.addAll(server.map.values());
+    return result;
+  }
+
+  /** Count of spans not recorded because there were already too many distinct span names. */
+  public long droppedSpans() {
+    return droppedSpans.get();
+  }
+
+  Histograms histograms(@Nullable Span.Kind kind) {
+    if (kind == null) return local;
+    switch (kind) {
+      case CLIENT:
+        return client;
+      case SERVER:
+        return server;
+      default:
+        throw new AssertionError("update kind mapping");
+    }
+  }
+
+  @Override public String toString() {
+    return "LatencyHistograms{maxNames=" + maxNames + ", droppedSpans=" + droppedSpans + "}";
+  }
+
+  final class Histograms {
+    @Nullable final Span.Kind kind;
+    final ConcurrentMap<String, LatencyHistogram> map = new ConcurrentHashMap<>();
+    final AtomicInteger size = new AtomicInteger();
+
+    Histograms(@Nullable Span.Kind kind) {
+      this.kind = kind;
+    }
+
+    /** Returns null if this is a new name and there are already too many */
+    @Nullable LatencyHistogram getOrCreate(String name) {
+      LatencyHistogram result = map.get(name);
+      if (result != null) return result;
+      if (size.incrementAndGet() > maxNames) {
+        size.decrementAndGet();
+        return null;
+      }
+      LatencyHistogram histogram = new LatencyHistogram(name, kind);
+      result = map.putIfAbsent(name, histogram);
+      if (result == null) return histogram;
+      size.decrementAndGet(); // lost a race
+      return result;
+    }
+  }
+}
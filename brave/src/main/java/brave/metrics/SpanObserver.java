@@ -0,0 +1,50 @@
+package brave.metrics;
+
+import brave.Span;
+import javax.annotation.Nullable;
+
+/**
+ * Observes the timing of each span recorded by the tracer, regardless of whether it is reported.
+ * This allows you to derive metrics such as request rate, error rate and latency distribution
+ * without reporting every span.
+ *
+ * <p>Ex. Here's how to aggregate latency of all spans into histograms:
+ * <pre>{@code
+ * histograms = LatencyHistograms.create();
+ * tracing = Tracing.newBuilder().spanObserver(histograms)...
+ *
+ * // later, for example when a metrics system polls
+ * for (LatencyHistogram histogram : histograms.histograms()) {
+ *   histogram.name() + " p99: " + histogram.valueAtPercentile(99.0);
+ * }
+ * }</pre>
+ *
+ * <p>This is invoked synchronously on the thread that finishes the span. Implementations should
+ * return quickly and not allocate: they can be invoked for every request.
+ */
+// abstract for factory-method support on Java language level 7
+public abstract class SpanObserver {
+
+  /** Ignores all spans. This is the default. */
+  public static final SpanObserver NOOP = new SpanObserver() {
+    @Override public void onFinish(String name, @Nullable Span.Kind kind, long startTimestamp,
+        long finishTimestamp, boolean error) {
+    }
+
+    @Override public String toString() {
+      return "NoopSpanObserver";
+    }
+  };
+
+  /**
+   * Called once per span which was started and finished with a timestamp.
+   *
+   * @param name the span name, or empty string if unset
+   * @param kind the kind of the span, or null if it is a local span
+   * @param startTimestamp epoch microseconds when the span started
+   * @param finishTimestamp epoch microseconds when the span finished
+   * @param error true if the span was tagged {@link zipkin.Constants#ERROR}
+   */
+  public abstract void onFinish(String name, @Nullable Span.Kind kind, long startTimestamp,
+      long finishTimestamp, boolean error);
+}
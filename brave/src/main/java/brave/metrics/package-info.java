@@ -0,0 +1,2 @@
+@javax.annotation.ParametersAreNonnullByDefault
+package brave.metrics;
@@ -0,0 +1,225 @@
+package brave.sampler;
+
+import brave.internal.InternalTailSampler;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import zipkin.BinaryAnnotation;
+import zipkin.Constants;
+import zipkin.TraceKeys;
+
+import static zipkin.internal.Util.UTF_8;
+
+/**
+ * Decides whether to report a trace after its local root span finishes. This is different than
+ * {@link Sampler}, which decides before any work is recorded.
+ *
+ * <p>When {@link brave.Tracing.Builder#tailSampler(TailSampler) configured}, sampled spans are
+ * buffered in process until the local root of their trace finishes. For example, the local root of
+ * a server is usually the span representing the incoming request. At that point, this sampler sees
+ * the local root and any spans in the same trace that finished before it, and decides whether to
+ * report all of them or none of them.
+ *
+ * <p>Ex. Here's a tail sampler that only reports traces which are slow, failed or returned a 5xx
+ * status:
+ * <pre>{@code
+ * tracingBuilder.tailSampler(TailSampler.newBuilder()
+ *   .minDuration(TimeUnit.MILLISECONDS.toMicros(500))
+ *   .build());
+ * }</pre>
+ *
+ * <p>Only spans that pass the {@link brave.Tracing.Builder#sampler(Sampler) up-front sampler} are
+ * buffered. Unless you want to combine both policies, leave that as {@link Sampler#ALWAYS_SAMPLE}.
+ *
+ * <p>Memory used by the buffer is bounded by {@link #maxSpans()} and {@link #maxBytes()}. When
+ * either would be exceeded, the oldest undecided traces are dropped and counted as {@link
+ * Metrics#tracesEvicted() evicted}.
+ */
+// abstract for factory-method support on Java language level 7
+public abstract class TailSampler {
+
+  public static Builder newBuilder() {
+    return new Builder();
+  }
+
+  public static final class Builder {
+    long minDuration = Long.MAX_VALUE;
+    boolean error = true;
+    int minHttpStatusCode = 500;
+    int maxSpans = 10000;
+    int maxBytes = 5 * 1024 * 1024;
+
+    /**
+     * Reports traces whose local root took at least this long, in microseconds. Defaults to only
+     * report traces that match another condition.
+     */
+    public Builder minDuration(long minDuration) {
+      if (minDuration < 0) throw new IllegalArgumentException("minDuration < 0");
+      this.minDuration = minDuration;
+      return this;
+    }
+
+    /** When true, reports traces where any span has an {@link Constants#ERROR} tag. */
+    public Builder error(boolean error) {
+      this.error = error;
+      return this;
+    }
+
+    /**
+     * Reports traces where any span has a {@link TraceKeys#HTTP_STATUS_CODE} at least this value.
+     * Defaults to 500.
+     */
+    public Builder minHttpStatusCode(int minHttpStatusCode) {
+      this.minHttpStatusCode = minHttpStatusCode;
+      return this;
+    }
+
+    /** Maximum count of spans buffered across all undecided traces. Defaults to 10000. */
+    public Builder maxSpans(int maxSpans) {
+      if (maxSpans <= 0) throw new IllegalArgumentException("maxSpans <= 0");
+      this.maxSpans = maxSpans;
+      return this;
+    }
+
+    /**
+     * Maximum size in bytes of spans buffered across all undecided traces, as measured by thrift
+     * encoding. Defaults to 5MiB.
+     */
+    public Builder maxBytes(int maxBytes) {
+      if (maxBytes <= 0) throw new IllegalArgumentException("maxBytes <= 0");
+      this.maxBytes = maxBytes;
+      return this;
+    }
+
+    public TailSampler build() {
+      return new ThresholdTailSampler(this);
+    }
+
+    Builder() {
+    }
+  }
+
+  static {
+    InternalTailSampler.instance = new InternalTailSampler() {
+      @Override public void incrementTracesKept(Metrics metrics) {
+        metrics.tracesKept.incrementAndGet();
+      }
+
+      @Override public void incrementTracesDiscarded(Metrics metrics) {
+        metrics.tracesDiscarded.incrementAndGet();
+      }
+
+      @Override public void incrementTracesEvicted(Metrics metrics) {
+        metrics.tracesEvicted.incrementAndGet();
+      }
+    };
+  }
+
+  final int maxSpans;
+  final int maxBytes;
+  final Metrics metrics = new Metrics();
+
+  protected TailSampler(int maxSpans, int maxBytes) {
+    if (maxSpans <= 0) throw new IllegalArgumentException("maxSpans <= 0");
+    if (maxBytes <= 0) throw new IllegalArgumentException("maxBytes <= 0");
+    this.maxSpans = maxSpans;
+    this.maxBytes = maxBytes;
+  }
+
+  /**
+   * Returns true if the trace should be reported.
+   *
+   * @param localRoot the span in this process which has no local parent
+   * @param spans all buffered spans of this trace, including the local root
+   */
+  public abstract boolean isSampled(zipkin.Span localRoot, List<zipkin.Span> spans);
+
+  /** Maximum count of spans buffered across all undecided traces. */
+  public final int maxSpans() {
+    return maxSpans;
+  }
+
+  /** Maximum size in bytes of spans buffered across all undecided traces. */
+  public final int maxBytes() {
+    return maxBytes;
+  }
+
+  /** Counts the outcome of each trace buffered with this sampler. */
+  public final Metrics metrics() {
+    return metrics;
+  }
+
+  /** Counters updated by the recorder as traces are decided. These are read-only. */
+  public static final class Metrics {
+    final AtomicLong tracesKept = new AtomicLong();
+    final AtomicLong tracesDiscarded = new AtomicLong();
+    final AtomicLong tracesEvicted = new AtomicLong();
+
+    /** Count of traces reported because {@link TailSampler#isSampled} returned true. */
+    public long tracesKept() {
+      return tracesKept.get();
+    }
+
+    /** Count of traces dropped because {@link TailSampler#isSampled} returned false. */
+    public long tracesDiscarded() {
+      return tracesDiscarded.get();
+    }
+
+    /** Count of traces dropped before a decision, as the buffer was full. */
+    public long tracesEvicted() {
+      return tracesEvicted.get();
+    }
+
+    @Override public String toString() {
+      return "TailSamplerMetrics{tracesKept=" + tracesKept
+          + ", tracesDiscarded=" + tracesDiscarded
+          + ", tracesEvicted=" + tracesEvicted + "}";
+    }
+
+    Metrics() {
+    }
+  }
+
+  static final class ThresholdTailSampler extends TailSampler {
+    final long minDuration;
+    final boolean error;
+    final int minHttpStatusCode;
+
+    ThresholdTailSampler(Builder builder) {
+      super(builder.maxSpans, builder.maxBytes);
+      this.minDuration = builder.minDuration;
+      this.error = builder.error;
+      this.minHttpStatusCode = builder.minHttpStatusCode;
+    }
+
+    @Override public boolean isSampled(zipkin.Span localRoot, List<zipkin.Span> spans) {
+      if (localRoot.duration != null && localRoot.duration >= minDuration) return true;
+      for (int i = 0, length = spans.size(); i < length; i++) {
+        zipkin.Span span = spans.get(i);
+        if (Boolean.TRUE.equals(span.debug)) return true;
+        for (int j = 0, count = span.binaryAnnotations.size(); j < count; j++) {
+          BinaryAnnotation b = span.binaryAnnotations.get(j);
+          if (b.type != BinaryAnnotation.Type.STRING) continue;
+          if (error && b.key.equals(Constants.ERROR)) return true;
+          if (b.key.equals(TraceKeys.HTTP_STATUS_CODE) && httpStatus(b) >= minHttpStatusCode) {
+            return true;
+          }
+        }
+      }
+      return false;
+    }
+
+    static int httpStatus(BinaryAnnotation b) {
+      try {
+        return Integer.parseInt(new String(b.value, UTF_8));
+      } catch (NumberFormatException e) {
+        return -1;
+      }
+    }
+
+    @Override public String toString() {
+      return "ThresholdTailSampler{minDuration=" + minDuration
+          + ", error=" + error
+          + ", minHttpStatusCode=" + minHttpStatusCode + "}";
+    }
+  }
+}
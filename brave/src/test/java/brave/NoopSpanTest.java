@@ -21,6 +21,10 @@ public class NoopSpanTest {
     assertThat(span.isNoop()).isTrue();
   }
 
+  @Test public void isNotRecordingData() {
+    assertThat(span.isRecordingData()).isFalse();
+  }
+
   @Test public void hasRealContext() {
     assertThat(span.context().spanId()).isNotZero();
   }
@@ -21,6 +21,10 @@ public class RealSpanTest {
     assertThat(span.isNoop()).isFalse();
   }
 
+  @Test public void isRecordingData() {
+    assertThat(span.isRecordingData()).isTrue();
+  }
+
   @Test public void hasRealContext() {
     assertThat(span.context().spanId()).isNotZero();
   }
@@ -0,0 +1,94 @@
+package brave;
+
+import brave.metrics.LatencyHistograms;
+import brave.sampler.Sampler;
+import org.junit.After;
+import org.junit.Test;
+import zipkin.Constants;
+import zipkin.Endpoint;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TimingSpanTest {
+  LatencyHistograms histograms = LatencyHistograms.create();
+  Tracing tracing = Tracing.newBuilder().sampler(Sampler.NEVER_SAMPLE)
+      .spanObserver(histograms)
+      .reporter(s -> {
+        throw new AssertionError();
+      })
+      .build();
+  Span span = tracing.tracer().newTrace();
+
+  @After public void close() {
+    tracing.close();
+  }
+
+  @Test public void isNotNoop() {
+    assertThat(span)
+        .isInstanceOf(TimingSpan.class)
+        .extracting(Span::isNoop)
+        .containsExactly(false);
+  }
+
+  @Test public void isNotRecordingData() {
+    assertThat(span.isRecordingData()).isFalse();
+  }
+
+  @Test public void finish_recordsTiming() {
+    span.name("get").kind(Span.Kind.SERVER).start(1L);
+    span.finish(11L);
+
+    assertThat(histograms.get("get", Span.Kind.SERVER))
+        .satisfies(h -> {
+          assertThat(h.count()).isEqualTo(1L);
+          assertThat(h.maxDuration()).isEqualTo(10L);
+          assertThat(h.errorCount()).isZero();
+        });
+  }
+
+  @Test public void finish_recordsError() {
+    span.name("get").start(1L);
+    span.tag(Constants.ERROR, "timeout");
+    span.finish(11L);
+
+    assertThat(histograms.get("get", null).errorCount()).isEqualTo(1L);
+  }
+
+  @Test public void finish_onlyOnce() {
+    span.name("get").start(1L);
+    span.finish(11L);
+    span.finish(12L);
+
+    assertThat(histograms.get("get", null).count()).isEqualTo(1L);
+  }
+
+  @Test public void finish_ignoredWhenNotStarted() {
+    span.name("get").finish(11L);
+
+    assertThat(histograms.histograms()).isEmpty();
+  }
+
+  @Test public void abandon_dropsTiming() {
+    span.name("get").start(1L);
+    span.abandon();
+    span.finish(11L);
+
+    assertThat(histograms.histograms()).isEmpty();
+  }
+
+  @Test public void flush_dropsTiming() {
+    span.name("get").start(1L);
+    span.flush();
+
+    assertThat(histograms.histograms()).isEmpty();
+  }
+
+  @Test public void ignoresOtherData() {
+    // Since our reporter throws, we know nothing is reported
+    span.name("get").start(1L);
+    span.annotate(2L, "foo");
+    span.tag("bar", "baz");
+    span.remoteEndpoint(Endpoint.create("lalala", 127 << 24 | 1));
+    span.finish(3L);
+  }
+}
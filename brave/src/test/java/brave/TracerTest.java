@@ -1,5 +1,6 @@
 package brave;
 
+import brave.metrics.LatencyHistograms;
 import brave.propagation.SamplingFlags;
 import brave.propagation.TraceContext;
 import brave.sampler.Sampler;
@@ -161,6 +162,26 @@ public class TracerTest {
         .isInstanceOf(NoopSpan.class);
   }
 
+  @Test public void toSpan_unsampledIsTimed_whenSpanObserver() {
+    tracer = Tracing.newBuilder().spanObserver(LatencyHistograms.create()).build().tracer();
+    TraceContext unsampled =
+        tracer.newTrace().context().toBuilder().sampled(false).build();
+
+    assertThat(tracer.toSpan(unsampled))
+        .isInstanceOf(TimingSpan.class);
+  }
+
+  @Test public void toSpan_noop_whenSpanObserver() {
+    tracer = Tracing.newBuilder().spanObserver(LatencyHistograms.create()).build().tracer();
+    TraceContext unsampled =
+        tracer.newTrace().context().toBuilder().sampled(false).build();
+
+    tracer.noop.set(true);
+
+    assertThat(tracer.toSpan(unsampled))
+        .isInstanceOf(NoopSpan.class);
+  }
+
   @Test public void newChild() {
     TraceContext parent = tracer.newTrace().context();
 
@@ -189,6 +210,15 @@ public class TracerTest {
         .isInstanceOf(NoopSpan.class);
   }
 
+  @Test public void newChild_unsampledIsTimed_whenSpanObserver() {
+    tracer = Tracing.newBuilder().spanObserver(LatencyHistograms.create()).build().tracer();
+    TraceContext unsampled =
+        tracer.newTrace().context().toBuilder().sampled(false).build();
+
+    assertThat(tracer.newChild(unsampled))
+        .isInstanceOf(TimingSpan.class);
+  }
+
   @Test public void currentSpan_defaultsToNull() {
     assertThat(tracer.currentSpan()).isNull();
   }
@@ -0,0 +1,127 @@
+package brave.handler;
+
+import brave.Span;
+import brave.Tracing;
+import brave.propagation.TraceContext;
+import brave.sampler.TailSampler;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.After;
+import org.junit.Test;
+import zipkin.TraceKeys;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static zipkin.internal.Util.UTF_8;
+
+public class FinishedSpanHandlerTest {
+  List<zipkin.Span> spans = new ArrayList<>();
+  List<String> invocations = new ArrayList<>();
+  Tracing tracing;
+
+  @After public void close() {
+    tracing.close();
+  }
+
+  @Test public void handlersInvokedInOrder() {
+    tracing = Tracing.newBuilder().reporter(spans::add)
+        .addFinishedSpanHandler(recordInvocation("1", true))
+        .addFinishedSpanHandler(recordInvocation("2", true))
+        .build();
+
+    tracing.tracer().newTrace().start(1L).finish(2L);
+
+    assertThat(invocations).containsExactly("1", "2");
+    assertThat(spans).hasSize(1);
+  }
+
+  @Test public void dropStopsChain() {
+    tracing = Tracing.newBuilder().reporter(spans::add)
+        .addFinishedSpanHandler(recordInvocation("1", false))
+        .addFinishedSpanHandler(recordInvocation("2", true))
+        .build();
+
+    tracing.tracer().newTrace().start(1L).finish(2L);
+
+    assertThat(invocations).containsExactly("1");
+    assertThat(spans).isEmpty();
+  }
+
+  @Test public void dropsFlushedSpan() {
+    tracing = Tracing.newBuilder().reporter(spans::add)
+        .addFinishedSpanHandler(recordInvocation("1", false))
+        .build();
+
+    tracing.tracer().newTrace().start(1L).flush();
+
+    assertThat(spans).isEmpty();
+  }
+
+  @Test public void seesFinishedState() {
+    List<String> state = new ArrayList<>();
+    tracing = Tracing.newBuilder().reporter(spans::add)
+        .addFinishedSpanHandler(new FinishedSpanHandler() {
+          @Override public boolean handle(TraceContext context, MutableSpan span) {
+            state.add(span.name() + " " + span.kind() + " " + span.startTimestamp() + " "
+                + span.finishTimestamp() + " " + span.tag("foo"));
+            return true;
+          }
+        })
+        .build();
+
+    tracing.tracer().newTrace().name("get").kind(Span.Kind.SERVER).tag("foo", "bar")
+        .start(1L).finish(2L);
+
+    assertThat(state).containsExactly("get SERVER 1 2 bar");
+  }
+
+  @Test public void renamesAndRedacts() {
+    tracing = Tracing.newBuilder().reporter(spans::add)
+        .addFinishedSpanHandler(new FinishedSpanHandler() {
+          @Override public boolean handle(TraceContext context, MutableSpan span) {
+            span.name("renamed");
+            span.tag("foo", "qux");
+            span.removeTag("secret");
+            span.forEachTag((key, value) -> value.replace("password=1234", "password=xxx"));
+            return true;
+          }
+        })
+        .build();
+
+    tracing.tracer().newTrace().name("get")
+        .tag("foo", "bar")
+        .tag("foo", "baz")
+        .tag("secret", "shh")
+        .tag(TraceKeys.HTTP_URL, "/login?password=1234")
+        .start(1L).finish(2L);
+
+    assertThat(spans).extracting(s -> s.name).containsExactly("renamed");
+    assertThat(spans.get(0).binaryAnnotations)
+        .extracting(b -> b.key + "=" + new String(b.value, UTF_8))
+        .containsOnly("foo=qux", TraceKeys.HTTP_URL + "=/login?password=xxx");
+  }
+
+  @Test public void dropReleasesTailSamplingState() {
+    TailSampler tailSampler = TailSampler.newBuilder().minDuration(0L).build();
+    tracing = Tracing.newBuilder().reporter(spans::add).tailSampler(tailSampler)
+        .addFinishedSpanHandler(new FinishedSpanHandler() {
+          @Override public boolean handle(TraceContext context, MutableSpan span) {
+            return !span.name().equals("health");
+          }
+        })
+        .build();
+
+    tracing.tracer().newTrace().name("health").start(1L).finish(2L);
+
+    assertThat(spans).isEmpty();
+    assertThat(tailSampler.metrics().tracesDiscarded()).isEqualTo(1L);
+  }
+
+  FinishedSpanHandler recordInvocation(String name, boolean result) {
+    return new FinishedSpanHandler() {
+      @Override public boolean handle(TraceContext context, MutableSpan span) {
+        invocations.add(name);
+        return result;
+      }
+    };
+  }
+}
@@ -17,7 +17,8 @@ public class MutableSpanMapTest {
   List<zipkin.Span> spans = new ArrayList();
   TraceContext context = Tracing.newBuilder().build().tracer().newTrace().context();
   MutableSpanMap map =
-      new MutableSpanMap(localEndpoint, () -> 0L, spans::add, new AtomicBoolean(false));
+      new MutableSpanMap(localEndpoint, () -> 0L, spans::add, new AtomicBoolean(false), null,
+          null, null);
 
   @Test
   public void getOrCreate_lazyCreatesASpan() throws Exception {
@@ -183,7 +184,7 @@ public class MutableSpanMapTest {
     MutableSpanMap map = new MutableSpanMap(localEndpoint, () -> 0, span ->
     {
       throw new RuntimeException("die!");
-    }, new AtomicBoolean(true));
+    }, new AtomicBoolean(true), null, null, null);
 
     // We drop the reference to the context, which means the next GC should attempt to flush it
     map.getOrCreate(context.toBuilder().build());
@@ -1,6 +1,7 @@
 package brave.internal.recorder;
 
 import brave.Span;
+import brave.SpanLimits;
 import brave.Tracing;
 import brave.internal.Platform;
 import brave.propagation.TraceContext;
@@ -20,6 +21,7 @@ import static zipkin.Constants.LOCAL_COMPONENT;
 import static zipkin.Constants.SERVER_ADDR;
 import static zipkin.Constants.SERVER_RECV;
 import static zipkin.Constants.SERVER_SEND;
+import static zipkin.internal.Util.UTF_8;
 
 public class MutableSpanTest {
   Endpoint localEndpoint = Platform.get().localEndpoint();
@@ -202,6 +204,52 @@ public class MutableSpanTest {
     });
   }
 
+  @Test public void limits_truncateTagValues() {
+    SpanLimits limits = SpanLimits.newBuilder().maxTagValueLength(3).build();
+    MutableSpan span = new MutableSpan(context, localEndpoint, limits);
+
+    span.tag("sql.query", "select 1");
+    span.tag("foo", "bar");
+
+    assertThat(span.toSpan().binaryAnnotations)
+        .extracting(b -> new String(b.value, UTF_8))
+        .containsOnly("sel", "bar");
+    assertThat(limits.tagsTruncated()).isEqualTo(1L);
+  }
+
+  @Test public void limits_truncateDoesntSplitSurrogatePair() {
+    assertThat(MutableSpan.truncate("a\uD83D\uDE00", 2))
+        .isEqualTo("a");
+  }
+
+  @Test public void limits_dropTagsOverMax() {
+    SpanLimits limits = SpanLimits.newBuilder().maxTags(1).build();
+    MutableSpan span = new MutableSpan(context, localEndpoint, limits);
+
+    span.tag("foo", "bar");
+    span.tag("baz", "qux");
+    span.tag(Constants.ERROR, "timeout"); // always kept
+
+    assertThat(span.toSpan().binaryAnnotations)
+        .extracting(b -> b.key)
+        .containsOnly("foo", Constants.ERROR);
+    assertThat(limits.tagsDropped()).isEqualTo(1L);
+  }
+
+  @Test public void limits_dropAnnotationsOverMax() {
+    SpanLimits limits = SpanLimits.newBuilder().maxAnnotations(1).build();
+    MutableSpan span = new MutableSpan(context, localEndpoint, limits);
+
+    span.annotate(1L, "foo");
+    span.annotate(2L, "bar");
+    span.annotate(3L, Constants.SERVER_RECV); // always kept
+
+    assertThat(span.toSpan().annotations)
+        .extracting(a -> a.value)
+        .containsExactly("foo", Constants.SERVER_RECV);
+    assertThat(limits.annotationsDropped()).isEqualTo(1L);
+  }
+
   MutableSpan newSpan() {
     return new MutableSpan(context, localEndpoint);
   }
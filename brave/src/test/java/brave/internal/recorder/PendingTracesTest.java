@@ -0,0 +1,159 @@
+package brave.internal.recorder;
+
+import brave.Span;
+import brave.Tracer;
+import brave.Tracing;
+import brave.internal.Platform;
+import brave.propagation.TraceContext;
+import brave.sampler.TailSampler;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.After;
+import org.junit.Test;
+import zipkin.Constants;
+import zipkin.TraceKeys;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PendingTracesTest {
+  List<zipkin.Span> spans = new ArrayList<>();
+  TailSampler tailSampler = TailSampler.newBuilder().minDuration(100L).maxSpans(3).build();
+  Tracing tracing = Tracing.newBuilder().reporter(spans::add).tailSampler(tailSampler).build();
+  Tracer tracer = tracing.tracer();
+
+  @After public void close() {
+    tracing.close();
+  }
+
+  @Test public void reportsWholeTrace_whenLocalRootIsSlow() {
+    Span root = tracer.newTrace().name("root").start(1L);
+    tracer.newChild(root.context()).name("child").start(2L).finish(3L);
+
+    assertThat(spans).isEmpty(); // buffered until the root finishes
+
+    root.finish(200L);
+
+    assertThat(spans).extracting(s -> s.name)
+        .containsExactly("child", "root");
+    assertThat(tailSampler.metrics().tracesKept()).isEqualTo(1L);
+  }
+
+  @Test public void dropsWholeTrace_whenLocalRootIsFast() {
+    Span root = tracer.newTrace().name("root").start(1L);
+    tracer.newChild(root.context()).name("child").start(2L).finish(3L);
+    root.finish(4L);
+
+    assertThat(spans).isEmpty();
+    assertThat(tailSampler.metrics().tracesDiscarded()).isEqualTo(1L);
+  }
+
+  @Test public void reportsWholeTrace_whenChildHasError() {
+    Span root = tracer.newTrace().name("root").start(1L);
+    tracer.newChild(root.context()).name("child").start(2L)
+        .tag(Constants.ERROR, "timeout").finish(3L);
+    root.finish(4L);
+
+    assertThat(spans).extracting(s -> s.name)
+        .containsExactly("child", "root");
+  }
+
+  @Test public void reportsWholeTrace_whenServerError() {
+    Span root = tracer.newTrace().name("root").start(1L)
+        .tag(TraceKeys.HTTP_STATUS_CODE, "503");
+    root.finish(4L);
+
+    assertThat(spans).extracting(s -> s.name)
+        .containsExactly("root");
+  }
+
+  @Test public void ignoresClientError() {
+    Span root = tracer.newTrace().name("root").start(1L)
+        .tag(TraceKeys.HTTP_STATUS_CODE, "404");
+    root.finish(4L);
+
+    assertThat(spans).isEmpty();
+  }
+
+  @Test public void lateChildFollowsDecision() {
+    Span root = tracer.newTrace().name("root").start(1L);
+    Span child = tracer.newChild(root.context()).name("child").start(2L);
+    root.finish(200L);
+    child.finish(300L);
+
+    assertThat(spans).extracting(s -> s.name)
+        .containsExactly("root", "child");
+  }
+
+  @Test public void localRootsInSameTraceAreDecidedSeparately() {
+    Span fast = tracer.newTrace().name("fast").start(1L);
+    Span slow = tracer.joinSpan(fast.context().toBuilder().spanId(2L).parentId(1L).build())
+        .name("slow").start(1L);
+
+    fast.finish(2L);
+    slow.finish(200L);
+
+    assertThat(spans).extracting(s -> s.name)
+        .containsExactly("slow");
+  }
+
+  @Test public void abandonedLocalRootDiscardsTrace() {
+    Span root = tracer.newTrace().name("root").start(1L);
+    tracer.newChild(root.context()).name("child").start(2L).finish(300L);
+    root.abandon();
+
+    assertThat(spans).isEmpty();
+    assertThat(tailSampler.metrics().tracesDiscarded()).isEqualTo(1L);
+  }
+
+  @Test public void evictsOldestTrace_whenBufferFull() {
+    Span oldest = tracer.newTrace().name("oldest").start(1L);
+    for (int i = 0; i < 2; i++) {
+      tracer.newChild(oldest.context()).name("child").start(2L).finish(3L);
+    }
+    Span newest = tracer.newTrace().name("newest").start(1L);
+    for (int i = 0; i < 2; i++) {
+      tracer.newChild(newest.context()).name("child").start(2L).finish(3L);
+    }
+
+    oldest.finish(200L);
+    newest.finish(200L);
+
+    assertThat(spans).extracting(s -> s.name)
+        .containsExactly("child", "child", "newest");
+    assertThat(tailSampler.metrics().tracesEvicted()).isEqualTo(1L);
+  }
+
+  @Test public void releasesStateOnceDecided() {
+    Recorder recorder = new Recorder(Platform.get().localEndpoint(), () -> 0L, spans::add,
+        new AtomicBoolean(false), new Recorder.Settings().tailSampler(tailSampler));
+    TraceContext root = tracer.newTrace().context();
+    TraceContext child = tracer.newChild(root).context();
+
+    recorder.start(root, 1L);
+    recorder.start(child, 2L);
+    recorder.finish(child, 3L);
+    recorder.finish(root, 4L);
+
+    assertThat(recorder.pendingTraces.stripes).allSatisfy(stripe -> {
+      assertThat(stripe.groups).isEmpty();
+      assertThat(stripe.undecided).isEmpty();
+    });
+    assertThat(recorder.pendingTraces.bufferedSpans.get()).isZero();
+  }
+
+  /** Only the lower 64 bits of these trace IDs are the same, so they are different traces. */
+  @Test public void doesntConfuse128BitTraces() {
+    TraceContext.Builder context = TraceContext.newBuilder().traceId(1L).sampled(true);
+    Span fast = tracer.joinSpan(context.traceIdHigh(1L).spanId(1L).build())
+        .name("fast").start(1L);
+    Span slow = tracer.joinSpan(context.traceIdHigh(2L).spanId(2L).parentId(1L).build())
+        .name("slow").start(1L);
+
+    fast.finish(2L);
+    slow.finish(200L);
+
+    assertThat(spans).extracting(s -> s.name)
+        .containsExactly("slow");
+  }
+}
@@ -0,0 +1,67 @@
+package brave.metrics;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class LatencyHistogramTest {
+  LatencyHistogram histogram = new LatencyHistogram("get", null);
+
+  @Test public void bucketIndex_smallValuesAreExact() {
+    for (int i = 0; i < 16; i++) {
+      assertThat(LatencyHistogram.bucketIndex(i)).isEqualTo(i);
+      assertThat(LatencyHistogram.bucketUpperBound(i)).isEqualTo(i);
+    }
+  }
+
+  @Test public void bucketIndex_isContiguousAndBoundsMatch() {
+    for (int i = 16; i < LatencyHistogram.BUCKETS; i++) {
+      long upperBound = LatencyHistogram.bucketUpperBound(i);
+      assertThat(LatencyHistogram.bucketIndex(upperBound)).isEqualTo(i);
+      assertThat(LatencyHistogram.bucketIndex(upperBound + 1)).isEqualTo(i + 1);
+    }
+  }
+
+  @Test public void bucketIndex_relativeErrorIsBounded() {
+    for (long value = 16; value < LatencyHistogram.MAX_VALUE; value = value * 3 + 1) {
+      long upperBound = LatencyHistogram.bucketUpperBound(LatencyHistogram.bucketIndex(value));
+      assertThat((double) (upperBound - value) / value).isLessThan(1.0 / 16);
+    }
+  }
+
+  @Test public void record_updatesCounters() {
+    histogram.record(10L, false);
+    histogram.record(30L, true);
+
+    assertThat(histogram.count()).isEqualTo(2L);
+    assertThat(histogram.errorCount()).isEqualTo(1L);
+    assertThat(histogram.totalDuration()).isEqualTo(40L);
+    assertThat(histogram.maxDuration()).isEqualTo(30L);
+  }
+
+  @Test public void record_clampsLargeValuesToLastBucket() {
+    histogram.record(Long.MAX_VALUE / 2, false);
+
+    assertThat(histogram.buckets.get(LatencyHistogram.BUCKETS - 1)).isEqualTo(1L);
+  }
+
+  @Test public void valueAtPercentile_empty() {
+    assertThat(histogram.valueAtPercentile(99.0)).isZero();
+  }
+
+  @Test public void valueAtPercentile() {
+    for (int i = 1; i <= 1000; i++) {
+      histogram.record(i, false);
+    }
+
+    assertThat(histogram.valueAtPercentile(50.0)).isBetween(500L, 500L + 500L / 16);
+    assertThat(histogram.valueAtPercentile(99.0)).isBetween(990L, 990L + 990L / 16);
+    assertThat(histogram.valueAtPercentile(100.0)).isEqualTo(1000L);
+  }
+
+  @Test public void valueAtPercentile_invalid() {
+    assertThatThrownBy(() -> histogram.valueAtPercentile(101.0))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+}
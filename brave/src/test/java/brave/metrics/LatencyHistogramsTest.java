@@ -0,0 +1,57 @@
+package brave.metrics;
+
+import brave.Span;
+import brave.Tracing;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.After;
+import org.junit.Test;
+import zipkin.Constants;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LatencyHistogramsTest {
+  List<zipkin.Span> spans = new ArrayList<>();
+  LatencyHistograms histograms = LatencyHistograms.create(2);
+  Tracing tracing = Tracing.newBuilder().reporter(spans::add).spanObserver(histograms).build();
+
+  @After public void close() {
+    tracing.close();
+  }
+
+  @Test public void groupsByNameAndKind() {
+    tracing.tracer().newTrace().name("get").kind(Span.Kind.SERVER).start(1L).finish(11L);
+    tracing.tracer().newTrace().name("get").kind(Span.Kind.SERVER).start(1L).finish(21L);
+    tracing.tracer().newTrace().name("get").kind(Span.Kind.CLIENT).start(1L).finish(6L);
+
+    assertThat(histograms.get("get", Span.Kind.SERVER).count()).isEqualTo(2L);
+    assertThat(histograms.get("get", Span.Kind.SERVER).maxDuration()).isEqualTo(20L);
+    assertThat(histograms.get("get", Span.Kind.CLIENT).count()).isEqualTo(1L);
+    assertThat(histograms.get("get", null)).isNull();
+    assertThat(histograms.histograms()).hasSize(2);
+  }
+
+  @Test public void countsErrors() {
+    tracing.tracer().newTrace().name("get").start(1L).tag(Constants.ERROR, "timeout").finish(2L);
+
+    assertThat(histograms.get("get", null).errorCount()).isEqualTo(1L);
+  }
+
+  @Test public void ignoresSpansWithoutTimestamp() {
+    tracing.tracer().newTrace().name("get").start().flush();
+    tracing.tracer().newTrace().name("put").finish();
+
+    assertThat(histograms.histograms()).isEmpty();
+  }
+
+  @Test public void limitsDistinctNames() {
+    tracing.tracer().newTrace().name("1").start(1L).finish(2L);
+    tracing.tracer().newTrace().name("2").start(1L).finish(2L);
+    tracing.tracer().newTrace().name("3").start(1L).finish(2L);
+    tracing.tracer().newTrace().name("1").start(1L).finish(2L);
+
+    assertThat(histograms.histograms()).extracting(LatencyHistogram::name)
+        .containsOnly("1", "2");
+    assertThat(histograms.droppedSpans()).isEqualTo(1L);
+  }
+}
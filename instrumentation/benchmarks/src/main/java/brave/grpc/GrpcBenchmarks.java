@@ -0,0 +1,189 @@
+package brave.grpc;
+
+import brave.Tracing;
+import brave.sampler.Sampler;
+import com.google.protobuf.StringValue;
+import io.grpc.CallOptions;
+import io.grpc.Channel;
+import io.grpc.ManagedChannel;
+import io.grpc.MethodDescriptor;
+import io.grpc.Server;
+import io.grpc.ServerInterceptors;
+import io.grpc.ServerServiceDefinition;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.protobuf.ProtoUtils;
+import io.grpc.stub.ClientCalls;
+import io.grpc.stub.ServerCalls;
+import io.grpc.stub.StreamObserver;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import zipkin.reporter.Reporter;
+
+/**
+ * Compares unary and bidirectional streaming calls over an in-process channel, so that the
+ * overhead of the interceptors isn't hidden by network latency.
+ */
+@Measurement(iterations = 5, time = 1)
+@Warmup(iterations = 10, time = 1)
+@Fork(3)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(2)
+@State(Scope.Benchmark)
+public class GrpcBenchmarks {
+  static final int STREAM_MESSAGES = 100;
+  static final StringValue MESSAGE = StringValue.newBuilder().setValue("hello world").build();
+  static final MethodDescriptor.Marshaller<StringValue> MARSHALLER =
+      ProtoUtils.marshaller(StringValue.getDefaultInstance());
+  static final MethodDescriptor<StringValue, StringValue> UNARY = MethodDescriptor.create(
+      MethodDescriptor.MethodType.UNARY, "brave.Echo/Unary", MARSHALLER, MARSHALLER);
+  static final MethodDescriptor<StringValue, StringValue> STREAM = MethodDescriptor.create(
+      MethodDescriptor.MethodType.BIDI_STREAMING, "brave.Echo/Stream", MARSHALLER, MARSHALLER);
+
+  static final ServerServiceDefinition ECHO = ServerServiceDefinition.builder("brave.Echo")
+      .addMethod(UNARY, ServerCalls.asyncUnaryCall((request, responseObserver) -> {
+        responseObserver.onNext(request);
+        responseObserver.onCompleted();
+      }))
+      .addMethod(STREAM, ServerCalls.asyncBidiStreamingCall(responseObserver ->
+          new StreamObserver<StringValue>() {
+            @Override public void onNext(StringValue value) {
+              responseObserver.onNext(value);
+            }
+
+            @Override public void onError(Throwable t) {
+              responseObserver.onError(t);
+            }
+
+            @Override public void onCompleted() {
+              responseObserver.onCompleted();
+            }
+          }))
+      .build();
+
+  Server untracedServer, unsampledServer, tracedServer, messageEventsServer;
+  ManagedChannel untracedChannel, unsampledChannel, tracedChannel, messageEventsChannel;
+
+  @Setup(Level.Trial) public void init() throws Exception {
+    GrpcTracing grpcTracing =
+        GrpcTracing.create(Tracing.newBuilder().reporter(Reporter.NOOP).build());
+    GrpcTracing messageEvents = grpcTracing.toBuilder().messageEvents(true).build();
+    GrpcTracing unsampled = GrpcTracing.create(Tracing.newBuilder()
+        .sampler(Sampler.NEVER_SAMPLE).reporter(Reporter.NOOP).build());
+
+    untracedServer = InProcessServerBuilder.forName("untraced").addService(ECHO).build().start();
+    unsampledServer = InProcessServerBuilder.forName("unsampled")
+        .addService(ServerInterceptors.intercept(ECHO, unsampled.newServerInterceptor()))
+        .build().start();
+    tracedServer = InProcessServerBuilder.forName("traced")
+        .addService(ServerInterceptors.intercept(ECHO, grpcTracing.newServerInterceptor()))
+        .build().start();
+    messageEventsServer = InProcessServerBuilder.forName("messageEvents")
+        .addService(ServerInterceptors.intercept(ECHO, messageEvents.newServerInterceptor()))
+        .build().start();
+
+    untracedChannel = InProcessChannelBuilder.forName("untraced").build();
+    unsampledChannel = InProcessChannelBuilder.forName("unsampled")
+        .intercept(unsampled.newClientInterceptor()).build();
+    tracedChannel = InProcessChannelBuilder.forName("traced")
+        .intercept(grpcTracing.newClientInterceptor()).build();
+    messageEventsChannel = InProcessChannelBuilder.forName("messageEvents")
+        .intercept(messageEvents.newClientInterceptor()).build();
+  }
+
+  @TearDown(Level.Trial) public void close() throws Exception {
+    for (ManagedChannel channel : new ManagedChannel[] {
+        untracedChannel, unsampledChannel, tracedChannel, messageEventsChannel}) {
+      channel.shutdownNow().awaitTermination(1, TimeUnit.SECONDS);
+    }
+    for (Server server : new Server[] {
+        untracedServer, unsampledServer, tracedServer, messageEventsServer}) {
+      server.shutdownNow().awaitTermination(1, TimeUnit.SECONDS);
+    }
+  }
+
+  @Benchmark public StringValue unary_untraced() {
+    return unary(untracedChannel);
+  }
+
+  @Benchmark public StringValue unary_unsampled() {
+    return unary(unsampledChannel);
+  }
+
+  @Benchmark public StringValue unary_traced() {
+    return unary(tracedChannel);
+  }
+
+  @Benchmark public StringValue unary_tracedMessageEvents() {
+    return unary(messageEventsChannel);
+  }
+
+  @Benchmark public void stream_untraced() throws Exception {
+    stream(untracedChannel);
+  }
+
+  @Benchmark public void stream_unsampled() throws Exception {
+    stream(unsampledChannel);
+  }
+
+  @Benchmark public void stream_traced() throws Exception {
+    stream(tracedChannel);
+  }
+
+  @Benchmark public void stream_tracedMessageEvents() throws Exception {
+    stream(messageEventsChannel);
+  }
+
+  static StringValue unary(Channel channel) {
+    return ClientCalls.blockingUnaryCall(channel, UNARY, CallOptions.DEFAULT, MESSAGE);
+  }
+
+  static void stream(Channel channel) throws InterruptedException {
+    CountDownLatch latch = new CountDownLatch(1);
+    StreamObserver<StringValue> requests = ClientCalls.asyncBidiStreamingCall(
+        channel.newCall(STREAM, CallOptions.DEFAULT), new StreamObserver<StringValue>() {
+          @Override public void onNext(StringValue value) {
+          }
+
+          @Override public void onError(Throwable t) {
+            latch.countDown();
+          }
+
+          @Override public void onCompleted() {
+            latch.countDown();
+          }
+        });
+    for (int i = 0; i < STREAM_MESSAGES; i++) {
+      requests.onNext(MESSAGE);
+    }
+    requests.onCompleted();
+    latch.await();
+  }
+
+  // Convenience main entry-point
+  public static void main(String[] args) throws RunnerException {
+    Options opt = new OptionsBuilder()
+        .include(".*" + GrpcBenchmarks.class.getSimpleName() + ".*")
+        .build();
+
+    new Runner(opt).run();
+  }
+}
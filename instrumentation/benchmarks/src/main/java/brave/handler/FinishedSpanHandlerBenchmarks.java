@@ -0,0 +1,102 @@
+package brave.handler;
+
+import brave.Tracer;
+import brave.Tracing;
+import brave.propagation.TraceContext;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import zipkin.reporter.Reporter;
+
+/** Measures the overhead of finished span handlers when starting and finishing a span. */
+@Measurement(iterations = 5, time = 1)
+@Warmup(iterations = 10, time = 1)
+@Fork(3)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Threads(2)
+@State(Scope.Benchmark)
+public class FinishedSpanHandlerBenchmarks {
+  static final FinishedSpanHandler KEEP = new FinishedSpanHandler() {
+    @Override public boolean handle(TraceContext context, MutableSpan span) {
+      return true;
+    }
+  };
+  static final FinishedSpanHandler DROP = new FinishedSpanHandler() {
+    @Override public boolean handle(TraceContext context, MutableSpan span) {
+      return false;
+    }
+  };
+  static final FinishedSpanHandler REDACT = new FinishedSpanHandler() {
+    @Override public boolean handle(TraceContext context, MutableSpan span) {
+      span.forEachTag((key, value) -> value.replace("1234", "xxxx"));
+      return true;
+    }
+  };
+
+  Tracing noHandlers = Tracing.newBuilder().reporter(Reporter.NOOP).build();
+  Tracing oneHandler = Tracing.newBuilder().reporter(Reporter.NOOP)
+      .addFinishedSpanHandler(KEEP).build();
+  Tracing threeHandlers = Tracing.newBuilder().reporter(Reporter.NOOP)
+      .addFinishedSpanHandler(KEEP)
+      .addFinishedSpanHandler(KEEP)
+      .addFinishedSpanHandler(KEEP).build();
+  Tracing redactingHandler = Tracing.newBuilder().reporter(Reporter.NOOP)
+      .addFinishedSpanHandler(REDACT).build();
+  Tracing droppingHandler = Tracing.newBuilder().reporter(Reporter.NOOP)
+      .addFinishedSpanHandler(DROP).build();
+
+  @TearDown public void close() {
+    noHandlers.close();
+    oneHandler.close();
+    threeHandlers.close();
+    redactingHandler.close();
+    droppingHandler.close();
+  }
+
+  @Benchmark public void finish_noHandlers() {
+    finishSpan(noHandlers.tracer());
+  }
+
+  @Benchmark public void finish_oneHandler() {
+    finishSpan(oneHandler.tracer());
+  }
+
+  @Benchmark public void finish_threeHandlers() {
+    finishSpan(threeHandlers.tracer());
+  }
+
+  @Benchmark public void finish_redactingHandler() {
+    finishSpan(redactingHandler.tracer());
+  }
+
+  @Benchmark public void finish_droppingHandler() {
+    finishSpan(droppingHandler.tracer());
+  }
+
+  static void finishSpan(Tracer tracer) {
+    tracer.newTrace().name("get").tag("http.url", "/login?password=1234").start().finish();
+  }
+
+  // Convenience main entry-point
+  public static void main(String[] args) throws RunnerException {
+    Options opt = new OptionsBuilder()
+        .include(".*" + FinishedSpanHandlerBenchmarks.class.getSimpleName() + ".*")
+        .build();
+
+    new Runner(opt).run();
+  }
+}
@@ -1,6 +1,8 @@
 package brave.http;
 
 import brave.Tracing;
+import brave.propagation.CurrentTraceContext;
+import brave.propagation.TraceContext;
 import brave.sampler.Sampler;
 import io.undertow.Undertow;
 import java.net.InetSocketAddress;
@@ -43,6 +45,8 @@ public abstract class HttpClientBenchmarks<C> {
   C client;
   C tracedClient;
   C unsampledClient;
+  CurrentTraceContext currentTraceContext;
+  TraceContext parent;
 
   protected String baseUrl() {
     return baseUrl;
@@ -60,9 +64,10 @@ public abstract class HttpClientBenchmarks<C> {
         ((InetSocketAddress) server.getListenerInfo().get(0).getAddress()).getPort();
 
     client = newClient();
-    tracedClient = newClient(HttpTracing.create(
-        Tracing.newBuilder().reporter(Reporter.NOOP).build()
-    ));
+    Tracing tracing = Tracing.newBuilder().reporter(Reporter.NOOP).build();
+    tracedClient = newClient(HttpTracing.create(tracing));
+    currentTraceContext = tracing.currentTraceContext();
+    parent = tracing.tracer().newTrace().context();
     unsampledClient = newClient(HttpTracing.create(
         Tracing.newBuilder().sampler(Sampler.NEVER_SAMPLE).reporter(Reporter.NOOP).build()
     ));
@@ -86,4 +91,11 @@ public abstract class HttpClientBenchmarks<C> {
   @Benchmark public void tracedClient_get() throws Exception {
     get(tracedClient);
   }
+
+  /** Like {@link #tracedClient_get()}, except there's a span in scope when the call is made */
+  @Benchmark public void tracedClient_get_resumeTrace() throws Exception {
+    try (CurrentTraceContext.Scope scope = currentTraceContext.newScope(parent)) {
+      get(tracedClient);
+    }
+  }
 }
@@ -82,7 +82,7 @@ public abstract class HttpServerBenchmarks {
     get("/traced");
   }
 
-  void get(String path) throws IOException {
+  protected void get(String path) throws IOException {
     client.newCall(new Request.Builder().url(baseUrl() + path).build())
         .execute()
         .body().close();
@@ -0,0 +1,79 @@
+package brave.http;
+
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/** Compares {@link UrlParser#path(String)} with the {@link URI} it replaced */
+@Measurement(iterations = 5, time = 1)
+@Warmup(iterations = 10, time = 1)
+@Fork(3)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class UrlParserBenchmarks {
+  String typical = "http://api.example.com:8080/v1/users/1234/orders?limit=10&offset=20";
+  String pathOnly = "/v1/users/1234/orders";
+  String longQuery = "https://api.example.com/search?q=" + repeat("abcdefghij", 200)
+      + "&redirect=http://other.example.com/callback";
+  String encoded = "http://api.example.com/files/my%20document%2Bdraft.txt?download=true";
+
+  @Benchmark public String path_typical_urlParser() {
+    return UrlParser.path(typical);
+  }
+
+  @Benchmark public String path_typical_uri() {
+    return URI.create(typical).getPath();
+  }
+
+  @Benchmark public String path_pathOnly_urlParser() {
+    return UrlParser.path(pathOnly);
+  }
+
+  @Benchmark public String path_pathOnly_uri() {
+    return URI.create(pathOnly).getPath();
+  }
+
+  @Benchmark public String path_longQuery_urlParser() {
+    return UrlParser.path(longQuery);
+  }
+
+  @Benchmark public String path_longQuery_uri() {
+    return URI.create(longQuery).getPath();
+  }
+
+  @Benchmark public String path_encoded_urlParser() {
+    return UrlParser.path(encoded);
+  }
+
+  @Benchmark public String path_encoded_uri() {
+    return URI.create(encoded).getPath();
+  }
+
+  static String repeat(String value, int count) {
+    StringBuilder result = new StringBuilder();
+    for (int i = 0; i < count; i++) result.append(value);
+    return result.toString();
+  }
+
+  // Convenience main entry-point
+  public static void main(String[] args) throws RunnerException {
+    Options opt = new OptionsBuilder()
+        .include(".*" + UrlParserBenchmarks.class.getSimpleName() + ".*")
+        .build();
+
+    new Runner(opt).run();
+  }
+}
@@ -7,6 +7,7 @@ import org.apache.http.client.methods.HttpGet;
 import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
 import org.apache.http.impl.nio.client.HttpAsyncClients;
 import org.apache.http.util.EntityUtils;
+import org.openjdk.jmh.profile.GCProfiler;
 import org.openjdk.jmh.runner.Runner;
 import org.openjdk.jmh.runner.RunnerException;
 import org.openjdk.jmh.runner.options.Options;
@@ -39,6 +40,7 @@ public class ApacheHttpAsyncClientBenchmarks extends
   public static void main(String[] args) throws RunnerException {
     Options opt = new OptionsBuilder()
         .include(".*" + ApacheHttpAsyncClientBenchmarks.class.getSimpleName() + ".*")
+        .addProfiler(GCProfiler.class) // tracing state is per exchange, so watch allocation
         .build();
 
     new Runner(opt).run();
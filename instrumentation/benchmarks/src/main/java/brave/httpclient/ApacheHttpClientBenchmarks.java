@@ -1,18 +1,41 @@
 package brave.httpclient;
 
+import brave.Tracing;
 import brave.http.HttpClientBenchmarks;
 import brave.http.HttpTracing;
 import java.io.IOException;
+import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.client.HttpClients;
+import org.apache.http.util.EntityUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.profile.GCProfiler;
 import org.openjdk.jmh.runner.Runner;
 import org.openjdk.jmh.runner.RunnerException;
 import org.openjdk.jmh.runner.options.Options;
 import org.openjdk.jmh.runner.options.OptionsBuilder;
+import zipkin.reporter.Reporter;
 
-/** Disabled as it crashes on socket problems */
 public class ApacheHttpClientBenchmarks extends HttpClientBenchmarks<CloseableHttpClient> {
+  CloseableHttpClient connectionTimingsClient;
+
+  @Setup(Level.Trial) public void initConnectionTimings() {
+    connectionTimingsClient = TracingHttpClientBuilder.create(HttpTracing.create(
+        Tracing.newBuilder().reporter(Reporter.NOOP).build()
+    ), true).build();
+  }
+
+  @TearDown(Level.Trial) public void closeConnectionTimings() throws IOException {
+    connectionTimingsClient.close();
+  }
+
+  @Benchmark public void tracedClient_get_connectionTimings() throws Exception {
+    get(connectionTimingsClient);
+  }
 
   @Override protected CloseableHttpClient newClient(HttpTracing httpTracing) {
     return TracingHttpClientBuilder.create(httpTracing)
@@ -24,7 +47,10 @@ public class ApacheHttpClientBenchmarks extends HttpClientBenchmarks<CloseableHt
   }
 
   @Override protected void get(CloseableHttpClient client) throws Exception {
-    client.execute(new HttpGet(baseUrl())).close();
+    // consume the entity so that the connection is reused, as opposed to exhausting local ports
+    try (CloseableHttpResponse response = client.execute(new HttpGet(baseUrl()))) {
+      EntityUtils.consume(response.getEntity());
+    }
   }
 
   @Override protected void close(CloseableHttpClient client) throws IOException {
@@ -35,6 +61,7 @@ public class ApacheHttpClientBenchmarks extends HttpClientBenchmarks<CloseableHt
   public static void main(String[] args) throws RunnerException {
     Options opt = new OptionsBuilder()
         .include(".*" + ApacheHttpClientBenchmarks.class.getSimpleName() + ".*")
+        .addProfiler(GCProfiler.class)
         .build();
 
     new Runner(opt).run();
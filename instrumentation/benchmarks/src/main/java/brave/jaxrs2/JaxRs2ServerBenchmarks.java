@@ -15,8 +15,11 @@ import javax.ws.rs.ApplicationPath;
 import javax.ws.rs.GET;
 import javax.ws.rs.Path;
 import javax.ws.rs.Produces;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.Suspended;
 import javax.ws.rs.core.Application;
 import org.jboss.resteasy.plugins.server.undertow.UndertowJaxrsServer;
+import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.Level;
 import org.openjdk.jmh.annotations.TearDown;
 import org.openjdk.jmh.runner.Runner;
@@ -32,6 +35,11 @@ public class JaxRs2ServerBenchmarks extends HttpServerBenchmarks {
     @GET @Produces("text/plain; charset=UTF-8") public String get() {
       return "hello world";
     }
+
+    @GET @Path("async") @Produces("text/plain; charset=UTF-8")
+    public void async(@Suspended AsyncResponse response) {
+      response.resume("hello world");
+    }
   }
 
   @ApplicationPath("/nottraced")
@@ -84,6 +92,18 @@ public class JaxRs2ServerBenchmarks extends HttpServerBenchmarks {
     super.close();
   }
 
+  @Benchmark public void server_getAsync() throws Exception {
+    get("/nottraced/async");
+  }
+
+  @Benchmark public void unsampledServer_getAsync() throws Exception {
+    get("/unsampled/async");
+  }
+
+  @Benchmark public void tracedServer_getAsync() throws Exception {
+    get("/traced/async");
+  }
+
   // Convenience main entry-point
   public static void main(String[] args) throws RunnerException {
     Options opt = new OptionsBuilder()
@@ -0,0 +1,109 @@
+package brave.mysql;
+
+import brave.Span;
+import brave.Tracing;
+import brave.sampler.Sampler;
+import com.mysql.jdbc.Connection;
+import java.lang.reflect.Proxy;
+import java.sql.DatabaseMetaData;
+import java.sql.SQLException;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import zipkin.reporter.Reporter;
+
+/**
+ * Measures the overhead of the interceptor per statement, using a stub connection so that no
+ * database is needed.
+ */
+@Measurement(iterations = 5, time = 1)
+@Warmup(iterations = 10, time = 1)
+@Fork(3)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class TracingStatementInterceptorBenchmarks {
+  static final String SQL = "select * from users where id = 1";
+
+  Connection connection = stubConnection();
+  TracingStatementInterceptor interceptor = new TracingStatementInterceptor();
+  Tracing unsampled, tracing;
+  Span unsampledSpan;
+
+  @Setup public void init() throws SQLException {
+    // the first tracing component created is the current one, which the interceptor uses
+    tracing = Tracing.newBuilder().reporter(Reporter.NOOP).build();
+    unsampled = Tracing.newBuilder().sampler(Sampler.NEVER_SAMPLE).build();
+    unsampledSpan = unsampled.tracer().nextSpan();
+    interceptor.init(connection, new Properties());
+  }
+
+  @TearDown public void close() {
+    unsampled.close();
+    tracing.close();
+  }
+
+  @Benchmark public void tracedStatement() throws SQLException {
+    interceptor.preProcess(SQL, null, connection);
+    interceptor.postProcess(SQL, null, null, connection, 0, false, false, null);
+  }
+
+  @Benchmark public void parseServerAddress_cached() {
+    interceptor.parseServerAddress(connection, unsampledSpan);
+  }
+
+  /** This is the work each statement did before the endpoint was cached per connection */
+  @Benchmark public TracingStatementInterceptor.RemoteEndpoint parseServerAddress_uncached()
+      throws SQLException {
+    return TracingStatementInterceptor.RemoteEndpoint.parse(connection);
+  }
+
+  static Connection stubConnection() {
+    Properties properties = new Properties();
+    DatabaseMetaData metaData = (DatabaseMetaData) Proxy.newProxyInstance(
+        DatabaseMetaData.class.getClassLoader(), new Class[] {DatabaseMetaData.class},
+        (proxy, method, args) -> {
+          if (method.getName().equals("getURL")) return "jdbc:mysql://127.0.0.1:5555/mydatabase";
+          throw new UnsupportedOperationException(method.getName());
+        });
+    return (Connection) Proxy.newProxyInstance(
+        Connection.class.getClassLoader(), new Class[] {Connection.class},
+        (proxy, method, args) -> {
+          switch (method.getName()) {
+            case "getMetaData":
+              return metaData;
+            case "getProperties":
+              return properties;
+            case "getCatalog":
+              return "mydatabase";
+            case "getHost":
+              return "127.0.0.1";
+            default:
+              throw new UnsupportedOperationException(method.getName());
+          }
+        });
+  }
+
+  // Convenience main entry-point
+  public static void main(String[] args) throws RunnerException {
+    Options opt = new OptionsBuilder()
+        .include(".*" + TracingStatementInterceptorBenchmarks.class.getSimpleName() + ".*")
+        .build();
+
+    new Runner(opt).run();
+  }
+}
@@ -0,0 +1,153 @@
+package brave.netty;
+
+import brave.Tracing;
+import brave.sampler.Sampler;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.http.DefaultFullHttpResponse;
+import io.netty.handler.codec.http.DefaultHttpRequest;
+import io.netty.handler.codec.http.DefaultHttpResponse;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpRequest;
+import io.netty.handler.codec.http.HttpResponse;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import zipkin.reporter.Reporter;
+
+import static io.netty.handler.codec.http.HttpVersion.HTTP_1_1;
+
+/**
+ * Passes requests and responses through an {@link EmbeddedChannel}, so that only the overhead of
+ * the handlers is measured, not that of the codec or the network.
+ */
+@Measurement(iterations = 5, time = 1)
+@Warmup(iterations = 10, time = 1)
+@Fork(3)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(2)
+@State(Scope.Thread) // embedded channels aren't thread-safe
+public class NettyHttpBenchmarks {
+  static final HttpResponse RESPONSE = new DefaultHttpResponse(HTTP_1_1, HttpResponseStatus.OK);
+
+  /** Responds to each request, as an application handler would */
+  @ChannelHandler.Sharable
+  static final class HelloHandler extends ChannelInboundHandlerAdapter {
+    @Override public void channelRead(ChannelHandlerContext ctx, Object msg) {
+      ctx.write(new DefaultFullHttpResponse(HTTP_1_1, HttpResponseStatus.OK));
+    }
+  }
+
+  EmbeddedChannel untracedServer, unsampledServer, tracedServer;
+  EmbeddedChannel untracedClient, unsampledClient, tracedClient;
+  // per thread, as the client handler replaces the trace headers of each request sent
+  HttpRequest request = newRequest(), requestWithTrace = newRequest();
+
+  @Setup(Level.Trial) public void init() {
+    requestWithTrace.headers()
+        .set("X-B3-TraceId", "463ac35c9f6413ad")
+        .set("X-B3-ParentSpanId", "463ac35c9f6413ad")
+        .set("X-B3-SpanId", "48485a3953bb6124")
+        .set("X-B3-Sampled", "1");
+
+    NettyHttpTracing traced =
+        NettyHttpTracing.create(Tracing.newBuilder().reporter(Reporter.NOOP).build());
+    NettyHttpTracing unsampled = NettyHttpTracing.create(Tracing.newBuilder()
+        .sampler(Sampler.NEVER_SAMPLE).reporter(Reporter.NOOP).build());
+    HelloHandler hello = new HelloHandler();
+
+    untracedServer = new EmbeddedChannel(hello);
+    unsampledServer = new EmbeddedChannel(unsampled.serverHandler(), hello);
+    tracedServer = new EmbeddedChannel(traced.serverHandler(), hello);
+
+    untracedClient = new EmbeddedChannel();
+    unsampledClient = new EmbeddedChannel(unsampled.clientHandler());
+    tracedClient = new EmbeddedChannel(traced.clientHandler());
+  }
+
+  @TearDown(Level.Trial) public void close() {
+    for (EmbeddedChannel channel : new EmbeddedChannel[] {
+        untracedServer, unsampledServer, tracedServer,
+        untracedClient, unsampledClient, tracedClient}) {
+      channel.finishAndReleaseAll();
+    }
+  }
+
+  @Benchmark public Object server_get() {
+    return serve(untracedServer, request);
+  }
+
+  @Benchmark public Object unsampledServer_get() {
+    return serve(unsampledServer, request);
+  }
+
+  @Benchmark public Object tracedServer_get() {
+    return serve(tracedServer, request);
+  }
+
+  @Benchmark public Object tracedServer_get_resumeTrace() {
+    return serve(tracedServer, requestWithTrace);
+  }
+
+  @Benchmark public Object client_get() {
+    return send(untracedClient, request);
+  }
+
+  @Benchmark public Object unsampledClient_get() {
+    return send(unsampledClient, request);
+  }
+
+  @Benchmark public Object tracedClient_get() {
+    return send(tracedClient, request);
+  }
+
+  static HttpRequest newRequest() {
+    HttpRequest request = new DefaultHttpRequest(HTTP_1_1, HttpMethod.GET, "/foo?z=2&yAA=1");
+    request.headers().set(HttpHeaderNames.HOST, "127.0.0.1:8080");
+    return request;
+  }
+
+  static Object serve(EmbeddedChannel channel, HttpRequest request) {
+    channel.writeInbound(request);
+    return channel.readOutbound();
+  }
+
+  /** The request is re-used, as trace headers are replaced, not added. */
+  static Object send(EmbeddedChannel channel, HttpRequest request) {
+    channel.writeOutbound(request);
+    channel.readOutbound();
+    channel.writeInbound(RESPONSE);
+    return channel.readInbound();
+  }
+
+  // Convenience main entry-point
+  public static void main(String[] args) throws RunnerException {
+    Options opt = new OptionsBuilder()
+        .include(".*" + NettyHttpBenchmarks.class.getSimpleName() + ".*")
+        .addProfiler(GCProfiler.class)
+        .build();
+
+    new Runner(opt).run();
+  }
+}
@@ -6,6 +6,7 @@ import java.io.IOException;
 import okhttp3.Call;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
+import org.openjdk.jmh.profile.GCProfiler;
 import org.openjdk.jmh.runner.Runner;
 import org.openjdk.jmh.runner.RunnerException;
 import org.openjdk.jmh.runner.options.Options;
@@ -39,6 +40,7 @@ public class OkHttpClientBenchmarks extends HttpClientBenchmarks<Call.Factory> {
   public static void main(String[] args) throws RunnerException {
     Options opt = new OptionsBuilder()
         .include(".*" + OkHttpClientBenchmarks.class.getSimpleName() + ".*")
+        .addProfiler(GCProfiler.class) // the call factory is about allocation as much as latency
         .build();
 
     new Runner(opt).run();
@@ -0,0 +1,109 @@
+package brave.p6spy;
+
+import brave.Tracing;
+import java.io.OutputStream;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import zipkin.reporter.Reporter;
+
+/**
+ * Compares a traced p6spy connection to the raw JDBC driver, using an in-memory Derby database.
+ * This is the successor to the archived {@code BraveP6SpyBenchmarks}.
+ */
+@Measurement(iterations = 5, time = 1)
+@Warmup(iterations = 10, time = 1)
+@Fork(3)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class TracingP6FactoryBenchmarks {
+  static final String QUERY = "SELECT 1 FROM SYSIBM.SYSDUMMY1";
+
+  static {
+    // Get rid of annoying derby.log
+    System.setProperty("derby.stream.error.field",
+        TracingP6FactoryBenchmarks.class.getName() + ".DEV_NULL");
+    // Instead of spy.properties
+    System.setProperty("p6spy.config.modulelist", TracingP6Factory.class.getName());
+  }
+
+  public static final OutputStream DEV_NULL = new OutputStream() {
+    @Override public void write(int b) {
+    }
+  };
+
+  Tracing tracing;
+  Connection raw, traced;
+  PreparedStatement rawQuery, tracedQuery;
+  Statement rawStatement, tracedStatement;
+
+  @Setup(Level.Trial) public void init() throws SQLException {
+    tracing = Tracing.newBuilder().reporter(Reporter.NOOP).build();
+    raw = DriverManager.getConnection("jdbc:derby:memory:raw;create=true");
+    traced = DriverManager.getConnection("jdbc:p6spy:derby:memory:traced;create=true");
+    rawQuery = raw.prepareStatement(QUERY);
+    tracedQuery = traced.prepareStatement(QUERY);
+    rawStatement = raw.createStatement();
+    tracedStatement = traced.createStatement();
+  }
+
+  @TearDown(Level.Trial) public void close() throws SQLException {
+    raw.close();
+    traced.close();
+    tracing.close();
+  }
+
+  @Benchmark public int raw_preparedQuery() throws SQLException {
+    return executeQuery(rawQuery);
+  }
+
+  @Benchmark public int traced_preparedQuery() throws SQLException {
+    return executeQuery(tracedQuery);
+  }
+
+  @Benchmark public boolean raw_statement() throws SQLException {
+    return rawStatement.execute(QUERY);
+  }
+
+  @Benchmark public boolean traced_statement() throws SQLException {
+    return tracedStatement.execute(QUERY);
+  }
+
+  static int executeQuery(PreparedStatement query) throws SQLException {
+    int result = 0;
+    try (ResultSet resultSet = query.executeQuery()) {
+      while (resultSet.next()) result += resultSet.getInt(1);
+    }
+    return result;
+  }
+
+  // Convenience main entry-point
+  public static void main(String[] args) throws RunnerException {
+    Options opt = new OptionsBuilder()
+        .include(".*" + TracingP6FactoryBenchmarks.class.getSimpleName() + ".*")
+        .build();
+
+    new Runner(opt).run();
+  }
+}
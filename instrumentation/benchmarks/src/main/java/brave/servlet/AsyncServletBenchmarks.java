@@ -0,0 +1,60 @@
+package brave.servlet;
+
+import brave.http.HttpServerBenchmarks;
+import brave.servlet.ServletBenchmarks.Traced;
+import brave.servlet.ServletBenchmarks.Unsampled;
+import io.undertow.servlet.Servlets;
+import io.undertow.servlet.api.DeploymentInfo;
+import io.undertow.servlet.api.FilterInfo;
+import java.io.IOException;
+import javax.servlet.AsyncContext;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import static javax.servlet.DispatcherType.REQUEST;
+
+/** Like {@link ServletBenchmarks}, except responses complete asynchronously. */
+public class AsyncServletBenchmarks extends HttpServerBenchmarks {
+
+  static class HelloServlet extends HttpServlet {
+    @Override protected void doGet(HttpServletRequest req, HttpServletResponse resp) {
+      AsyncContext ctx = req.startAsync();
+      ctx.start(() -> {
+        try {
+          ctx.getResponse().setContentType("text/plain; charset=UTF-8");
+          ctx.getResponse().getWriter().println("hello world");
+        } catch (IOException e) {
+          throw new AssertionError(e);
+        } finally {
+          ctx.complete();
+        }
+      });
+    }
+  }
+
+  @Override protected void init(DeploymentInfo servletBuilder) {
+    servletBuilder.addFilter(new FilterInfo("Unsampled", Unsampled.class).setAsyncSupported(true))
+        .addFilterUrlMapping("Unsampled", "/unsampled", REQUEST)
+        .addFilter(new FilterInfo("Traced", Traced.class).setAsyncSupported(true))
+        .addFilterUrlMapping("Traced", "/traced", REQUEST)
+        .addServlets(Servlets.servlet("HelloServlet", HelloServlet.class)
+            .setAsyncSupported(true)
+            .addMapping("/*"));
+  }
+
+  // Convenience main entry-point
+  public static void main(String[] args) throws RunnerException {
+    Options opt = new OptionsBuilder()
+        .include(".*" + AsyncServletBenchmarks.class.getSimpleName() + ".*")
+        .addProfiler(GCProfiler.class) // async listeners are about allocation as much as latency
+        .build();
+
+    new Runner(opt).run();
+  }
+}
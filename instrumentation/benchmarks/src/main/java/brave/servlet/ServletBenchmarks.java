@@ -2,6 +2,7 @@ package brave.servlet;
 
 import brave.Tracing;
 import brave.http.HttpServerBenchmarks;
+import brave.metrics.LatencyHistograms;
 import brave.sampler.Sampler;
 import io.undertow.servlet.Servlets;
 import io.undertow.servlet.api.DeploymentInfo;
@@ -16,6 +17,7 @@ import javax.servlet.ServletResponse;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.runner.Runner;
 import org.openjdk.jmh.runner.RunnerException;
 import org.openjdk.jmh.runner.options.Options;
@@ -42,6 +44,17 @@ public class ServletBenchmarks extends HttpServerBenchmarks {
     }
   }
 
+  /** Unsampled requests are timed when a span observer is set */
+  public static class UnsampledObserved extends ForwardingTracingFilter {
+    public UnsampledObserved() {
+      super(TracingFilter.create(Tracing.newBuilder()
+          .sampler(Sampler.NEVER_SAMPLE)
+          .spanObserver(LatencyHistograms.create())
+          .reporter(Reporter.NOOP).build()
+      ));
+    }
+  }
+
   public static class Traced extends ForwardingTracingFilter {
     public Traced() {
       super(TracingFilter.create(Tracing.newBuilder().reporter(Reporter.NOOP).build()));
@@ -51,11 +64,17 @@ public class ServletBenchmarks extends HttpServerBenchmarks {
   @Override protected void init(DeploymentInfo servletBuilder) {
     servletBuilder.addFilter(new FilterInfo("Unsampled", Unsampled.class))
         .addFilterUrlMapping("Unsampled", "/unsampled", REQUEST)
+        .addFilter(new FilterInfo("UnsampledObserved", UnsampledObserved.class))
+        .addFilterUrlMapping("UnsampledObserved", "/unsampledObserved", REQUEST)
         .addFilter(new FilterInfo("Traced", Traced.class))
         .addFilterUrlMapping("Traced", "/traced", REQUEST)
         .addServlets(Servlets.servlet("HelloServlet", HelloServlet.class).addMapping("/*"));
   }
 
+  @Benchmark public void unsampledObservedServer_get() throws Exception {
+    get("/unsampledObserved");
+  }
+
   // Convenience main entry-point
   public static void main(String[] args) throws RunnerException {
     Options opt = new OptionsBuilder()
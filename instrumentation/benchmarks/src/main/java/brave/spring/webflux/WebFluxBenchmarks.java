@@ -0,0 +1,100 @@
+package brave.spring.webflux;
+
+import brave.Tracing;
+import brave.http.HttpServerBenchmarks;
+import brave.sampler.Sampler;
+import io.undertow.Handlers;
+import io.undertow.Undertow;
+import io.undertow.servlet.api.DeploymentInfo;
+import java.net.InetSocketAddress;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.UndertowHttpHandlerAdapter;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.reactive.config.EnableWebFlux;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.adapter.WebHttpHandlerBuilder;
+import reactor.core.publisher.Mono;
+import zipkin.reporter.Reporter;
+
+public class WebFluxBenchmarks extends HttpServerBenchmarks {
+
+  @RestController
+  public static class HelloController {
+    @RequestMapping("/nottraced")
+    public Mono<ResponseEntity<String>> nottraced() {
+      return Mono.just(ResponseEntity.ok("hello world"));
+    }
+
+    @RequestMapping("/unsampled")
+    public Mono<ResponseEntity<String>> unsampled() {
+      return Mono.just(ResponseEntity.ok("hello world"));
+    }
+
+    @RequestMapping("/traced")
+    public Mono<ResponseEntity<String>> traced() {
+      return Mono.just(ResponseEntity.ok("hello world"));
+    }
+  }
+
+  @Configuration
+  @EnableWebFlux
+  static class SpringConfig {
+  }
+
+  Undertow server;
+
+  /** Runs WebFlux natively on Undertow, as opposed to in a servlet container. */
+  @Override protected int initServer() {
+    AnnotationConfigApplicationContext appContext = new AnnotationConfigApplicationContext();
+    appContext.register(HelloController.class);
+    appContext.register(SpringConfig.class);
+    appContext.refresh();
+
+    // Each path shares the same controllers, and only differs in its filter
+    server = Undertow.builder()
+        .addHttpListener(0, "127.0.0.1")
+        .setHandler(Handlers.path()
+            .addPrefixPath("/nottraced", handler(appContext, null))
+            .addPrefixPath("/unsampled", handler(appContext, TracingWebFilter.create(
+                Tracing.newBuilder().sampler(Sampler.NEVER_SAMPLE).reporter(Reporter.NOOP).build()
+            )))
+            .addPrefixPath("/traced", handler(appContext, TracingWebFilter.create(
+                Tracing.newBuilder().reporter(Reporter.NOOP).build()
+            )))).build();
+    server.start();
+    return ((InetSocketAddress) server.getListenerInfo().get(0).getAddress()).getPort();
+  }
+
+  static UndertowHttpHandlerAdapter handler(AnnotationConfigApplicationContext appContext,
+      WebFilter filter) {
+    WebHttpHandlerBuilder builder = WebHttpHandlerBuilder.applicationContext(appContext);
+    if (filter != null) builder.filter(filter);
+    return new UndertowHttpHandlerAdapter(builder.build());
+  }
+
+  @Override protected void init(DeploymentInfo servletBuilder) {
+  }
+
+  @TearDown(Level.Trial) @Override public void close() throws Exception {
+    server.stop();
+    super.close();
+  }
+
+  // Convenience main entry-point
+  public static void main(String[] args) throws RunnerException {
+    Options opt = new OptionsBuilder()
+        .include(".*" + WebFluxBenchmarks.class.getSimpleName() + ".*")
+        .build();
+
+    new Runner(opt).run();
+  }
+}
@@ -3,13 +3,16 @@ package brave.spring.webmvc;
 import brave.Tracing;
 import brave.http.HttpServerBenchmarks;
 import brave.sampler.Sampler;
+import brave.servlet.ServletBenchmarks.Traced;
 import io.undertow.servlet.Servlets;
 import io.undertow.servlet.api.DeploymentInfo;
+import io.undertow.servlet.api.FilterInfo;
 import io.undertow.servlet.api.ListenerInfo;
 import io.undertow.servlet.api.ServletInfo;
 import io.undertow.servlet.handlers.DefaultServlet;
 import io.undertow.servlet.util.ImmediateInstanceHandle;
 import java.io.IOException;
+import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.runner.Runner;
 import org.openjdk.jmh.runner.RunnerException;
 import org.openjdk.jmh.runner.options.Options;
@@ -26,6 +29,8 @@ import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurerAdapter;
 import zipkin.reporter.Reporter;
 
+import static javax.servlet.DispatcherType.REQUEST;
+
 public class WebMvcBenchmarks extends HttpServerBenchmarks {
 
   @Controller
@@ -44,6 +49,11 @@ public class WebMvcBenchmarks extends HttpServerBenchmarks {
     public ResponseEntity<String> traced() throws IOException {
       return ResponseEntity.ok("hello world");
     }
+
+    @RequestMapping("/tracedfilter")
+    public ResponseEntity<String> tracedfilter() throws IOException {
+      return ResponseEntity.ok("hello world");
+    }
   }
 
   @Configuration
@@ -55,7 +65,7 @@ public class WebMvcBenchmarks extends HttpServerBenchmarks {
       )).addPathPatterns("/unsampled");
       registry.addInterceptor(TracingHandlerInterceptor.create(
           Tracing.newBuilder().reporter(Reporter.NOOP).build()
-      )).addPathPatterns("/traced");
+      )).addPathPatterns("/traced", "/tracedfilter");
     }
   }
 
@@ -63,10 +73,17 @@ public class WebMvcBenchmarks extends HttpServerBenchmarks {
     AnnotationConfigWebApplicationContext appContext = new AnnotationConfigWebApplicationContext();
     appContext.register(HelloController.class);
     appContext.register(SpringConfig.class);
+    // TracingFilter also traces this path, so the interceptor only adds the route to its span
+    servletBuilder.addFilter(new FilterInfo("Traced", Traced.class))
+        .addFilterUrlMapping("Traced", "/tracedfilter", REQUEST);
     servletBuilder.addServlet(new ServletInfo("DispatcherServlet", DispatcherServlet.class,
         () -> new ImmediateInstanceHandle(new DispatcherServlet(appContext))).addMapping("/*"));
   }
 
+  @Benchmark public void tracedFilterAndInterceptor_get() throws Exception {
+    get("/tracedfilter");
+  }
+
   // Convenience main entry-point
   public static void main(String[] args) throws RunnerException {
     Options opt = new OptionsBuilder()
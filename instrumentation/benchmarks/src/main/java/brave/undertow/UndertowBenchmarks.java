@@ -0,0 +1,62 @@
+package brave.undertow;
+
+import brave.Tracing;
+import brave.http.HttpServerBenchmarks;
+import brave.sampler.Sampler;
+import io.undertow.Handlers;
+import io.undertow.Undertow;
+import io.undertow.server.HttpHandler;
+import io.undertow.servlet.api.DeploymentInfo;
+import java.net.InetSocketAddress;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import zipkin.reporter.Reporter;
+
+/**
+ * Compare with {@link brave.servlet.ServletBenchmarks}, which traces the same requests with
+ * {@link brave.servlet.TracingFilter} in Undertow's servlet container.
+ */
+public class UndertowBenchmarks extends HttpServerBenchmarks {
+
+  Undertow server;
+
+  /** Runs handlers natively on Undertow, as opposed to in a servlet container. */
+  @Override protected int initServer() {
+    HttpHandler hello = exchange -> exchange.getResponseSender().send("hello world");
+    server = Undertow.builder()
+        .addHttpListener(0, "127.0.0.1")
+        .setHandler(Handlers.path()
+            .addPrefixPath("/nottraced", hello)
+            .addPrefixPath("/unsampled", TracingHttpHandler.create(
+                Tracing.newBuilder().sampler(Sampler.NEVER_SAMPLE).reporter(Reporter.NOOP).build(),
+                hello
+            ))
+            .addPrefixPath("/traced", TracingHttpHandler.create(
+                Tracing.newBuilder().reporter(Reporter.NOOP).build(),
+                hello
+            ))).build();
+    server.start();
+    return ((InetSocketAddress) server.getListenerInfo().get(0).getAddress()).getPort();
+  }
+
+  @Override protected void init(DeploymentInfo servletBuilder) {
+  }
+
+  @TearDown(Level.Trial) @Override public void close() throws Exception {
+    server.stop();
+    super.close();
+  }
+
+  // Convenience main entry-point
+  public static void main(String[] args) throws RunnerException {
+    Options opt = new OptionsBuilder()
+        .include(".*" + UndertowBenchmarks.class.getSimpleName() + ".*")
+        .build();
+
+    new Runner(opt).run();
+  }
+}
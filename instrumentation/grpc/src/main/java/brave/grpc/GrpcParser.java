@@ -0,0 +1,46 @@
+package brave.grpc;
+
+import brave.SpanCustomizer;
+import io.grpc.MethodDescriptor;
+import io.grpc.Status;
+import zipkin.Constants;
+
+/**
+ * Parses data from gRPC calls into spans. This is only invoked for sampled calls.
+ *
+ * <p>Ex. Here's a parser that names spans after the method, without the service
+ * <pre>{@code
+ * grpcTracingBuilder.parser(new GrpcParser() {
+ *   @Override protected <ReqT, RespT> String spanName(MethodDescriptor<ReqT, RespT> method) {
+ *     String fullMethodName = method.getFullMethodName();
+ *     return fullMethodName.substring(fullMethodName.lastIndexOf('/') + 1);
+ *   }
+ * });
+ * }</pre>
+ */
+public class GrpcParser {
+  /**
+   * Override to change what data from the call are parsed into the span representing it. By
+   * default, this sets the span name to the full method name.
+   *
+   * <p>If you only want to change the span name, you can override {@link
+   * #spanName(MethodDescriptor)} instead.
+   */
+  public <ReqT, RespT> void request(MethodDescriptor<ReqT, RespT> method,
+      SpanCustomizer customizer) {
+    customizer.name(spanName(method));
+  }
+
+  /** Returns the span name of the call. Defaults to the full method name. */
+  protected <ReqT, RespT> String spanName(MethodDescriptor<ReqT, RespT> method) {
+    return method.getFullMethodName();
+  }
+
+  /**
+   * Override to change what data from the status are parsed into the span modeling the call. By
+   * default, this tags {@link Constants#ERROR} as the status code, when it isn't OK.
+   */
+  public void response(Status status, SpanCustomizer customizer) {
+    if (!status.isOk()) customizer.tag(Constants.ERROR, String.valueOf(status.getCode()));
+  }
+}
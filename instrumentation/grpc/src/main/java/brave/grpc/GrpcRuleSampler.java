@@ -0,0 +1,111 @@
+package brave.grpc;
+
+import brave.Tracing;
+import brave.sampler.CountingSampler;
+import brave.sampler.Sampler;
+import io.grpc.MethodDescriptor;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import javax.annotation.Nullable;
+
+/**
+ * Assigns sample rates to gRPC services and methods.
+ *
+ * <p>Ex. Here's a sampler that never traces health checks, and traces 10% of calls to the
+ * "Watch" method of "myapp.Events". Other calls will use a global rate provided by the {@link
+ * Tracing tracing component}.
+ * <pre>{@code
+ * grpcTracingBuilder.serverSampler(GrpcRuleSampler.newBuilder()
+ *   .addRule("grpc.health.v1.Health", null, 0.0f)
+ *   .addRule("myapp.Events", "Watch", 0.1f)
+ *   .build());
+ * }</pre>
+ *
+ * <p>Rules are matched in order, once per method. The result is cached by full method name, so
+ * calls to the same method only cost a lookup.
+ */
+public final class GrpcRuleSampler extends GrpcSampler {
+
+  public static Builder newBuilder() {
+    return new Builder();
+  }
+
+  public static final class Builder {
+    final List<ServiceAndMethodRule> rules = new ArrayList<>();
+
+    /**
+     * Assigns a sample rate to all calls that match the input.
+     *
+     * @param service the full service name. Ex. "helloworld.Greeter"
+     * @param method if null, any method of the service is accepted. Ex. "SayHello"
+     * @param rate percentage of calls to start traces for. 1.0 is 100%
+     */
+    public Builder addRule(String service, @Nullable String method, float rate) {
+      if (service == null) throw new NullPointerException("service == null");
+      rules.add(new ServiceAndMethodRule(service, method, rate));
+      return this;
+    }
+
+    public GrpcSampler build() {
+      return new GrpcRuleSampler(new ArrayList<>(rules));
+    }
+
+    Builder() {
+    }
+  }
+
+  /** Placeholder for methods that match no rule, as map values can't be null. */
+  static final Sampler NO_MATCH = new Sampler() {
+    @Override public boolean isSampled(long traceId) {
+      throw new AssertionError("NO_MATCH is a placeholder");
+    }
+  };
+  static final int MAX_METHODS = 1000;
+
+  final List<ServiceAndMethodRule> rules;
+  final ConcurrentMap<String, Sampler> samplers = new ConcurrentHashMap<>();
+
+  GrpcRuleSampler(List<ServiceAndMethodRule> rules) {
+    this.rules = rules;
+  }
+
+  @Override public <ReqT, RespT> Boolean trySample(MethodDescriptor<ReqT, RespT> method) {
+    String fullMethodName = method.getFullMethodName();
+    Sampler sampler = samplers.get(fullMethodName);
+    if (sampler == null) {
+      sampler = match(fullMethodName);
+      if (samplers.size() < MAX_METHODS) samplers.put(fullMethodName, sampler);
+    }
+    if (sampler == NO_MATCH) return null;
+    return sampler.isSampled(0L); // counting sampler ignores the input
+  }
+
+  Sampler match(String fullMethodName) {
+    String service = MethodDescriptor.extractFullServiceName(fullMethodName);
+    if (service == null) return NO_MATCH;
+    String method = fullMethodName.substring(service.length() + 1);
+    for (ServiceAndMethodRule rule : rules) {
+      if (rule.matches(service, method)) return rule.sampler;
+    }
+    return NO_MATCH;
+  }
+
+  static final class ServiceAndMethodRule {
+    final String service;
+    @Nullable final String method;
+    final Sampler sampler;
+
+    ServiceAndMethodRule(String service, @Nullable String method, float rate) {
+      this.service = service;
+      this.method = method;
+      this.sampler = CountingSampler.create(rate);
+    }
+
+    boolean matches(String service, String method) {
+      if (!this.service.equals(service)) return false;
+      return this.method == null || this.method.equals(method);
+    }
+  }
+}
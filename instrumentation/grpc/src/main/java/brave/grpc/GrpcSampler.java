@@ -0,0 +1,52 @@
+package brave.grpc;
+
+import io.grpc.MethodDescriptor;
+import javax.annotation.Nullable;
+
+/**
+ * Decides whether to start a new trace based on the gRPC method called.
+ *
+ * <p>Ex. Here's a sampler that doesn't trace health checks
+ * <pre>{@code
+ * grpcTracingBuilder.serverSampler(new GrpcSampler() {
+ *   @Override public <ReqT, RespT> Boolean trySample(MethodDescriptor<ReqT, RespT> method) {
+ *     return method.getFullMethodName().startsWith("grpc.health") ? false : null;
+ *   }
+ * });
+ * }</pre>
+ *
+ * @see GrpcRuleSampler
+ */
+// abstract class as you can't lambda generic methods anyway. This lets us make helpers in the future
+public abstract class GrpcSampler {
+  /** Ignores the method and uses the {@link brave.sampler.Sampler trace ID sampler} instead. */
+  public static final GrpcSampler TRACE_ID = new GrpcSampler() {
+    @Override public <ReqT, RespT> Boolean trySample(MethodDescriptor<ReqT, RespT> method) {
+      return null;
+    }
+
+    @Override public String toString() {
+      return "DeferDecision";
+    }
+  };
+
+  /**
+   * Returns false to never start new traces for gRPC calls. For example, you may wish to only
+   * capture traces if they originated from an inbound server call.
+   */
+  public static final GrpcSampler NEVER_SAMPLE = new GrpcSampler() {
+    @Override public <ReqT, RespT> Boolean trySample(MethodDescriptor<ReqT, RespT> method) {
+      return false;
+    }
+
+    @Override public String toString() {
+      return "NeverSample";
+    }
+  };
+
+  /**
+   * Returns an overriding sampling decision for a new trace. Return null to ignore the method and use
+   * the {@link brave.sampler.Sampler trace ID sampler}.
+   */
+  @Nullable public abstract <ReqT, RespT> Boolean trySample(MethodDescriptor<ReqT, RespT> method);
+}
@@ -1,29 +1,91 @@
 package brave.grpc;
 
 import brave.Tracing;
+import com.google.auto.value.AutoValue;
 import io.grpc.ClientInterceptor;
 import io.grpc.ServerInterceptor;
 
-public final class GrpcTracing {
-
+@AutoValue
+public abstract class GrpcTracing {
   public static GrpcTracing create(Tracing tracing) {
-    return new GrpcTracing(tracing);
+    return newBuilder(tracing).build();
   }
 
-  final Tracing tracing;
-
-  GrpcTracing(Tracing tracing) { // intentionally hidden
-    if (tracing == null) throw new NullPointerException("tracing == null");
-    this.tracing = tracing;
+  public static Builder newBuilder(Tracing tracing) {
+    return new AutoValue_GrpcTracing.Builder()
+        .tracing(tracing)
+        .parser(new GrpcParser())
+        .clientSampler(GrpcSampler.TRACE_ID)
+        .serverSampler(GrpcSampler.TRACE_ID)
+        .messageEvents(false);
   }
 
+  public abstract Tracing tracing();
+
+  /** Names spans and adds tags. Defaults to the full method name and an error tag on failure. */
+  public abstract GrpcParser parser();
+
+  /**
+   * Decides whether to start a new trace for an outbound call, based on its method. This is only
+   * consulted when there's no span in scope. Defaults to {@link GrpcSampler#TRACE_ID}.
+   *
+   * <p>When this returns false, the call is not traced and no span is allocated for it, though the
+   * decision is still propagated downstream.
+   */
+  public abstract GrpcSampler clientSampler();
+
+  /**
+   * Decides whether to start a new trace for an inbound call, based on its method. This is only
+   * consulted when the caller didn't send a sampling decision. Defaults to
+   * {@link GrpcSampler#TRACE_ID}.
+   */
+  public abstract GrpcSampler serverSampler();
+
+  /**
+   * When true, sampled calls are tagged with the count and size of messages sent and received, and
+   * annotated with when the first and last message in each direction were seen. Defaults to false.
+   *
+   * <p>Messages are aggregated as opposed to annotated individually, so that a stream carrying
+   * millions of messages still results in a span of fixed size. Sizes are only recorded for
+   * protocol buffers messages.
+   */
+  public abstract boolean messageEvents();
+
+  public abstract Builder toBuilder();
+
   /** This interceptor traces outbound calls */
-  public ClientInterceptor newClientInterceptor() {
-    return new TracingClientInterceptor(tracing);
+  public final ClientInterceptor newClientInterceptor() {
+    return new TracingClientInterceptor(this);
   }
 
   /** This interceptor traces inbound calls */
-  public ServerInterceptor newServerInterceptor() {
-    return new TracingServerInterceptor(tracing);
+  public final ServerInterceptor newServerInterceptor() {
+    return new TracingServerInterceptor(this);
+  }
+
+  @AutoValue.Builder
+  public static abstract class Builder {
+    /** @see GrpcTracing#tracing() */
+    public abstract Builder tracing(Tracing tracing);
+
+    /** @see GrpcTracing#parser() */
+    public abstract Builder parser(GrpcParser parser);
+
+    /** @see GrpcTracing#clientSampler() */
+    public abstract Builder clientSampler(GrpcSampler clientSampler);
+
+    /** @see GrpcTracing#serverSampler() */
+    public abstract Builder serverSampler(GrpcSampler serverSampler);
+
+    /** @see GrpcTracing#messageEvents() */
+    public abstract Builder messageEvents(boolean messageEvents);
+
+    public abstract GrpcTracing build();
+
+    Builder() {
+    }
+  }
+
+  GrpcTracing() {
   }
 }
@@ -0,0 +1,93 @@
+package brave.grpc;
+
+import brave.Clock;
+import brave.Span;
+import com.google.protobuf.MessageLite;
+import javax.annotation.Nullable;
+
+/**
+ * Aggregates messages of a call, so that streams add a fixed count of tags and annotations to a
+ * span, regardless of how many messages they carry.
+ *
+ * <p>gRPC doesn't allow concurrent calls in the same direction, so each direction has at most one
+ * writer at a time. Hand-offs between threads go through executors, which publish the fields.
+ */
+final class MessageEvents {
+  static final String SENT = "grpc.message_sent";
+  static final String RECEIVED = "grpc.message_received";
+
+  /** Returns null unless the span will be reported, as unsampled spans can't hold tags. */
+  @Nullable static MessageEvents create(GrpcTracing grpcTracing, Span span) {
+    if (!grpcTracing.messageEvents() || !span.isRecordingData()) return null;
+    return new MessageEvents(grpcTracing.tracing().clock());
+  }
+
+  final Clock clock;
+  final Direction sent = new Direction(), received = new Direction();
+
+  MessageEvents(Clock clock) {
+    this.clock = clock;
+  }
+
+  void sent(Object message) {
+    sent.add(clock.currentTimeMicroseconds(), message);
+  }
+
+  void received(Object message) {
+    received.add(clock.currentTimeMicroseconds(), message);
+  }
+
+  /** Call before finishing the span. */
+  void addTo(Span span) {
+    sent.addTo(span, SENT);
+    received.addTo(span, RECEIVED);
+  }
+
+  static final class Direction {
+    int count;
+    long bytes; // -1 when any message is of unknown size
+    long first, last;
+
+    void add(long timestamp, Object message) {
+      if (count++ == 0) first = timestamp;
+      last = timestamp;
+      if (bytes == -1) return;
+      int size = sizeOf(message);
+      bytes = size != -1 ? bytes + size : -1;
+    }
+
+    void addTo(Span span, String prefix) {
+      if (count == 0) return;
+      span.tag(prefix + ".count", Integer.toString(count));
+      if (bytes != -1) span.tag(prefix + ".bytes", Long.toString(bytes));
+      span.annotate(first, prefix + ".first");
+      if (count > 1) span.annotate(last, prefix + ".last");
+    }
+  }
+
+  static final boolean PROTOBUF;
+
+  static {
+    boolean protobuf;
+    try {
+      Class.forName("com.google.protobuf.MessageLite");
+      protobuf = true;
+    } catch (ClassNotFoundException e) {
+      protobuf = false;
+    }
+    PROTOBUF = protobuf;
+  }
+
+  /** Returns the serialized size of the message or -1 if unknown */
+  static int sizeOf(Object message) {
+    return PROTOBUF ? Protobuf.sizeOf(message) : -1;
+  }
+
+  /** Isolates protobuf types, so that this class loads when protobuf is not on the classpath */
+  static final class Protobuf {
+    /** Generated messages memoize their serialized size, so this is usually a field read. */
+    static int sizeOf(Object message) {
+      return message instanceof MessageLite ? ((MessageLite) message).getSerializedSize() : -1;
+    }
+  }
+}
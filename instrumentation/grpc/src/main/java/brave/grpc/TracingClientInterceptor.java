@@ -3,7 +3,9 @@ package brave.grpc;
 import brave.Span;
 import brave.Tracer;
 import brave.Tracing;
+import brave.propagation.CurrentTraceContext;
 import brave.propagation.Propagation;
+import brave.propagation.SamplingFlags;
 import brave.propagation.TraceContext;
 import io.grpc.CallOptions;
 import io.grpc.Channel;
@@ -14,16 +16,25 @@ import io.grpc.ForwardingClientCallListener.SimpleForwardingClientCallListener;
 import io.grpc.Metadata;
 import io.grpc.MethodDescriptor;
 import io.grpc.Status;
-import zipkin.Constants;
+import javax.annotation.Nullable;
 
 // not exposed directly as implementation notably changes between versions 1.2 and 1.3
 final class TracingClientInterceptor implements ClientInterceptor {
 
+  final GrpcTracing grpcTracing;
   final Tracer tracer;
+  final CurrentTraceContext currentTraceContext;
+  final GrpcSampler sampler;
+  final GrpcParser parser;
   final TraceContext.Injector<Metadata> injector;
 
-  TracingClientInterceptor(Tracing tracing) {
+  TracingClientInterceptor(GrpcTracing grpcTracing) {
+    Tracing tracing = grpcTracing.tracing();
+    this.grpcTracing = grpcTracing;
     tracer = tracing.tracer();
+    currentTraceContext = tracing.currentTraceContext();
+    sampler = grpcTracing.clientSampler();
+    parser = grpcTracing.parser();
     injector = tracing.propagationFactory().create(AsciiMetadataKeyFactory.INSTANCE)
         .injector(new Propagation.Setter<Metadata, Metadata.Key<String>>() { // retrolambda no like
           @Override public void put(Metadata metadata, Metadata.Key<String> key, String value) {
@@ -42,26 +53,87 @@ final class TracingClientInterceptor implements ClientInterceptor {
   public <ReqT, RespT> ClientCall<ReqT, RespT> interceptCall(
       final MethodDescriptor<ReqT, RespT> method, final CallOptions callOptions,
       final Channel next) {
-    Span span = tracer.nextSpan();
+    Span span = nextSpan(method);
     try (Tracer.SpanInScope ws = tracer.withSpanInScope(span)) {
-      return new SimpleForwardingClientCall<ReqT, RespT>(next.newCall(method, callOptions)) {
-        @Override
-        public void start(Listener<RespT> responseListener, Metadata headers) {
-          injector.inject(span.context(), headers);
-          span.kind(Span.Kind.CLIENT).name(method.getFullMethodName()).start();
-          try (Tracer.SpanInScope ws = tracer.withSpanInScope(span)) {
-            super.start(new SimpleForwardingClientCallListener<RespT>(responseListener) {
-              @Override public void onClose(Status status, Metadata trailers) {
-                if (!status.getCode().equals(Status.Code.OK)) {
-                  span.tag(Constants.ERROR, String.valueOf(status.getCode()));
-                }
-                span.finish();
-                super.onClose(status, trailers);
-              }
-            }, headers);
-          }
-        }
-      };
+      ClientCall<ReqT, RespT> call = next.newCall(method, callOptions);
+      if (span.isNoop()) return new PropagatingClientCall<>(call, span); // nothing to record
+      return new TracingClientCall<>(call, method, span, MessageEvents.create(grpcTracing, span));
+    }
+  }
+
+  <ReqT, RespT> Span nextSpan(MethodDescriptor<ReqT, RespT> method) {
+    TraceContext parent = currentTraceContext.get();
+    if (parent != null) return tracer.newChild(parent);
+
+    // If there was no parent, we are making a new trace. Try to sample the method.
+    Boolean sampled = sampler.trySample(method);
+    if (sampled == null) return tracer.newTrace(); // defer sampling decision to trace ID
+    return tracer.newTrace(sampled ? SamplingFlags.SAMPLED : SamplingFlags.NOT_SAMPLED);
+  }
+
+  /** Propagates the span's context, which applies even when it isn't sampled. */
+  class PropagatingClientCall<ReqT, RespT> extends SimpleForwardingClientCall<ReqT, RespT> {
+    final Span span;
+
+    PropagatingClientCall(ClientCall<ReqT, RespT> delegate, Span span) {
+      super(delegate);
+      this.span = span;
+    }
+
+    @Override public void start(Listener<RespT> responseListener, Metadata headers) {
+      injector.inject(span.context(), headers);
+      try (Tracer.SpanInScope ws = tracer.withSpanInScope(span)) {
+        super.start(responseListener, headers);
+      }
+    }
+  }
+
+  final class TracingClientCall<ReqT, RespT> extends PropagatingClientCall<ReqT, RespT> {
+    final MethodDescriptor<ReqT, RespT> method;
+    @Nullable final MessageEvents events;
+
+    TracingClientCall(ClientCall<ReqT, RespT> delegate, MethodDescriptor<ReqT, RespT> method,
+        Span span, @Nullable MessageEvents events) {
+      super(delegate, span);
+      this.method = method;
+      this.events = events;
+    }
+
+    @Override public void start(Listener<RespT> responseListener, Metadata headers) {
+      span.kind(Span.Kind.CLIENT);
+      parser.request(method, span);
+      span.start();
+      super.start(new TracingClientCallListener<>(responseListener, span, events), headers);
+    }
+
+    @Override public void sendMessage(ReqT message) {
+      if (events != null) events.sent(message);
+      super.sendMessage(message);
+    }
+  }
+
+  final class TracingClientCallListener<RespT>
+      extends SimpleForwardingClientCallListener<RespT> {
+    final Span span;
+    @Nullable final MessageEvents events;
+
+    TracingClientCallListener(ClientCall.Listener<RespT> delegate, Span span,
+        @Nullable MessageEvents events) {
+      super(delegate);
+      this.span = span;
+      this.events = events;
+    }
+
+    @Override public void onMessage(RespT message) {
+      if (events != null) events.received(message);
+      super.onMessage(message);
+    }
+
+    @Override public void onClose(Status status, Metadata trailers) {
+      if (events != null) events.addTo(span);
+      parser.response(status, span);
+      span.finish();
+      super.onClose(status, trailers);
     }
   }
 }
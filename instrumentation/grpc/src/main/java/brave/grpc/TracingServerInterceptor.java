@@ -3,25 +3,37 @@ package brave.grpc;
 import brave.Span;
 import brave.Tracer;
 import brave.Tracing;
+import brave.propagation.CurrentTraceContext;
 import brave.propagation.Propagation;
+import brave.propagation.SamplingFlags;
 import brave.propagation.TraceContext;
 import brave.propagation.TraceContextOrSamplingFlags;
 import io.grpc.ForwardingServerCall.SimpleForwardingServerCall;
 import io.grpc.ForwardingServerCallListener.SimpleForwardingServerCallListener;
 import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
 import io.grpc.ServerCall;
 import io.grpc.ServerCallHandler;
 import io.grpc.ServerInterceptor;
 import io.grpc.Status;
-import zipkin.Constants;
+import javax.annotation.Nullable;
 
 // not exposed directly as implementation notably changes between versions 1.2 and 1.3
 final class TracingServerInterceptor implements ServerInterceptor {
+  final GrpcTracing grpcTracing;
   final Tracer tracer;
+  final CurrentTraceContext currentTraceContext;
+  final GrpcSampler sampler;
+  final GrpcParser parser;
   final TraceContext.Extractor<Metadata> extractor;
 
-  TracingServerInterceptor(Tracing tracing) {
+  TracingServerInterceptor(GrpcTracing grpcTracing) {
+    Tracing tracing = grpcTracing.tracing();
+    this.grpcTracing = grpcTracing;
     tracer = tracing.tracer();
+    currentTraceContext = tracing.currentTraceContext();
+    sampler = grpcTracing.serverSampler();
+    parser = grpcTracing.parser();
     extractor = tracing.propagationFactory().create(AsciiMetadataKeyFactory.INSTANCE)
         .extractor(new Propagation.Getter<Metadata, Metadata.Key<String>>() { // retrolambda no like
           @Override public String get(Metadata metadata, Metadata.Key<String> key) {
@@ -33,28 +45,54 @@ final class TracingServerInterceptor implements ServerInterceptor {
   @Override
   public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(final ServerCall<ReqT, RespT> call,
       final Metadata requestHeaders, final ServerCallHandler<ReqT, RespT> next) {
-    TraceContextOrSamplingFlags contextOrFlags = extractor.extract(requestHeaders);
-    Span span = contextOrFlags.context() != null
-        ? tracer.joinSpan(contextOrFlags.context())
-        : tracer.newTrace(contextOrFlags.samplingFlags());
-    span.kind(Span.Kind.SERVER).name(call.getMethodDescriptor().getFullMethodName());
+    Span span = nextSpan(extractor.extract(requestHeaders), call.getMethodDescriptor());
+    MessageEvents events = null;
+    ServerCall<ReqT, RespT> tracingCall = call; // unsampled calls have nothing to record
+    if (!span.isNoop()) {
+      span.kind(Span.Kind.SERVER);
+      parser.request(call.getMethodDescriptor(), span);
+      events = MessageEvents.create(grpcTracing, span);
+      tracingCall = new TracingServerCall<>(span, events, call);
+    }
 
     // startCall invokes user interceptors, so we place the span in scope here
     ServerCall.Listener<ReqT> result;
     try (Tracer.SpanInScope ws = tracer.withSpanInScope(span)) {
-      result = next.startCall(new TracingServerCall<>(span, call), requestHeaders);
+      result = next.startCall(tracingCall, requestHeaders);
+    }
+
+    // This ensures the server implementation can see the span in scope. This applies even when
+    // unsampled, as the context propagates to downstream calls and log correlation.
+    return new ScopingServerCallListener<>(currentTraceContext, span.context(), events, result);
+  }
+
+  /** Creates a potentially noop span representing this request */
+  <ReqT, RespT> Span nextSpan(TraceContextOrSamplingFlags contextOrFlags,
+      MethodDescriptor<ReqT, RespT> method) {
+    TraceContext context = contextOrFlags.context();
+    if (context != null) {
+      if (context.sampled() != null) return tracer.joinSpan(context);
+      // Only consult the sampler when the caller didn't make a decision
+      return tracer.joinSpan(context.toBuilder().sampled(sampler.trySample(method)).build());
     }
 
-    // This ensures the server implementation can see the span in scope
-    return new ScopingServerCallListener<>(tracer, span, result);
+    SamplingFlags flags = contextOrFlags.samplingFlags();
+    if (flags.sampled() == null) {
+      flags = new SamplingFlags.Builder()
+          .sampled(sampler.trySample(method))
+          .debug(flags.debug()).build();
+    }
+    return tracer.newTrace(flags);
   }
 
   final class TracingServerCall<ReqT, RespT> extends SimpleForwardingServerCall<ReqT, RespT> {
     private final Span span;
+    @Nullable private final MessageEvents events;
 
-    TracingServerCall(Span span, ServerCall<ReqT, RespT> call) {
+    TracingServerCall(Span span, @Nullable MessageEvents events, ServerCall<ReqT, RespT> call) {
       super(call);
       this.span = span;
+      this.events = events;
     }
 
     @Override public void request(int numMessages) {
@@ -62,11 +100,15 @@ final class TracingServerInterceptor implements ServerInterceptor {
       super.request(numMessages);
     }
 
+    @Override public void sendMessage(RespT message) {
+      if (events != null) events.sent(message);
+      super.sendMessage(message);
+    }
+
     @Override public void close(Status status, Metadata trailers) {
       try {
-        if (!status.getCode().equals(Status.Code.OK)) {
-          span.tag(Constants.ERROR, String.valueOf(status.getCode()));
-        }
+        if (events != null) events.addTo(span);
+        parser.response(status, span);
         super.close(status, trailers);
       } finally {
         span.finish();
@@ -74,42 +116,51 @@ final class TracingServerInterceptor implements ServerInterceptor {
     }
   }
 
-  final class ScopingServerCallListener<ReqT> extends SimpleForwardingServerCallListener<ReqT> {
-    final Tracer tracer;
-    final Span span;
-
-    ScopingServerCallListener(Tracer tracer, Span span, ServerCall.Listener<ReqT> delegate) {
+  /**
+   * Scopes callbacks with the trace context, as opposed to the span. This is the same for sampled
+   * and unsampled calls, and avoids allocating a {@link Tracer.SpanInScope} per message.
+   */
+  static final class ScopingServerCallListener<ReqT>
+      extends SimpleForwardingServerCallListener<ReqT> {
+    final CurrentTraceContext currentTraceContext;
+    final TraceContext context;
+    @Nullable final MessageEvents events;
+
+    ScopingServerCallListener(CurrentTraceContext currentTraceContext, TraceContext context,
+        @Nullable MessageEvents events, ServerCall.Listener<ReqT> delegate) {
       super(delegate);
-      this.tracer = tracer;
-      this.span = span;
+      this.currentTraceContext = currentTraceContext;
+      this.context = context;
+      this.events = events;
     }
 
     @Override public void onMessage(ReqT message) {
-      try (Tracer.SpanInScope ws = tracer.withSpanInScope(span)) {
+      if (events != null) events.received(message);
+      try (CurrentTraceContext.Scope scope = currentTraceContext.newScope(context)) {
         delegate().onMessage(message);
       }
     }
 
     @Override public void onHalfClose() {
-      try (Tracer.SpanInScope ws = tracer.withSpanInScope(span)) {
+      try (CurrentTraceContext.Scope scope = currentTraceContext.newScope(context)) {
         delegate().onHalfClose();
       }
     }
 
     @Override public void onCancel() {
-      try (Tracer.SpanInScope ws = tracer.withSpanInScope(span)) {
+      try (CurrentTraceContext.Scope scope = currentTraceContext.newScope(context)) {
         delegate().onCancel();
       }
     }
 
     @Override public void onComplete() {
-      try (Tracer.SpanInScope ws = tracer.withSpanInScope(span)) {
-        delegate().onCancel();
+      try (CurrentTraceContext.Scope scope = currentTraceContext.newScope(context)) {
+        delegate().onComplete();
       }
     }
 
     @Override public void onReady() {
-      try (Tracer.SpanInScope ws = tracer.withSpanInScope(span)) {
+      try (CurrentTraceContext.Scope scope = currentTraceContext.newScope(context)) {
         delegate().onReady();
       }
     }
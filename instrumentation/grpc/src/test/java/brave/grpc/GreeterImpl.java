@@ -30,4 +30,21 @@ class GreeterImpl extends GreeterGrpc.GreeterImplBase {
     responseObserver.onNext(reply);
     responseObserver.onCompleted();
   }
+
+  @Override public StreamObserver<HelloRequest> sayHelloStream(
+      StreamObserver<HelloReply> responseObserver) {
+    return new StreamObserver<HelloRequest>() {
+      @Override public void onNext(HelloRequest req) {
+        responseObserver.onNext(HelloReply.newBuilder().setMessage(req.getName()).build());
+      }
+
+      @Override public void onError(Throwable t) {
+        responseObserver.onError(t);
+      }
+
+      @Override public void onCompleted() {
+        responseObserver.onCompleted();
+      }
+    };
+  }
 }
@@ -0,0 +1,85 @@
+package brave.grpc;
+
+import io.grpc.MethodDescriptor;
+import io.grpc.examples.helloworld.GreeterGrpc;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+public class GrpcRuleSamplerTest {
+  MethodDescriptor<?, ?> sayHello = GreeterGrpc.METHOD_SAY_HELLO;
+
+  @Test public void onService() {
+    GrpcSampler sampler = GrpcRuleSampler.newBuilder()
+        .addRule("helloworld.Greeter", null, 1.0f)
+        .build();
+
+    assertThat(sampler.trySample(sayHello))
+        .isTrue();
+  }
+
+  @Test public void onService_unsampled() {
+    GrpcSampler sampler = GrpcRuleSampler.newBuilder()
+        .addRule("helloworld.Greeter", null, 0.0f)
+        .build();
+
+    assertThat(sampler.trySample(sayHello))
+        .isFalse();
+  }
+
+  @Test public void onService_doesntMatch() {
+    GrpcSampler sampler = GrpcRuleSampler.newBuilder()
+        .addRule("grpc.health.v1.Health", null, 0.0f)
+        .build();
+
+    assertThat(sampler.trySample(sayHello))
+        .isNull();
+  }
+
+  @Test public void onServiceAndMethod() {
+    GrpcSampler sampler = GrpcRuleSampler.newBuilder()
+        .addRule("helloworld.Greeter", "SayHello", 1.0f)
+        .build();
+
+    assertThat(sampler.trySample(sayHello))
+        .isTrue();
+  }
+
+  @Test public void onServiceAndMethod_doesntMatch() {
+    GrpcSampler sampler = GrpcRuleSampler.newBuilder()
+        .addRule("helloworld.Greeter", "SayHelloStream", 0.0f)
+        .build();
+
+    assertThat(sampler.trySample(sayHello))
+        .isNull();
+  }
+
+  @Test public void firstRuleWins() {
+    GrpcSampler sampler = GrpcRuleSampler.newBuilder()
+        .addRule("helloworld.Greeter", "SayHello", 0.0f)
+        .addRule("helloworld.Greeter", null, 1.0f)
+        .build();
+
+    assertThat(sampler.trySample(sayHello))
+        .isFalse();
+    assertThat(sampler.trySample(GreeterGrpc.METHOD_SAY_HELLO_STREAM))
+        .isTrue();
+  }
+
+  @Test public void cachesMatchPerMethod() {
+    GrpcRuleSampler sampler = (GrpcRuleSampler) GrpcRuleSampler.newBuilder()
+        .addRule("grpc.health.v1.Health", null, 0.0f)
+        .build();
+
+    sampler.trySample(sayHello);
+    sampler.trySample(sayHello);
+
+    assertThat(sampler.samplers)
+        .containsOnly(entry(sayHello.getFullMethodName(), GrpcRuleSampler.NO_MATCH));
+  }
+
+  @Test(expected = NullPointerException.class) public void addRule_nullService() {
+    GrpcRuleSampler.newBuilder().addRule(null, "SayHello", 1.0f);
+  }
+}
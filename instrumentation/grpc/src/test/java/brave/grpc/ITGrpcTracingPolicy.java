@@ -0,0 +1,112 @@
+package brave.grpc;
+
+import brave.Tracing;
+import brave.internal.StrictCurrentTraceContext;
+import brave.sampler.Sampler;
+import io.grpc.ManagedChannel;
+import io.grpc.ManagedChannelBuilder;
+import io.grpc.MethodDescriptor;
+import io.grpc.Server;
+import io.grpc.ServerBuilder;
+import io.grpc.ServerInterceptors;
+import io.grpc.examples.helloworld.GreeterGrpc;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Test;
+import zipkin.Span;
+
+import static brave.grpc.GreeterImpl.HELLO_REQUEST;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/** Tests the sampler and parser of {@link GrpcTracing} apply to both sides of the call. */
+public class ITGrpcTracingPolicy {
+  ConcurrentLinkedDeque<Span> spans = new ConcurrentLinkedDeque<>();
+
+  Server server;
+  ManagedChannel client;
+
+  @After public void close() throws Exception {
+    client.shutdown();
+    client.awaitTermination(1, TimeUnit.SECONDS);
+    server.shutdown();
+    server.awaitTermination();
+    Tracing.current().close();
+  }
+
+  @Test public void clientSampler() throws Exception {
+    init(GrpcTracing.newBuilder(tracing(Sampler.ALWAYS_SAMPLE))
+        .clientSampler(GrpcRuleSampler.newBuilder()
+            .addRule("helloworld.Greeter", "SayHello", 0.0f)
+            .build())
+        .build());
+
+    GreeterGrpc.newBlockingStub(client).sayHello(HELLO_REQUEST);
+
+    // the server honors the decision propagated by the client
+    assertThat(spans).isEmpty();
+  }
+
+  @Test public void serverSampler() throws Exception {
+    GrpcTracing grpcTracing = GrpcTracing.newBuilder(tracing(Sampler.ALWAYS_SAMPLE))
+        .serverSampler(GrpcSampler.NEVER_SAMPLE)
+        .build();
+    server = ServerBuilder.forPort(PickUnusedPort.get())
+        .addService(ServerInterceptors.intercept(new GreeterImpl(null),
+            grpcTracing.newServerInterceptor()))
+        .build().start();
+    client = ManagedChannelBuilder.forAddress("localhost", server.getPort())
+        .usePlaintext(true)
+        .build();
+
+    GreeterGrpc.newBlockingStub(client).sayHello(HELLO_REQUEST);
+
+    assertThat(spans).isEmpty();
+  }
+
+  @Test public void serverSampler_ignoredWhenClientDecided() throws Exception {
+    init(GrpcTracing.newBuilder(tracing(Sampler.ALWAYS_SAMPLE))
+        .serverSampler(GrpcSampler.NEVER_SAMPLE)
+        .build());
+
+    GreeterGrpc.newBlockingStub(client).sayHello(HELLO_REQUEST);
+
+    assertThat(spans).hasSize(2);
+  }
+
+  @Test public void parser() throws Exception {
+    init(GrpcTracing.newBuilder(tracing(Sampler.ALWAYS_SAMPLE))
+        .parser(new GrpcParser() {
+          @Override
+          protected <ReqT, RespT> String spanName(MethodDescriptor<ReqT, RespT> method) {
+            return method.getFullMethodName().toLowerCase();
+          }
+        })
+        .build());
+
+    GreeterGrpc.newBlockingStub(client).sayHello(HELLO_REQUEST);
+
+    assertThat(spans)
+        .extracting(s -> s.name)
+        .containsExactly("helloworld.greeter/sayhello", "helloworld.greeter/sayhello");
+  }
+
+  Tracing tracing(Sampler sampler) {
+    return Tracing.newBuilder()
+        .reporter(spans::add)
+        .currentTraceContext(new StrictCurrentTraceContext())
+        .sampler(sampler)
+        .build();
+  }
+
+  void init(GrpcTracing grpcTracing) throws Exception {
+    server = ServerBuilder.forPort(PickUnusedPort.get())
+        .addService(ServerInterceptors.intercept(new GreeterImpl(null),
+            grpcTracing.newServerInterceptor()))
+        .build().start();
+    client = ManagedChannelBuilder.forAddress("localhost", server.getPort())
+        .intercept(grpcTracing.newClientInterceptor())
+        .usePlaintext(true)
+        .build();
+  }
+}
@@ -0,0 +1,122 @@
+package brave.grpc;
+
+import brave.Tracing;
+import brave.internal.StrictCurrentTraceContext;
+import brave.sampler.Sampler;
+import io.grpc.ManagedChannel;
+import io.grpc.ManagedChannelBuilder;
+import io.grpc.Server;
+import io.grpc.ServerBuilder;
+import io.grpc.ServerInterceptors;
+import io.grpc.examples.helloworld.GreeterGrpc;
+import io.grpc.examples.helloworld.HelloReply;
+import io.grpc.examples.helloworld.HelloRequest;
+import io.grpc.stub.StreamObserver;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Test;
+import zipkin.Span;
+import zipkin.internal.Util;
+
+import static brave.grpc.GreeterImpl.HELLO_REQUEST;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+public class ITMessageEvents {
+  ConcurrentLinkedDeque<Span> spans = new ConcurrentLinkedDeque<>();
+
+  Server server;
+  ManagedChannel client;
+
+  @After public void close() throws Exception {
+    client.shutdown();
+    client.awaitTermination(1, TimeUnit.SECONDS);
+    server.shutdown();
+    server.awaitTermination();
+    Tracing.current().close();
+  }
+
+  @Test public void disabledByDefault() throws Exception {
+    init(GrpcTracing.create(tracing(Sampler.ALWAYS_SAMPLE)));
+
+    sayHelloStream(3);
+
+    assertThat(spans)
+        .flatExtracting(s -> s.binaryAnnotations)
+        .extracting(b -> b.key)
+        .allSatisfy(key -> assertThat(key).doesNotStartWith("grpc.message"));
+  }
+
+  @Test public void aggregatesStream() throws Exception {
+    init(GrpcTracing.newBuilder(tracing(Sampler.ALWAYS_SAMPLE)).messageEvents(true).build());
+
+    sayHelloStream(3);
+
+    assertThat(spans).hasSize(2).allSatisfy(span -> {
+      assertThat(span.binaryAnnotations)
+          .extracting(b -> tuple(b.key, new String(b.value, Util.UTF_8)))
+          .contains(
+              tuple("grpc.message_sent.count", "3"),
+              tuple("grpc.message_sent.bytes", "24"),
+              tuple("grpc.message_received.count", "3"),
+              tuple("grpc.message_received.bytes", "24")
+          );
+      assertThat(span.annotations)
+          .extracting(a -> a.value)
+          .contains("grpc.message_sent.first", "grpc.message_sent.last",
+              "grpc.message_received.first", "grpc.message_received.last");
+    });
+  }
+
+  @Test public void skipsUnsampled() throws Exception {
+    init(GrpcTracing.newBuilder(tracing(Sampler.NEVER_SAMPLE)).messageEvents(true).build());
+
+    sayHelloStream(3);
+
+    assertThat(spans).isEmpty();
+  }
+
+  Tracing tracing(Sampler sampler) {
+    return Tracing.newBuilder()
+        .reporter(spans::add)
+        .currentTraceContext(new StrictCurrentTraceContext())
+        .sampler(sampler)
+        .build();
+  }
+
+  void init(GrpcTracing grpcTracing) throws Exception {
+    server = ServerBuilder.forPort(PickUnusedPort.get())
+        .addService(ServerInterceptors.intercept(new GreeterImpl(null),
+            grpcTracing.newServerInterceptor()))
+        .build().start();
+    client = ManagedChannelBuilder.forAddress("localhost", server.getPort())
+        .intercept(grpcTracing.newClientInterceptor())
+        .usePlaintext(true)
+        .build();
+  }
+
+  /** Sends the request count times, and blocks until the server echoed them */
+  void sayHelloStream(int count) throws Exception {
+    CountDownLatch latch = new CountDownLatch(1);
+    StreamObserver<HelloRequest> requests = GreeterGrpc.newStub(client).sayHelloStream(
+        new StreamObserver<HelloReply>() {
+          @Override public void onNext(HelloReply value) {
+          }
+
+          @Override public void onError(Throwable t) {
+            latch.countDown();
+          }
+
+          @Override public void onCompleted() {
+            latch.countDown();
+          }
+        });
+    for (int i = 0; i < count; i++) {
+      requests.onNext(HELLO_REQUEST);
+    }
+    requests.onCompleted();
+    assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+  }
+}
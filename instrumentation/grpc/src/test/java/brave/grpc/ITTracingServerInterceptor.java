@@ -167,6 +167,15 @@ public class ITTracingServerInterceptor {
         .isNotEmpty();
   }
 
+  /** The context is visible even when unsampled, as downstream calls need to propagate it */
+  @Test public void currentSpanVisibleToImpl_unsampled() throws Exception {
+    tracing = tracingBuilder(Sampler.NEVER_SAMPLE).build();
+    init();
+
+    assertThat(GreeterGrpc.newBlockingStub(client).sayHello(HELLO_REQUEST).getMessage())
+        .isNotEmpty();
+  }
+
   @Test
   public void reportsServerAnnotationsToZipkin() throws Exception {
     GreeterGrpc.newBlockingStub(client).sayHello(HELLO_REQUEST);
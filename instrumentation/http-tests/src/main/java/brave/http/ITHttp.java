@@ -38,7 +38,7 @@ public abstract class ITHttp {
         .sampler(sampler);
   }
 
-  void assertReportedTagsInclude(String key, String... values) {
+  protected void assertReportedTagsInclude(String key, String... values) {
     assertThat(spans)
         .flatExtracting(s -> s.binaryAnnotations)
         .filteredOn(b -> b.key.equals(key))
@@ -145,13 +145,19 @@ public abstract class ITHttpServer extends ITHttp {
         .containsExactly("sr", "ss");
   }
 
+  /** The route is only included when the framework matches it before the span is named. */
   @Test
-  public void defaultSpanNameIsMethodName() throws Exception {
+  public void defaultSpanNameIsMethodNameOrRoute() throws Exception {
     get("/foo");
 
     assertThat(spans)
         .extracting(s -> s.name)
-        .containsExactly("get");
+        .containsExactly(supportsRoute() ? "get /foo" : "get");
+  }
+
+  /** Override to true when the framework exposes the {@link HttpServerAdapter#route route}. */
+  protected boolean supportsRoute() {
+    return false;
   }
 
   @Test
@@ -0,0 +1,113 @@
+package brave.http;
+
+import java.net.InetAddress;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import javax.annotation.Nullable;
+import zipkin.Endpoint;
+
+/**
+ * Caches remote endpoints for a service by address and port. Clients usually talk to a few hosts,
+ * so this avoids parsing the same ip and allocating an equivalent {@link Endpoint} for each call.
+ *
+ * <p>Ex. In an interceptor that knows the connected address
+ * <pre>{@code
+ * Endpoint endpoint = endpointCache.get(socketAddress.getAddress(), socketAddress.getPort());
+ * if (endpoint != null) span.remoteEndpoint(endpoint);
+ * }</pre>
+ *
+ * <p>The count of addresses, and of ports per address, is bounded. Once full, endpoints for new
+ * addresses or ports are built, but not cached.
+ */
+public final class EndpointCache {
+
+  /** Caches up to 1000 addresses for the given service name, which may be empty. */
+  public static EndpointCache create(String serviceName) {
+    return create(serviceName, 1000);
+  }
+
+  /** @param maxAddresses maximum count of distinct addresses to cache */
+  public static EndpointCache create(String serviceName, int maxAddresses) {
+    if (serviceName == null) throw new NullPointerException("serviceName == null");
+    if (maxAddresses <= 0) throw new IllegalArgumentException("maxAddresses <= 0");
+    return new EndpointCache(serviceName, maxAddresses);
+  }
+
+  /** Servers usually listen on few ports, so this leaves room for more without growing much. */
+  static final int MAX_PORTS_PER_ADDRESS = 16;
+  /** Marks an address which isn't an ip, so it isn't parsed again for each port. */
+  static final Map<Integer, Endpoint> NOT_AN_IP = Collections.emptyMap();
+
+  final String serviceName;
+  final int maxAddresses;
+  // keyed by InetAddress or ip string, then by port, so that lookup needn't allocate a pair
+  final ConcurrentMap<Object, Map<Integer, Endpoint>> entries = new ConcurrentHashMap<>();
+  final Endpoint serviceOnly;
+
+  EndpointCache(String serviceName, int maxAddresses) {
+    this.serviceName = serviceName;
+    this.maxAddresses = maxAddresses;
+    this.serviceOnly = Endpoint.builder().serviceName(serviceName).build();
+  }
+
+  /** The service name of all endpoints in this cache. */
+  public String serviceName() {
+    return serviceName;
+  }
+
+  /** Returns an endpoint with only the {@link #serviceName() service name} set. */
+  public Endpoint serviceOnly() {
+    return serviceOnly;
+  }
+
+  /** Returns an endpoint for the address and port, or null if the address is null. */
+  @Nullable public Endpoint get(@Nullable InetAddress address, int port) {
+    if (address == null) return null;
+    return getOrCreate(address, port);
+  }
+
+  /**
+   * Returns an endpoint for the ip literal and port, or null if the input isn't an ip. Ex. null
+   * for a hostname like "localhost".
+   */
+  @Nullable public Endpoint get(@Nullable String ip, int port) {
+    if (ip == null) return null;
+    return getOrCreate(ip, port);
+  }
+
+  @Nullable Endpoint getOrCreate(Object address, int port) {
+    Map<Integer, Endpoint> ports = entries.get(address);
+    if (ports == NOT_AN_IP) return null;
+    Endpoint endpoint = ports != null ? ports.get(port) : null;
+    if (endpoint != null) return endpoint;
+
+    endpoint = parse(address, port);
+    if (endpoint == null) {
+      if (entries.size() < maxAddresses) entries.putIfAbsent(address, NOT_AN_IP);
+      return null;
+    }
+    if (ports == null) {
+      if (entries.size() >= maxAddresses) return endpoint;
+      Map<Integer, Endpoint> created = new ConcurrentHashMap<>();
+      ports = entries.putIfAbsent(address, created);
+      if (ports == null) ports = created;
+    }
+    if (ports.size() < MAX_PORTS_PER_ADDRESS) ports.put(port, endpoint);
+    return endpoint;
+  }
+
+  @Nullable Endpoint parse(Object address, int port) {
+    Endpoint.Builder builder = Endpoint.builder().serviceName(serviceName);
+    boolean parsed = address instanceof InetAddress
+        ? builder.parseIp((InetAddress) address)
+        : builder.parseIp((String) address);
+    if (!parsed) return null;
+    return builder.port(port).build();
+  }
+
+  @Override public String toString() {
+    return "EndpointCache(" + serviceName + ")";
+  }
+}
@@ -1,6 +1,5 @@
 package brave.http;
 
-import java.net.URI;
 import javax.annotation.Nullable;
 import zipkin.TraceKeys;
 
@@ -22,7 +21,7 @@ public abstract class HttpAdapter<Req, Resp> {
   @Nullable public String path(Req request) {
     String url = url(request);
     if (url == null) return null;
-    return URI.create(url).getPath(); // TODO benchmark
+    return UrlParser.path(url); // scans the url instead of allocating a URI
   }
 
   /**
@@ -1,5 +1,6 @@
 package brave.http;
 
+import javax.annotation.Nullable;
 import zipkin.Endpoint;
 
 public abstract class HttpClientAdapter<Req, Resp> extends HttpAdapter<Req, Resp> {
@@ -7,4 +8,19 @@ public abstract class HttpClientAdapter<Req, Resp> extends HttpAdapter<Req, Resp
   public boolean parseServerAddress(Req req, Endpoint.Builder builder) {
     return false;
   }
+
+  /**
+   * Returns the endpoint of the server or null if unreadable. Override this to look up addresses in
+   * the cache, which avoids parsing the same ip for each request.
+   *
+   * <p>Defaults to call {@link #parseServerAddress(Object, Endpoint.Builder)}, which allocates a new
+   * endpoint.
+   *
+   * @param endpointCache holds endpoints for the {@link HttpTracing#serverName() server name}
+   */
+  @Nullable public Endpoint serverAddress(Req req, EndpointCache endpointCache) {
+    Endpoint.Builder builder = Endpoint.builder();
+    if (!parseServerAddress(req, builder)) return null;
+    return builder.serviceName(endpointCache.serviceName()).build();
+  }
 }
@@ -43,16 +43,17 @@ public final class HttpClientHandler<Req, Resp> {
   final CurrentTraceContext currentTraceContext;
   final HttpClientParser parser;
   final HttpClientAdapter<Req, Resp> adapter;
-  final String serverName;
   final boolean serverNameSet;
+  final EndpointCache endpointCache;
 
   HttpClientHandler(HttpTracing httpTracing, HttpClientAdapter<Req, Resp> adapter) {
     this.tracer = httpTracing.tracing().tracer();
     this.sampler = httpTracing.clientSampler();
     this.currentTraceContext = httpTracing.tracing().currentTraceContext();
     this.parser = httpTracing.clientParser();
-    this.serverName = httpTracing.serverName();
+    String serverName = httpTracing.serverName();
     this.serverNameSet = !serverName.equals("");
+    this.endpointCache = httpTracing.serverEndpointCache();
     this.adapter = adapter;
   }
 
@@ -99,11 +100,12 @@ public final class HttpClientHandler<Req, Resp> {
 
     // all of the parsing here occur before a timestamp is recorded on the span
     span.kind(Span.Kind.CLIENT).name(parser.spanName(adapter, request));
+    if (!span.isRecordingData()) return span.start();
+
     parser.request(adapter, request, span);
-    Endpoint.Builder remoteEndpoint = Endpoint.builder();
-    if (adapter.parseServerAddress(request, remoteEndpoint) || serverNameSet) {
-      span.remoteEndpoint(remoteEndpoint.serviceName(serverName).build());
-    }
+    Endpoint remoteEndpoint = adapter.serverAddress(request, endpointCache);
+    if (remoteEndpoint == null && serverNameSet) remoteEndpoint = endpointCache.serviceOnly();
+    if (remoteEndpoint != null) span.remoteEndpoint(remoteEndpoint);
     return span.start();
   }
 
@@ -134,7 +136,11 @@ public final class HttpClientHandler<Req, Resp> {
   public void handleReceive(@Nullable Resp response, @Nullable Throwable error, Span span) {
     if (span.isNoop()) return;
     try {
-      parser.response(adapter, response, error, span);
+      if (!span.isRecordingData()) { // only parse whether the request failed
+        parser.error(response != null ? adapter.statusCode(response) : null, error, span);
+      } else {
+        parser.response(adapter, response, error, span);
+      }
     } finally {
       span.finish();
     }
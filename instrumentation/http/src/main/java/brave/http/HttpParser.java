@@ -21,7 +21,7 @@ public class HttpParser {
     if (path != null) customizer.tag(TraceKeys.HTTP_PATH, path);
   }
 
-  /** Returns the span name of the request. Defaults to the http method. */
+  /** Returns the span name of the request. Defaults to the http method, ex. "GET". */
   protected <Req> String spanName(HttpAdapter<Req, ?> adapter, Req req) {
     return adapter.method(req);
   }
@@ -57,8 +57,11 @@ public final class HttpRuleSampler extends HttpSampler {
   }
 
   @Override public <Req> Boolean trySample(HttpAdapter<Req, ?> adapter, Req request) {
-    String method = adapter.method(request);
-    String path = adapter.path(request);
+    return trySample(adapter.method(request), adapter.path(request));
+  }
+
+  /** Used by handlers which also pass the method and path to the parser. */
+  @Nullable Boolean trySample(@Nullable String method, @Nullable String path) {
     if (method == null || path == null) return null; // use default if we couldn't parse
     return sampler.sample(Pair.create(method, path)).sampled();
   }
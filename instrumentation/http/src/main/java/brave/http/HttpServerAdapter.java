@@ -1,9 +1,24 @@
 package brave.http;
 
+import javax.annotation.Nullable;
 import zipkin.Endpoint;
 
 public abstract class HttpServerAdapter<Req, Resp> extends HttpAdapter<Req, Resp> {
 
+  /**
+   * Returns the route template matching the request, such as "/users/{userId}", or null if
+   * unknown. Unlike the path, this has low cardinality, so it is used in the span name.
+   *
+   * <p>This is invoked for every request. Implementations which derive the route via reflection
+   * should cache the result per handler.
+   *
+   * <p>Defaults to null, as not all frameworks match routes, or do so after the request is
+   * received.
+   */
+  @Nullable public String route(Req request) {
+    return null;
+  }
+
   /**
    * Returns true if an IP representing the client was readable. Defaults to parse the
    * "X-Forwarded-For" header.
@@ -41,12 +41,20 @@ public final class HttpServerHandler<Req, Resp> {
   final HttpSampler sampler;
   final HttpServerParser parser;
   final HttpServerAdapter<Req, Resp> adapter;
+  // When our sampler and parser are in use, request attributes are read once and shared
+  @Nullable final HttpRuleSampler ruleSampler;
+  final boolean defaultParser;
+  // When false, only the "X-Forwarded-For" header needs to be parsed for the client address
+  final boolean parsesClientAddress;
 
   HttpServerHandler(HttpTracing httpTracing, HttpServerAdapter<Req, Resp> adapter) {
     this.tracer = httpTracing.tracing().tracer();
     this.sampler = httpTracing.serverSampler();
     this.parser = httpTracing.serverParser();
     this.adapter = adapter;
+    this.ruleSampler = sampler instanceof HttpRuleSampler ? (HttpRuleSampler) sampler : null;
+    this.defaultParser = parser.getClass() == HttpServerParser.class;
+    this.parsesClientAddress = overridesParseClientAddress(adapter);
   }
 
   /**
@@ -66,43 +74,92 @@ public final class HttpServerHandler<Req, Resp> {
    * @see HttpServerParser#request(HttpAdapter, Object, SpanCustomizer)
    */
   public <C> Span handleReceive(TraceContext.Extractor<C> extractor, C carrier, Req request) {
-    Span span = nextSpan(extractor.extract(carrier), request);
+    TraceContextOrSamplingFlags contextOrFlags = extractor.extract(carrier);
+    String method = null, path = null;
+    Boolean sampled = null;
+    if (needsSamplingDecision(contextOrFlags)) {
+      if (ruleSampler != null) {
+        method = adapter.method(request);
+        path = adapter.path(request);
+        sampled = ruleSampler.trySample(method, path);
+      } else {
+        sampled = sampler.trySample(adapter, request);
+      }
+    }
+    Span span = nextSpan(contextOrFlags, sampled);
     if (span.isNoop()) return span;
 
     // all of the parsing here occur before a timestamp is recorded on the span
-    span.kind(Span.Kind.SERVER).name(parser.spanName(adapter, request));
-    parser.request(adapter, request, span);
-    Endpoint.Builder remoteEndpoint = Endpoint.builder();
-    if (adapter.parseClientAddress(request, remoteEndpoint)) {
-      span.remoteEndpoint(remoteEndpoint.serviceName("").build());
+    span.kind(Span.Kind.SERVER);
+    if (!defaultParser) {
+      span.name(parser.spanName(adapter, request));
+      if (!span.isRecordingData()) return span.start();
+      parser.request(adapter, request, span);
+    } else {
+      if (method == null) method = adapter.method(request);
+      String route = HttpServerParser.route(adapter, request);
+      span.name(HttpServerParser.spanName(method, route));
+      if (!span.isRecordingData()) return span.start();
+      if (path == null) path = adapter.path(request);
+      HttpServerParser.tagRequest(path, route, span);
     }
+    parseClientAddress(request, span);
     return span.start();
   }
 
+  static boolean needsSamplingDecision(TraceContextOrSamplingFlags contextOrFlags) {
+    TraceContext extracted = contextOrFlags.context();
+    if (extracted != null) return extracted.sampled() == null;
+    return contextOrFlags.samplingFlags().sampled() == null;
+  }
+
   /** Creates a potentially noop span representing this request */
-  Span nextSpan(TraceContextOrSamplingFlags contextOrFlags, Req request) {
+  Span nextSpan(TraceContextOrSamplingFlags contextOrFlags, @Nullable Boolean sampled) {
     TraceContext extracted = contextOrFlags.context();
     if (extracted != null) {
       // If there were trace IDs in the request and a sampling decision, honor it
-      if (extracted.sampled() != null) return tracer.joinSpan(contextOrFlags.context());
+      if (extracted.sampled() != null) return tracer.joinSpan(extracted);
 
-      // Otherwise, try to make a new decision
-      return tracer.joinSpan(extracted.toBuilder()
-          .sampled(sampler.trySample(adapter, request))
-          .build());
+      // Otherwise, use the decision made from the request
+      return tracer.joinSpan(extracted.toBuilder().sampled(sampled).build());
     }
 
     // There was no trace in the incoming requests. However, there might be sampling flags
     SamplingFlags flags = contextOrFlags.samplingFlags();
     if (flags.sampled() == null) {
       flags = new SamplingFlags.Builder()
-          .sampled(sampler.trySample(adapter, request))
+          .sampled(sampled)
           .debug(flags.debug()) // should always be false if unsampled!
           .build();
     }
     return tracer.newTrace(flags);
   }
 
+  /** Only allocates an endpoint builder when there's an address to parse. */
+  void parseClientAddress(Req request, Span span) {
+    Endpoint.Builder remoteEndpoint;
+    if (parsesClientAddress) {
+      remoteEndpoint = Endpoint.builder();
+      if (!adapter.parseClientAddress(request, remoteEndpoint)) return;
+    } else { // same as HttpServerAdapter.parseClientAddress
+      String xForwardedFor = adapter.requestHeader(request, "X-Forwarded-For");
+      if (xForwardedFor == null) return;
+      remoteEndpoint = Endpoint.builder();
+      if (!remoteEndpoint.parseIp(xForwardedFor)) return;
+    }
+    span.remoteEndpoint(remoteEndpoint.serviceName("").build());
+  }
+
+  static boolean overridesParseClientAddress(HttpServerAdapter<?, ?> adapter) {
+    try {
+      return adapter.getClass()
+          .getMethod("parseClientAddress", Object.class, Endpoint.Builder.class)
+          .getDeclaringClass() != HttpServerAdapter.class;
+    } catch (NoSuchMethodException e) {
+      return true; // unexpected, so don't skip the adapter
+    }
+  }
+
   /**
    * Finishes the server span after assigning it tags according to the response or error.
    *
@@ -114,7 +171,11 @@ public final class HttpServerHandler<Req, Resp> {
   public void handleSend(@Nullable Resp response, @Nullable Throwable error, Span span) {
     if (span.isNoop()) return;
     try {
-      parser.response(adapter, response, error, span);
+      if (!span.isRecordingData()) { // only parse whether the request failed
+        parser.error(response != null ? adapter.statusCode(response) : null, error, span);
+      } else {
+        parser.response(adapter, response, error, span);
+      }
     } finally {
       span.finish();
     }
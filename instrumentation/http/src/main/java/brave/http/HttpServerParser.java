@@ -2,21 +2,60 @@ package brave.http;
 
 import brave.SpanCustomizer;
 import javax.annotation.Nullable;
+import zipkin.TraceKeys;
 
 /**
  * Parses the request and response into reasonable defaults for http server spans. Subclass to
  * customize, for example, to add tags based on user ID.
  */
 public class HttpServerParser extends HttpParser {
+  /** Tag holding the {@link HttpServerAdapter#route(Object) route template} of the request */
+  static final String HTTP_ROUTE = "http.route";
 
   /**
    * Customizes the span based on the request received from the client.
    *
    * <p>{@inheritDoc}
+   *
+   * <p>When the {@link HttpServerAdapter#route(Object) route} is known, it is also tagged as
+   * "http.route".
    */
   @Override public <Req> void request(HttpAdapter<Req, ?> adapter, Req req,
       SpanCustomizer customizer) {
     super.request(adapter, req, customizer);
+    String route = route(adapter, req);
+    if (route != null) customizer.tag(HTTP_ROUTE, route);
+  }
+
+  /**
+   * Same as {@link #request(HttpAdapter, Object, SpanCustomizer)} on this type, except the
+   * attributes were already read from the request. The span is already named.
+   */
+  static void tagRequest(@Nullable String path, @Nullable String route, SpanCustomizer customizer) {
+    if (path != null) customizer.tag(TraceKeys.HTTP_PATH, path);
+    if (route != null) customizer.tag(HTTP_ROUTE, route);
+  }
+
+  /**
+   * Returns the span name of the request. Defaults to the http method, a space, then the {@link
+   * HttpServerAdapter#route(Object) route}, as they are. For example, "GET /users/{userId}". When
+   * the route isn't known, this is the http method alone, like {@link HttpParser}.
+   *
+   * <p>Zipkin lowercases span names when they are reported, ex. "get /users/{userid}".
+   */
+  @Override protected <Req> String spanName(HttpAdapter<Req, ?> adapter, Req req) {
+    return spanName(adapter.method(req), route(adapter, req));
+  }
+
+  static String spanName(@Nullable String method, @Nullable String route) {
+    return route != null ? method + " " + route : method;
+  }
+
+  @SuppressWarnings("unchecked") // the adapter of a server parser is a server adapter of Req
+  @Nullable static <Req> String route(HttpAdapter<Req, ?> adapter, Req req) {
+    if (!(adapter instanceof HttpServerAdapter)) return null;
+    String route = ((HttpServerAdapter<Req, ?>) adapter).route(req);
+    return route != null && !route.isEmpty() ? route : null;
   }
 
   /**
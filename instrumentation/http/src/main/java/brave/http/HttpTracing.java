@@ -2,6 +2,7 @@ package brave.http;
 
 import brave.Tracing;
 import com.google.auto.value.AutoValue;
+import com.google.auto.value.extension.memoized.Memoized;
 import zipkin.Endpoint;
 
 @AutoValue
@@ -55,6 +56,16 @@ public abstract class HttpTracing {
     return toBuilder().serverName(serverName).build();
   }
 
+  /**
+   * Remote endpoints of the {@link #serverName() server}, shared by all clients built with this
+   * instance, so that they parse the address of each host and port once.
+   *
+   * @see HttpClientAdapter#serverAddress(Object, EndpointCache)
+   */
+  @Memoized public EndpointCache serverEndpointCache() {
+    return EndpointCache.create(serverName());
+  }
+
   public abstract HttpServerParser serverParser();
 
   /**
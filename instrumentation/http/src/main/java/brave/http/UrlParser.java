@@ -0,0 +1,73 @@
+package brave.http;
+
+import java.net.URI;
+import javax.annotation.Nullable;
+
+/**
+ * Extracts parts of a url by scanning it once, as opposed to parsing it with {@link URI}. This
+ * avoids allocating anything except the result, which is the input itself when it is a plain path.
+ */
+final class UrlParser {
+
+  /**
+   * Returns the same as {@code URI.create(url).getPath()}, except this doesn't throw on malformed
+   * input. Ex. "/objects/abcd-ff" for "http://foo:8080/objects/abcd-ff?hello=world"
+   */
+  @Nullable static String path(String url) {
+    int length = url.length(), start = 0;
+
+    int schemeEnd = schemeEnd(url);
+    if (schemeEnd != -1) {
+      start = schemeEnd + 1;
+      // opaque uris like "mailto:a@b" have no path
+      if (start == length || url.charAt(start) != '/') return null;
+    }
+
+    // skip the authority, if present
+    if (url.startsWith("//", start)) {
+      start += 2;
+      while (start < length) {
+        char c = url.charAt(start);
+        if (c == '/' || c == '?' || c == '#') break;
+        start++;
+      }
+    }
+
+    int end = start;
+    boolean escaped = false;
+    for (; end < length; end++) {
+      char c = url.charAt(end);
+      if (c == '?' || c == '#') break;
+      if (c == '%') escaped = true;
+    }
+
+    // URI decodes percent-encoded characters, which is uncommon enough to delegate
+    if (escaped) {
+      try {
+        return URI.create(url).getPath();
+      } catch (IllegalArgumentException e) {
+        // fall through to return the raw path
+      }
+    }
+    return start == 0 && end == length ? url : url.substring(start, end);
+  }
+
+  /** Returns the index of the colon ending the scheme, or -1 if there is no scheme. */
+  static int schemeEnd(String url) {
+    int length = url.length();
+    if (length == 0 || !isAlpha(url.charAt(0))) return -1;
+    for (int i = 1; i < length; i++) {
+      char c = url.charAt(i);
+      if (c == ':') return i;
+      if (!isAlpha(c) && !(c >= '0' && c <= '9') && c != '+' && c != '-' && c != '.') return -1;
+    }
+    return -1;
+  }
+
+  static boolean isAlpha(char c) {
+    return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+  }
+
+  UrlParser() {
+  }
+}
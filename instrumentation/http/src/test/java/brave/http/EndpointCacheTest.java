@@ -0,0 +1,84 @@
+package brave.http;
+
+import java.net.InetAddress;
+import org.junit.Test;
+import zipkin.Endpoint;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class EndpointCacheTest {
+  EndpointCache cache = EndpointCache.create("backend", 2);
+
+  @Test public void get_ip() {
+    assertThat(cache.get("1.2.3.4", 8080))
+        .isEqualTo(Endpoint.builder().serviceName("backend").ipv4(1 << 24 | 2 << 16 | 3 << 8 | 4)
+            .port(8080).build());
+  }
+
+  @Test public void get_inetAddress() throws Exception {
+    assertThat(cache.get(InetAddress.getByName("1.2.3.4"), 8080))
+        .isEqualTo(cache.get("1.2.3.4", 8080));
+  }
+
+  @Test public void get_ipv6() {
+    assertThat(cache.get("2001:db8::c001", 8080).ipv6)
+        .isNotNull();
+  }
+
+  @Test public void get_cachesSameAddress() {
+    assertThat(cache.get("1.2.3.4", 8080))
+        .isSameAs(cache.get("1.2.3.4", 8080));
+  }
+
+  @Test public void get_cachesEachPort() {
+    Endpoint first = cache.get("1.2.3.4", 8080);
+
+    assertThat(cache.get("1.2.3.4", 9090))
+        .isNotSameAs(first)
+        .extracting(e -> e.port).containsExactly((short) 9090);
+    assertThat(cache.get("1.2.3.4", 8080))
+        .isSameAs(first);
+    assertThat(cache.entries).hasSize(1);
+  }
+
+  @Test public void get_boundsPortsPerAddress() {
+    for (int port = 1; port <= EndpointCache.MAX_PORTS_PER_ADDRESS + 1; port++) {
+      assertThat(cache.get("1.2.3.4", port))
+          .extracting(e -> e.port).containsExactly((short) port);
+    }
+
+    assertThat(cache.entries.get("1.2.3.4"))
+        .hasSize(EndpointCache.MAX_PORTS_PER_ADDRESS);
+  }
+
+  @Test public void get_notAnIp() {
+    assertThat(cache.get("localhost", 8080))
+        .isNull();
+    assertThat(cache.get("localhost", 9090))
+        .isNull();
+    assertThat(cache.entries.get("localhost"))
+        .isSameAs(EndpointCache.NOT_AN_IP);
+  }
+
+  @Test public void get_null() {
+    assertThat(cache.get((String) null, 8080))
+        .isNull();
+    assertThat(cache.get((InetAddress) null, 8080))
+        .isNull();
+  }
+
+  @Test public void get_boundedButStillReturnsEndpoints() {
+    cache.get("1.2.3.4", 8080);
+    cache.get("1.2.3.5", 8080);
+
+    assertThat(cache.get("1.2.3.6", 8080))
+        .isNotNull()
+        .isNotSameAs(cache.get("1.2.3.6", 8080));
+    assertThat(cache.entries).hasSize(2);
+  }
+
+  @Test public void serviceOnly() {
+    assertThat(cache.serviceOnly())
+        .isEqualTo(Endpoint.builder().serviceName("backend").build());
+  }
+}
@@ -39,6 +39,14 @@ public class HttpClientHandlerTest {
     when(adapter.method(request)).thenReturn("GET");
   }
 
+  @Test public void endpointCache_sharedPerHttpTracing() {
+    assertThat(HttpClientHandler.create(httpTracing, adapter).endpointCache)
+        .isSameAs(handler.endpointCache);
+    assertThat(HttpClientHandler.create(httpTracing.clientOf("remote"), adapter).endpointCache)
+        .isNotSameAs(handler.endpointCache)
+        .extracting(EndpointCache::serviceName).containsExactly("remote");
+  }
+
   @Test public void handleSend_defaultsToMakeNewTrace() {
     // request sampler abstains (trace ID sampler will say true)
     when(sampler.trySample(adapter, request)).thenReturn(null);
@@ -23,6 +23,13 @@ public class HttpServerAdapterTest {
     when(adapter.path(request)).thenCallRealMethod();
   }
 
+  @Test public void route_defaultsToNull() {
+    when(adapter.route(request)).thenCallRealMethod();
+
+    assertThat(adapter.route(request))
+        .isNull();
+  }
+
   @Test public void path_doesntCrashOnNullUrl() {
     assertThat(adapter.path(request))
         .isNull();
@@ -2,6 +2,7 @@ package brave.http;
 
 import brave.Tracer;
 import brave.Tracing;
+import brave.metrics.SpanObserver;
 import brave.propagation.SamplingFlags;
 import brave.propagation.TraceContext;
 import brave.propagation.TraceContextOrSamplingFlags;
@@ -10,10 +11,14 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
+import zipkin.Constants;
+import zipkin.Endpoint;
+import zipkin.TraceKeys;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.failBecauseExceptionWasNotThrown;
 import static org.mockito.Matchers.anyObject;
+import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
@@ -92,6 +97,84 @@ public class HttpServerHandlerTest {
         .isTrue();
   }
 
+  @Test public void handleReceive_onlyNamesUnsampledSpans() {
+    HttpTracing httpTracing = HttpTracing.newBuilder(Tracing.newBuilder()
+        .spanObserver(new SpanObserver() {
+          @Override public void onFinish(String name, brave.Span.Kind kind, long startTimestamp,
+              long finishTimestamp, boolean error) {
+          }
+        }).build()).serverSampler(HttpSampler.NEVER_SAMPLE).build();
+    handler = HttpServerHandler.create(httpTracing, adapter);
+    when(extractor.extract(request))
+        .thenReturn(TraceContextOrSamplingFlags.create(SamplingFlags.EMPTY));
+
+    assertThat(handler.handleReceive(extractor, request).isNoop())
+        .isFalse();
+
+    verify(adapter, never()).path(request);
+    verify(adapter, never()).parseClientAddress(eq(request), anyObject());
+  }
+
+  @Test public void handleReceive_readsMethodAndPathOnceWithRuleSampler() {
+    HttpTracing httpTracing = HttpTracing.newBuilder(Tracing.newBuilder().build())
+        .serverSampler(HttpRuleSampler.newBuilder().addRule(null, "/foo", 1.0f).build()).build();
+    handler = HttpServerHandler.create(httpTracing, adapter);
+    when(extractor.extract(request))
+        .thenReturn(TraceContextOrSamplingFlags.create(SamplingFlags.EMPTY));
+    when(adapter.path(request)).thenReturn("/foo");
+
+    assertThat(handler.handleReceive(extractor, request).isNoop())
+        .isFalse();
+
+    verify(adapter).method(request);
+    verify(adapter).path(request);
+  }
+
+  @Test public void parseClientAddress_xForwardedForWithoutOverride() {
+    HttpServerAdapter<Object, Object> adapter = new HttpServerAdapter<Object, Object>() {
+      @Override public String method(Object request) {
+        return "GET";
+      }
+
+      @Override public String url(Object request) {
+        return null;
+      }
+
+      @Override public String requestHeader(Object request, String name) {
+        return name.equals("X-Forwarded-For") ? "1.2.3.4" : null;
+      }
+
+      @Override public Integer statusCode(Object response) {
+        return null;
+      }
+    };
+    HttpServerHandler<Object, Object> handler = HttpServerHandler.create(
+        HttpTracing.create(Tracing.newBuilder().build()), adapter);
+    assertThat(handler.parsesClientAddress).isFalse();
+
+    handler.parseClientAddress(request, span);
+
+    Endpoint.Builder expected = Endpoint.builder().serviceName("");
+    expected.parseIp("1.2.3.4");
+    verify(span).remoteEndpoint(expected.build());
+  }
+
+  @Test public void parsesClientAddress_whenOverridden() {
+    assertThat(handler.parsesClientAddress).isTrue();
+  }
+
+  @Test public void handleSend_onlyParsesErrorOfUnsampledSpans() {
+    when(span.context()).thenReturn(
+        TraceContext.newBuilder().traceId(1L).spanId(1L).sampled(false).build());
+    when(adapter.statusCode(response)).thenReturn(500);
+
+    handler.handleSend(response, null, span);
+
+    verify(span).tag(Constants.ERROR, "500");
+    verify(span, never()).tag(eq(TraceKeys.HTTP_STATUS_CODE), anyString());
+    verify(span).finish();
+  }
+
   @Test public void handleSend_nothingOnNoop_success() {
     when(span.isNoop()).thenReturn(true);
 
@@ -0,0 +1,63 @@
+package brave.http;
+
+import brave.SpanCustomizer;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class HttpServerParserTest {
+  @Mock HttpServerAdapter<Object, Object> adapter;
+  @Mock SpanCustomizer customizer;
+  Object request = new Object();
+  HttpServerParser parser = new HttpServerParser();
+
+  @Test public void spanName_isMethod_whenNoRoute() {
+    when(adapter.method(request)).thenReturn("GET");
+
+    assertThat(parser.spanName(adapter, request))
+        .isEqualTo("GET");
+  }
+
+  @Test public void spanName_ignoresEmptyRoute() {
+    when(adapter.method(request)).thenReturn("GET");
+    when(adapter.route(request)).thenReturn("");
+
+    assertThat(parser.spanName(adapter, request))
+        .isEqualTo("GET");
+  }
+
+  @Test public void spanName_includesRoute() {
+    when(adapter.method(request)).thenReturn("GET");
+    when(adapter.route(request)).thenReturn("/users/{userId}");
+
+    assertThat(parser.spanName(adapter, request))
+        .isEqualTo("GET /users/{userId}");
+  }
+
+  @Test public void request_tagsRoute() {
+    when(adapter.method(request)).thenReturn("GET");
+    when(adapter.route(request)).thenReturn("/users/{userId}");
+
+    parser.request(adapter, request, customizer);
+
+    verify(customizer).name("GET /users/{userId}");
+    verify(customizer).tag(HttpServerParser.HTTP_ROUTE, "/users/{userId}");
+  }
+
+  @Test public void request_doesntTagNullRoute() {
+    when(adapter.method(request)).thenReturn("GET");
+
+    parser.request(adapter, request, customizer);
+
+    verify(customizer, never()).tag(eq(HttpServerParser.HTTP_ROUTE), anyString());
+  }
+}
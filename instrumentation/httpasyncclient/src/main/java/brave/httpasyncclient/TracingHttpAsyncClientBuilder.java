@@ -2,6 +2,7 @@ package brave.httpasyncclient;
 
 import brave.Span;
 import brave.Tracing;
+import brave.http.EndpointCache;
 import brave.http.HttpClientHandler;
 import brave.http.HttpTracing;
 import brave.propagation.CurrentTraceContext;
@@ -23,7 +24,6 @@ import org.apache.http.concurrent.FutureCallback;
 import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
 import org.apache.http.impl.nio.client.HttpAsyncClientBuilder;
 import org.apache.http.nio.ContentDecoder;
-import org.apache.http.nio.ContentEncoder;
 import org.apache.http.nio.IOControl;
 import org.apache.http.nio.protocol.HttpAsyncRequestProducer;
 import org.apache.http.nio.protocol.HttpAsyncResponseConsumer;
@@ -57,31 +57,59 @@ public final class TracingHttpAsyncClientBuilder extends HttpAsyncClientBuilder
 
   @Override public CloseableHttpAsyncClient build() {
     super.addInterceptorFirst((HttpRequestInterceptor) (request, context) -> {
+      TracingState state = (TracingState) context.getAttribute(TracingState.KEY);
+      if (state == null) return; // not executed by TracingHttpAsyncClient
       HttpHost host = HttpClientContext.adapt(context).getTargetHost();
 
-      TraceContext parent = (TraceContext) context.getAttribute(TraceContext.class.getName());
       Span span;
-      try (Scope scope = currentTraceContext.newScope(parent)) {
+      try (Scope scope = currentTraceContext.newScope(state.parent)) {
         span = handler.handleSend(injector, request, HttpRequestWrapper.wrap(request, host));
       }
-
-      context.setAttribute(Span.class.getName(), span);
-      context.setAttribute(Scope.class.getName(), currentTraceContext.newScope(span.context()));
+      state.span = span;
+      state.scope = currentTraceContext.newScope(span.context());
     });
     super.addInterceptorLast((HttpRequestInterceptor) (request, context) -> {
-      Scope scope = (Scope) context.getAttribute(Scope.class.getName());
-      if (scope != null) {
-        context.removeAttribute(Scope.class.getName());
-        scope.close();
-      }
+      TracingState state = (TracingState) context.getAttribute(TracingState.KEY);
+      if (state != null) state.closeScope();
     });
     super.addInterceptorLast((HttpResponseInterceptor) (response, context) -> {
-      Span span = (Span) context.getAttribute(Span.class.getName());
-      handler.handleReceive(response, null, span);
+      TracingState state = (TracingState) context.getAttribute(TracingState.KEY);
+      if (state != null) state.finish(response, null);
     });
     return new TracingHttpAsyncClient(super.build());
   }
 
+  /**
+   * Holds the tracing state of one exchange, so that it costs one context attribute. Request
+   * interceptors run on the same thread, and the reactor hands the exchange between threads, which
+   * publishes these fields.
+   */
+  final class TracingState {
+    static final String KEY = "brave.httpasyncclient.TracingState";
+
+    final TraceContext parent; // nullable: the span in scope when the request was executed
+    Span span; // set when the request is sent, and cleared once handled
+    Scope scope; // only open while request interceptors run
+
+    TracingState(TraceContext parent) {
+      this.parent = parent;
+    }
+
+    void closeScope() {
+      Scope scope = this.scope;
+      if (scope == null) return;
+      this.scope = null;
+      scope.close();
+    }
+
+    void finish(HttpResponse response, Exception error) {
+      Span span = this.span;
+      if (span == null) return;
+      this.span = null;
+      handler.handleReceive(response, error, span);
+    }
+  }
+
   static final class HttpAdapter extends brave.http.HttpClientAdapter<HttpRequest, HttpResponse> {
 
     @Override public boolean parseServerAddress(HttpRequest httpRequest, Endpoint.Builder builder) {
@@ -95,6 +123,14 @@ public final class TracingHttpAsyncClientBuilder extends HttpAsyncClientBuilder
       return false;
     }
 
+    @Override public Endpoint serverAddress(HttpRequest httpRequest, EndpointCache endpointCache) {
+      if (!(httpRequest instanceof HttpRequestWrapper)) return null;
+      HttpHost target = ((HttpRequestWrapper) httpRequest).getTarget();
+      if (target == null) return null;
+      Endpoint endpoint = endpointCache.get(target.getAddress(), target.getPort());
+      return endpoint != null ? endpoint : endpointCache.get(target.getHostName(), target.getPort());
+    }
+
     @Override public String method(HttpRequest request) {
       return request.getRequestLine().getMethod();
     }
@@ -134,10 +170,11 @@ public final class TracingHttpAsyncClientBuilder extends HttpAsyncClientBuilder
     @Override public <T> Future<T> execute(HttpAsyncRequestProducer requestProducer,
         HttpAsyncResponseConsumer<T> responseConsumer, HttpContext context,
         FutureCallback<T> callback) {
-      context.setAttribute(TraceContext.class.getName(), currentTraceContext.get());
+      TracingState state = new TracingState(currentTraceContext.get());
+      context.setAttribute(TracingState.KEY, state);
       return delegate.execute(
-          new TracingAsyncRequestProducer(requestProducer, context),
-          new TracingAsyncResponseConsumer<>(responseConsumer, context),
+          requestProducer,
+          new TracingAsyncResponseConsumer<>(responseConsumer, state),
           context,
           callback
       );
@@ -156,61 +193,14 @@ public final class TracingHttpAsyncClientBuilder extends HttpAsyncClientBuilder
     }
   }
 
-  final class TracingAsyncRequestProducer implements HttpAsyncRequestProducer {
-    final HttpAsyncRequestProducer requestProducer;
-    final HttpContext context;
-
-    TracingAsyncRequestProducer(HttpAsyncRequestProducer requestProducer, HttpContext context) {
-      this.requestProducer = requestProducer;
-      this.context = context;
-    }
-
-    @Override public void close() throws IOException {
-      requestProducer.close();
-    }
-
-    @Override public HttpHost getTarget() {
-      return requestProducer.getTarget();
-    }
-
-    @Override public HttpRequest generateRequest() throws IOException, HttpException {
-      return requestProducer.generateRequest();
-    }
-
-    @Override public void produceContent(ContentEncoder encoder, IOControl io) throws IOException {
-      requestProducer.produceContent(encoder, io);
-    }
-
-    @Override public void requestCompleted(HttpContext context) {
-      requestProducer.requestCompleted(context);
-    }
-
-    @Override public void failed(Exception ex) {
-      Span currentSpan = (Span) context.getAttribute(Span.class.getName());
-      if (currentSpan != null) {
-        context.removeAttribute(Span.class.getName());
-        handler.handleReceive(null, ex, currentSpan);
-      }
-      requestProducer.failed(ex);
-    }
-
-    @Override public boolean isRepeatable() {
-      return requestProducer.isRepeatable();
-    }
-
-    @Override public void resetRequest() throws IOException {
-      requestProducer.resetRequest();
-    }
-  }
-
-  final class TracingAsyncResponseConsumer<T> implements HttpAsyncResponseConsumer<T> {
+  static final class TracingAsyncResponseConsumer<T> implements HttpAsyncResponseConsumer<T> {
     final HttpAsyncResponseConsumer<T> responseConsumer;
-    final HttpContext context;
+    final TracingState state;
 
     TracingAsyncResponseConsumer(HttpAsyncResponseConsumer<T> responseConsumer,
-        HttpContext context) {
+        TracingState state) {
       this.responseConsumer = responseConsumer;
-      this.context = context;
+      this.state = state;
     }
 
     @Override public void responseReceived(HttpResponse response)
@@ -227,12 +217,13 @@ public final class TracingHttpAsyncClientBuilder extends HttpAsyncClientBuilder
       responseConsumer.responseCompleted(context);
     }
 
+    /**
+     * The client fails the consumer on any error, including ones raised by request interceptors.
+     * In the latter case, the scope is still open on this thread, so it is closed first.
+     */
     @Override public void failed(Exception ex) {
-      Span currentSpan = (Span) context.getAttribute(Span.class.getName());
-      if (currentSpan != null) {
-        context.removeAttribute(Span.class.getName());
-        handler.handleReceive(null, ex, currentSpan);
-      }
+      state.closeScope();
+      state.finish(null, ex);
       responseConsumer.failed(ex);
     }
 
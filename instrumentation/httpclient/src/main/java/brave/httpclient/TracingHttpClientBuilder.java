@@ -4,39 +4,186 @@ import brave.Span;
 import brave.Tracer;
 import brave.Tracer.SpanInScope;
 import brave.Tracing;
+import brave.http.EndpointCache;
 import brave.http.HttpClientHandler;
 import brave.http.HttpTracing;
+import brave.propagation.CurrentTraceContext;
 import brave.propagation.TraceContext;
 import java.io.IOException;
+import org.apache.http.ConnectionReuseStrategy;
 import org.apache.http.Header;
+import org.apache.http.HttpClientConnection;
+import org.apache.http.HttpConnectionMetrics;
+import org.apache.http.HttpEntityEnclosingRequest;
 import org.apache.http.HttpException;
 import org.apache.http.HttpHost;
+import org.apache.http.HttpRequest;
 import org.apache.http.HttpResponse;
+import org.apache.http.client.AuthenticationStrategy;
+import org.apache.http.client.UserTokenHandler;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpRequestWrapper;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.conn.HttpClientConnectionManager;
 import org.apache.http.impl.client.HttpClientBuilder;
 import org.apache.http.impl.execchain.ClientExecChain;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.protocol.HttpProcessor;
+import org.apache.http.protocol.HttpRequestExecutor;
+import zipkin.Constants;
 import zipkin.Endpoint;
 
 public final class TracingHttpClientBuilder extends HttpClientBuilder {
+  static final String CONNECTED = "http.connected";
 
   public static HttpClientBuilder create(Tracing tracing) {
-    return new TracingHttpClientBuilder(HttpTracing.create(tracing));
+    return new TracingHttpClientBuilder(HttpTracing.create(tracing), false);
   }
 
   public static HttpClientBuilder create(HttpTracing httpTracing) {
-    return new TracingHttpClientBuilder(httpTracing);
+    return new TracingHttpClientBuilder(httpTracing, false);
+  }
+
+  /**
+   * Like {@link #create(HttpTracing)}, except sampled spans are annotated with the phases of the
+   * exchange, so you can tell whether time was spent getting a connection or waiting on the server.
+   *
+   * <p>Annotations are "http.connected" when a connection was leased from the pool or established,
+   * "ws" when the request was written and "wr" when response headers were read. HttpClient doesn't
+   * expose DNS, connect or TLS callbacks through the builder, so those phases are all included in
+   * "http.connected".
+   *
+   * <p>Any {@link #setRequestExecutor(HttpRequestExecutor) request executor} set on the builder is
+   * wrapped, not replaced.
+   */
+  public static HttpClientBuilder create(HttpTracing httpTracing, boolean connectionTimings) {
+    return new TracingHttpClientBuilder(httpTracing, connectionTimings);
   }
 
   final Tracer tracer;
+  final CurrentTraceContext currentTraceContext;
   final TraceContext.Injector<HttpRequestWrapper> injector;
   final HttpClientHandler<HttpRequestWrapper, HttpResponse> handler;
+  final boolean connectionTimings;
 
-  TracingHttpClientBuilder(HttpTracing httpTracing) { // intentionally hidden
+  // intentionally hidden
+  TracingHttpClientBuilder(HttpTracing httpTracing, boolean connectionTimings) {
     if (httpTracing == null) throw new NullPointerException("HttpTracing == null");
     this.tracer = httpTracing.tracing().tracer();
+    this.currentTraceContext = httpTracing.tracing().currentTraceContext();
     this.handler = HttpClientHandler.create(httpTracing, new HttpAdapter());
     this.injector = httpTracing.tracing().propagation().injector(HttpRequestWrapper::setHeader);
+    this.connectionTimings = connectionTimings;
+  }
+
+  /** Wraps the configured request executor, which defaults to {@link HttpRequestExecutor}. */
+  @Override protected ClientExecChain createMainExec(HttpRequestExecutor requestExec,
+      HttpClientConnectionManager connManager, ConnectionReuseStrategy reuseStrategy,
+      ConnectionKeepAliveStrategy keepAliveStrategy, HttpProcessor proxyHttpProcessor,
+      AuthenticationStrategy targetAuthStrategy, AuthenticationStrategy proxyAuthStrategy,
+      UserTokenHandler userTokenHandler) {
+    if (connectionTimings) requestExec = new TimingRequestExecutor(requestExec);
+    return super.createMainExec(requestExec, connManager, reuseStrategy, keepAliveStrategy,
+        proxyHttpProcessor, targetAuthStrategy, proxyAuthStrategy, userTokenHandler);
+  }
+
+  /** Connections are made by the main exec, after the span is placed in scope. */
+  void annotate(String value) {
+    TraceContext context = currentTraceContext.get();
+    if (context == null) return;
+    Span span = tracer.toSpan(context);
+    if (span.isRecordingData()) span.annotate(value);
+  }
+
+  final class TimingRequestExecutor extends HttpRequestExecutor {
+    final HttpRequestExecutor delegate;
+
+    TimingRequestExecutor(HttpRequestExecutor delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override public HttpResponse execute(HttpRequest request, HttpClientConnection conn,
+        HttpContext context) throws IOException, HttpException {
+      annotate(CONNECTED);
+      return delegate.execute(request, new TimingConnection(conn), context);
+    }
+  }
+
+  /**
+   * Annotates the exchange through the connection, as the delegate's send and receive methods are
+   * protected. The request is written on its first flush, which is after the entity unless the
+   * request expects 100-continue.
+   */
+  final class TimingConnection implements HttpClientConnection {
+    final HttpClientConnection delegate;
+    boolean written, read;
+
+    TimingConnection(HttpClientConnection delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override public void flush() throws IOException {
+      delegate.flush();
+      if (written) return;
+      written = true;
+      annotate(Constants.WIRE_SEND);
+    }
+
+    @Override public HttpResponse receiveResponseHeader() throws HttpException, IOException {
+      HttpResponse result = delegate.receiveResponseHeader();
+      if (!read && result.getStatusLine().getStatusCode() >= 200) {
+        read = true;
+        annotate(Constants.WIRE_RECV);
+      }
+      return result;
+    }
+
+    @Override public boolean isResponseAvailable(int timeout) throws IOException {
+      return delegate.isResponseAvailable(timeout);
+    }
+
+    @Override public void sendRequestHeader(HttpRequest request)
+        throws HttpException, IOException {
+      delegate.sendRequestHeader(request);
+    }
+
+    @Override public void sendRequestEntity(HttpEntityEnclosingRequest request)
+        throws HttpException, IOException {
+      delegate.sendRequestEntity(request);
+    }
+
+    @Override public void receiveResponseEntity(HttpResponse response)
+        throws HttpException, IOException {
+      delegate.receiveResponseEntity(response);
+    }
+
+    @Override public void close() throws IOException {
+      delegate.close();
+    }
+
+    @Override public boolean isOpen() {
+      return delegate.isOpen();
+    }
+
+    @Override public boolean isStale() {
+      return delegate.isStale();
+    }
+
+    @Override public void setSocketTimeout(int timeout) {
+      delegate.setSocketTimeout(timeout);
+    }
+
+    @Override public int getSocketTimeout() {
+      return delegate.getSocketTimeout();
+    }
+
+    @Override public void shutdown() throws IOException {
+      delegate.shutdown();
+    }
+
+    @Override public HttpConnectionMetrics getMetrics() {
+      return delegate.getMetrics();
+    }
   }
 
   /**
@@ -84,6 +231,14 @@ public final class TracingHttpClientBuilder extends HttpClientBuilder {
       return false;
     }
 
+    @Override
+    public Endpoint serverAddress(HttpRequestWrapper httpRequest, EndpointCache endpointCache) {
+      HttpHost target = httpRequest.getTarget();
+      if (target == null) return null;
+      Endpoint endpoint = endpointCache.get(target.getAddress(), target.getPort());
+      return endpoint != null ? endpoint : endpointCache.get(target.getHostName(), target.getPort());
+    }
+
     @Override public String method(HttpRequestWrapper request) {
       return request.getRequestLine().getMethod();
     }
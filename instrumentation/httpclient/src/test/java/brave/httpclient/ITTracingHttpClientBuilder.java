@@ -3,13 +3,20 @@ package brave.httpclient;
 import brave.http.ITHttpClient;
 import java.io.IOException;
 import java.net.URI;
+import java.util.concurrent.atomic.AtomicInteger;
 import okhttp3.mockwebserver.MockResponse;
 import okhttp3.mockwebserver.RecordedRequest;
+import org.apache.http.HttpClientConnection;
+import org.apache.http.HttpException;
+import org.apache.http.HttpRequest;
 import org.apache.http.HttpRequestInterceptor;
+import org.apache.http.HttpResponse;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpPost;
 import org.apache.http.entity.StringEntity;
 import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.protocol.HttpRequestExecutor;
 import org.junit.AssumptionViolatedException;
 import org.junit.Test;
 
@@ -56,4 +63,42 @@ public class ITTracingHttpClientBuilder extends ITHttpClient<CloseableHttpClient
     assertThat(request.getHeader("x-b3-traceId"))
         .isEqualTo(request.getHeader("my-id"));
   }
+
+  @Test public void connectionTimings() throws Exception {
+    server.enqueue(new MockResponse());
+    closeClient(client);
+
+    client = TracingHttpClientBuilder.create(httpTracing, true).disableAutomaticRetries().build();
+
+    get(client, "/foo");
+
+    assertThat(spans)
+        .flatExtracting(s -> s.annotations)
+        .extracting(a -> a.value)
+        .containsSubsequence("cs", "http.connected", "ws", "wr", "cr");
+  }
+
+  @Test public void connectionTimings_wrapsRequestExecutor() throws Exception {
+    server.enqueue(new MockResponse());
+    closeClient(client);
+
+    AtomicInteger executions = new AtomicInteger();
+    client = TracingHttpClientBuilder.create(httpTracing, true)
+        .setRequestExecutor(new HttpRequestExecutor() {
+          @Override public HttpResponse execute(HttpRequest request, HttpClientConnection conn,
+              HttpContext context) throws IOException, HttpException {
+            executions.incrementAndGet();
+            return super.execute(request, conn, context);
+          }
+        })
+        .disableAutomaticRetries().build();
+
+    get(client, "/foo");
+
+    assertThat(executions.get()).isEqualTo(1);
+    assertThat(spans)
+        .flatExtracting(s -> s.annotations)
+        .extracting(a -> a.value)
+        .containsSubsequence("cs", "http.connected", "ws", "wr", "cr");
+  }
 }
@@ -1,5 +1,6 @@
 package brave.httpclient;
 
+import brave.http.EndpointCache;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
 import org.apache.http.HttpHost;
@@ -19,44 +20,57 @@ public class TracingHttpClientBuilder_HttpAdapterTest {
   TracingHttpClientBuilder.HttpAdapter adapter = new TracingHttpClientBuilder.HttpAdapter();
   @Mock HttpRequestWrapper request;
 
-  @Test public void parseServerAddress_skipsOnNoop() {
-    assertThat(adapter.parseServerAddress(request, Endpoint.builder()))
-        .isFalse();
+  @Test public void serverAddress_skipsOnNoop() {
+    assertThat(adapter.serverAddress(request, EndpointCache.create("")))
+        .isNull();
   }
 
-  @Test public void parseServerAddress_prefersAddress() throws UnknownHostException {
+  @Test public void serverAddress_prefersAddress() throws UnknownHostException {
     when(request.getTarget()).thenReturn(new HttpHost(InetAddress.getByName("127.0.0.1")));
 
     assertParsedEndpoint()
         .isEqualTo(Endpoint.builder().serviceName("").ipv4(127 << 24 | 1).build());
   }
 
-  @Test public void parseServerAddress_acceptsHostname() {
+  @Test public void serverAddress_acceptsHostname() {
     when(request.getTarget()).thenReturn(new HttpHost("127.0.0.1"));
 
     assertParsedEndpoint()
         .isEqualTo(Endpoint.builder().serviceName("").ipv4(127 << 24 | 1).build());
   }
 
-  @Test public void parseServerAddress_ipAndPortFromHost() {
+  @Test public void serverAddress_ipAndPortFromHost() {
     when(request.getTarget()).thenReturn(new HttpHost("127.0.0.1", 9999));
 
     assertParsedEndpoint()
         .isEqualTo(Endpoint.builder().serviceName("").ipv4(127 << 24 | 1).port(9999).build());
   }
 
-  @Test public void parseServerAddress_doesntNsLookup() {
+  @Test public void serverAddress_doesntNsLookup() {
     when(request.getTarget()).thenReturn(new HttpHost("localhost"));
 
-    assertThat(adapter.parseServerAddress(request, Endpoint.builder()))
-        .isFalse();
+    assertThat(adapter.serverAddress(request, EndpointCache.create("")))
+        .isNull();
   }
 
-  AbstractObjectAssert<?, Endpoint> assertParsedEndpoint() {
+  @Test public void parseServerAddress_ipAndPortFromHost() {
+    when(request.getTarget()).thenReturn(new HttpHost("127.0.0.1", 9999));
+
     Endpoint.Builder remoteAddress = Endpoint.builder();
     assertThat(adapter.parseServerAddress(request, remoteAddress))
         .isTrue();
+    assertThat(remoteAddress.serviceName("").build())
+        .isEqualTo(Endpoint.builder().serviceName("").ipv4(127 << 24 | 1).port(9999).build());
+  }
+
+  @Test public void parseServerAddress_doesntNsLookup() {
+    when(request.getTarget()).thenReturn(new HttpHost("localhost"));
 
-    return assertThat(remoteAddress.serviceName("").build());
+    assertThat(adapter.parseServerAddress(request, Endpoint.builder()))
+        .isFalse();
+  }
+
+  AbstractObjectAssert<?, Endpoint> assertParsedEndpoint() {
+    return assertThat(adapter.serverAddress(request, EndpointCache.create("")));
   }
 }
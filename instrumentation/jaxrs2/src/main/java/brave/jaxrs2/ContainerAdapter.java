@@ -2,7 +2,10 @@ package brave.jaxrs2;
 
 import brave.http.HttpServerAdapter;
 import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import javax.annotation.Nullable;
+import javax.ws.rs.Path;
 import javax.ws.rs.container.ContainerRequestContext;
 import javax.ws.rs.container.ContainerResponseContext;
 import javax.ws.rs.container.ResourceInfo;
@@ -10,18 +13,23 @@ import javax.ws.rs.container.ResourceInfo;
 /**
  * This can also parse the resource info of the method.
  *
- * <p>For example, the below adds the java method name as the span name:
+ * <p>For example, the below uses the java method name in place of the route, ex. "GET getUser":
  * <pre>{@code
  * TracingFeature.create(httpTracing.toBuilder().serverParser(new HttpServerParser() {
- *   @Override public <Req> String spanName(HttpAdapter<Req, ?> adapter, Req req) {
+ *   @Override protected <Req> String spanName(HttpAdapter<Req, ?> adapter, Req req) {
  *     Method method = ((ContainerAdapter) adapter).resourceMethod(req);
- *     return method.getName().toLowerCase();
+ *     if (method == null) return super.spanName(adapter, req);
+ *     return adapter.method(req) + " " + method.getName();
  *   }
  * }).build());
  * }</pre>
  */
 public final class ContainerAdapter
     extends HttpServerAdapter<ContainerRequestContext, ContainerResponseContext> {
+  static final int MAX_CACHED_ROUTES = 1000;
+
+  final ConcurrentMap<Method, String> routes = new ConcurrentHashMap<>();
+
   @Override public String method(ContainerRequestContext request) {
     return request.getMethod();
   }
@@ -30,6 +38,43 @@ public final class ContainerAdapter
     return request.getUriInfo().getRequestUri().getPath();
   }
 
+  /**
+   * Returns the {@link Path} of the resource class joined with that of the resource method, such as
+   * "/users/{userId}". This is cached per resource method, so reflection only happens once.
+   *
+   * <p>Note: the application path isn't included, nor are paths of sub-resource locators.
+   */
+  @Override @Nullable public String route(ContainerRequestContext request) {
+    ResourceInfo resourceInfo = resourceInfo(request);
+    if (resourceInfo == null) return null;
+    Method method = resourceInfo.getResourceMethod();
+    if (method == null) return null;
+    String result = routes.get(method);
+    if (result != null) return result;
+    result = route(resourceInfo.getResourceClass(), method);
+    // Resource methods are fixed at deployment, but don't trust that blindly
+    if (routes.size() < MAX_CACHED_ROUTES) routes.put(method, result);
+    return result;
+  }
+
+  static String route(@Nullable Class<?> resourceClass, Method method) {
+    StringBuilder result = new StringBuilder();
+    Path classPath = resourceClass != null ? resourceClass.getAnnotation(Path.class) : null;
+    if (classPath != null) appendPath(result, classPath.value());
+    Path methodPath = method.getAnnotation(Path.class);
+    if (methodPath != null) appendPath(result, methodPath.value());
+    return result.length() == 0 ? "/" : result.toString();
+  }
+
+  /** Appends the path with a leading slash and no trailing slash */
+  static void appendPath(StringBuilder result, String path) {
+    int start = 0, end = path.length();
+    while (start < end && path.charAt(start) == '/') start++;
+    while (end > start && path.charAt(end - 1) == '/') end--;
+    if (start == end) return;
+    result.append('/').append(path, start, end);
+  }
+
   @Override public String url(ContainerRequestContext request) {
     return request.getUriInfo().getRequestUri().toString();
   }
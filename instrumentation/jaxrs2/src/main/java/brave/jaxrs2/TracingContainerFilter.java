@@ -7,6 +7,10 @@ import brave.http.HttpServerHandler;
 import brave.http.HttpTracing;
 import brave.propagation.TraceContext;
 import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import javax.annotation.Nullable;
 import javax.annotation.Priority;
 import javax.inject.Inject;
 import javax.ws.rs.ConstrainedTo;
@@ -28,7 +32,11 @@ import static javax.ws.rs.RuntimeType.SERVER;
 @ConstrainedTo(SERVER)
 final class TracingContainerFilter implements ContainerRequestFilter, ContainerResponseFilter {
 
+  static final int MAX_CACHED_METHODS = 1000;
+
   final Tracer tracer;
+  // Keyed on equals as ResourceInfo may return a copy of the method per request
+  final ConcurrentMap<Method, Boolean> asyncMethods = new ConcurrentHashMap<>();
   final HttpServerHandler<ContainerRequestContext, ContainerResponseContext> handler;
   final TraceContext.Extractor<ContainerRequestContext> extractor;
 
@@ -76,16 +84,26 @@ final class TracingContainerFilter implements ContainerRequestFilter, ContainerR
    * We shouldn't put a span in scope unless we know for sure the request is not async. That's
    * because we cannot detach if from the calling thread when async is used.
    */
-  // TODO: add benchmark and cache if slow
-  static boolean shouldPutSpanInScope(ResourceInfo resourceInfo) {
+  boolean shouldPutSpanInScope(@Nullable ResourceInfo resourceInfo) {
     if (resourceInfo == null) return false;
-    for (Annotation[] annotations : resourceInfo.getResourceMethod().getParameterAnnotations()) {
+    Method method = resourceInfo.getResourceMethod();
+    if (method == null) return false;
+    Boolean result = asyncMethods.get(method);
+    if (result != null) return !result;
+    boolean async = isAsync(method);
+    // Resource methods are fixed at deployment, but don't trust that blindly
+    if (asyncMethods.size() < MAX_CACHED_METHODS) asyncMethods.put(method, async);
+    return !async;
+  }
+
+  static boolean isAsync(Method method) {
+    for (Annotation[] annotations : method.getParameterAnnotations()) {
       for (Annotation annotation : annotations) {
         if (annotation.annotationType().equals(Suspended.class)) {
-          return false;
+          return true;
         }
       }
     }
-    return true;
+    return false;
   }
 }
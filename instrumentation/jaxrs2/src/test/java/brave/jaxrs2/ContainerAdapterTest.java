@@ -1,6 +1,8 @@
 package brave.jaxrs2;
 
 import java.lang.reflect.Method;
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
 import javax.ws.rs.container.ContainerRequestContext;
 import javax.ws.rs.container.ResourceInfo;
 import org.junit.Test;
@@ -55,4 +57,57 @@ public class ContainerAdapterTest {
     assertThat(adapter.resourceMethod(request))
         .isEqualTo(method);
   }
+
+  @Path("/users/")
+  static class Resource {
+    @GET @Path("{userId}") public String user() {
+      return "";
+    }
+
+    @GET public String users() {
+      return "";
+    }
+  }
+
+  @Test public void route_nullWithoutResourceInfo() {
+    assertThat(adapter.route(request))
+        .isNull();
+  }
+
+  @Test public void route_joinsClassAndMethodPaths() throws Exception {
+    when(request.getProperty("javax.ws.rs.container.ResourceInfo")).thenReturn(info);
+    when(info.getResourceClass()).thenReturn((Class) Resource.class);
+    when(info.getResourceMethod()).thenReturn(Resource.class.getMethod("user"));
+
+    assertThat(adapter.route(request))
+        .isEqualTo("/users/{userId}");
+  }
+
+  @Test public void route_classPathOnly() throws Exception {
+    when(request.getProperty("javax.ws.rs.container.ResourceInfo")).thenReturn(info);
+    when(info.getResourceClass()).thenReturn((Class) Resource.class);
+    when(info.getResourceMethod()).thenReturn(Resource.class.getMethod("users"));
+
+    assertThat(adapter.route(request))
+        .isEqualTo("/users");
+  }
+
+  @Test public void route_cachedPerMethod() throws Exception {
+    Method method = Resource.class.getMethod("user");
+    when(request.getProperty("javax.ws.rs.container.ResourceInfo")).thenReturn(info);
+    when(info.getResourceClass()).thenReturn((Class) Resource.class);
+    when(info.getResourceMethod()).thenReturn(method);
+
+    String route = adapter.route(request);
+
+    assertThat(adapter.route(request))
+        .isSameAs(route);
+    assertThat(adapter.routes)
+        .containsOnlyKeys(method);
+  }
+
+  @Test public void route_noPaths() throws Exception {
+    assertThat(ContainerAdapter.route(null, String.class.getMethod("toString")))
+        .isEqualTo("/");
+  }
 }
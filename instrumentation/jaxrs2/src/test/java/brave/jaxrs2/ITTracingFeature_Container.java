@@ -40,6 +40,12 @@ public class ITTracingFeature_Container extends ITServletContainer {
       return Response.status(200).build();
     }
 
+    @GET
+    @Path("items/{itemId}")
+    public Response item() {
+      return Response.status(200).build();
+    }
+
     @GET
     @Path("badrequest")
     public Response badrequest() {
@@ -72,6 +78,20 @@ public class ITTracingFeature_Container extends ITServletContainer {
     }
   }
 
+  @Override protected boolean supportsRoute() {
+    return true;
+  }
+
+  @Test
+  public void spanNameIncludesRoute() throws Exception {
+    get("/items/1");
+
+    assertThat(spans)
+        .extracting(s -> s.name)
+        .containsExactly("get /items/{itemid}");
+    assertReportedTagsInclude("http.route", "/items/{itemId}");
+  }
+
   @Test
   public void declarative_namingPolicy() throws Exception {
     httpTracing = httpTracing.toBuilder().serverParser(new HttpServerParser() {
@@ -19,6 +19,7 @@ import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
 import static org.mockito.Mockito.when;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -75,4 +76,15 @@ public class TracingContainerFilterTest {
     assertThat(tracing.currentTraceContext().get())
         .isNull();
   }
+
+  @Test public void cachesAsyncDetectionPerMethod() throws NoSuchMethodException {
+    filter.resourceInfo = resourceInfo;
+    when(resourceInfo.getResourceMethod()).thenReturn(
+        getClass().getMethod("async", AsyncResponse.class));
+    filter.filter(context);
+    filter.filter(context);
+
+    assertThat(filter.asyncMethods)
+        .containsExactly(entry(getClass().getMethod("async", AsyncResponse.class), true));
+  }
 }
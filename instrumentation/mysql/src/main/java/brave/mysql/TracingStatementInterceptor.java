@@ -3,6 +3,7 @@ package brave.mysql;
 import brave.Span;
 import brave.Tracer;
 import brave.Tracing;
+import brave.sql.SqlNormalizer;
 import com.mysql.jdbc.Connection;
 import com.mysql.jdbc.PreparedStatement;
 import com.mysql.jdbc.ResultSetInternalMethods;
@@ -11,6 +12,7 @@ import com.mysql.jdbc.StatementInterceptorV2;
 import java.net.URI;
 import java.sql.SQLException;
 import java.util.Properties;
+import javax.annotation.Nullable;
 import zipkin.Constants;
 import zipkin.Endpoint;
 import zipkin.TraceKeys;
@@ -22,6 +24,18 @@ import zipkin.TraceKeys;
  * to the end of the connection url.
  */
 public class TracingStatementInterceptor implements StatementInterceptorV2 {
+  /** Shared across connections, as they usually issue the same statements */
+  static final SqlNormalizer SQL_NORMALIZER = new SqlNormalizer(1000, 4096);
+
+  /** Set via the connection property {@code zipkinNormalizeSql=true} */
+  boolean normalizeSql;
+
+  /**
+   * MySQL creates an interceptor per connection, so the remote endpoint is cached here as opposed to
+   * re-reading connection metadata for each statement. This is replaced when the connection's
+   * catalog differs from the cached one, as the default service name includes it.
+   */
+  volatile RemoteEndpoint remoteEndpoint;
 
   @Override
   public ResultSetInternalMethods preProcess(String sql, Statement interceptedStatement,
@@ -38,8 +52,10 @@ public class TracingStatementInterceptor implements StatementInterceptorV2 {
       }
       int spaceIndex = sql.indexOf(' '); // Allow span names of single-word statements like COMMIT
       span.kind(Span.Kind.CLIENT).name(spaceIndex == -1 ? sql : sql.substring(0, spaceIndex));
-      span.tag(TraceKeys.SQL_QUERY, sql);
-      parseServerAddress(connection, span);
+      if (span.isRecordingData()) {
+        span.tag(TraceKeys.SQL_QUERY, normalizeSql ? SQL_NORMALIZER.normalize(sql) : sql);
+        parseServerAddress(connection, span);
+      }
       span.start();
     }
 
@@ -76,27 +92,58 @@ public class TracingStatementInterceptor implements StatementInterceptorV2 {
   }
 
   /**
-   * MySQL exposes the host connecting to, but not the port. This attempts to get the port from the
-   * JDBC URL. Ex. 5555 from {@code jdbc:mysql://localhost:5555/database}, or 3306 if absent.
+   * The driver tracks the catalog locally, including changes made by "USE" statements, so reading
+   * it doesn't cost a round trip.
    */
-  static void parseServerAddress(Connection connection, Span span) {
+  void parseServerAddress(Connection connection, Span span) {
+    RemoteEndpoint remoteEndpoint = this.remoteEndpoint;
     try {
+      if (remoteEndpoint == null || !remoteEndpoint.matches(connection)) {
+        this.remoteEndpoint = remoteEndpoint = RemoteEndpoint.parse(connection);
+      }
+    } catch (Exception e) {
+      return; // remote address is optional
+    }
+    if (remoteEndpoint.endpoint != null) span.remoteEndpoint(remoteEndpoint.endpoint);
+  }
+
+  /** The endpoint of a connection, which depends on the catalog unless the service name is set. */
+  static final class RemoteEndpoint {
+    /**
+     * MySQL exposes the host connecting to, but not the port. This attempts to get the port from
+     * the JDBC URL. Ex. 5555 from {@code jdbc:mysql://localhost:5555/database}, or 3306 if absent.
+     */
+    static RemoteEndpoint parse(Connection connection) throws SQLException {
       URI url = URI.create(connection.getMetaData().getURL().substring(5)); // strip "jdbc:"
       int port = url.getPort() == -1 ? 3306 : url.getPort();
       String remoteServiceName = connection.getProperties().getProperty("zipkinServiceName");
-      if (remoteServiceName == null || "".equals(remoteServiceName)) {
-        String databaseName = connection.getCatalog();
-        if (databaseName != null && !databaseName.isEmpty()) {
-          remoteServiceName = "mysql-" + databaseName;
-        } else {
-          remoteServiceName = "mysql";
-        }
+      boolean catalogDependent = remoteServiceName == null || "".equals(remoteServiceName);
+      String catalog = null;
+      if (catalogDependent) {
+        catalog = connection.getCatalog();
+        remoteServiceName = catalog != null && !catalog.isEmpty() ? "mysql-" + catalog : "mysql";
       }
       Endpoint.Builder builder = Endpoint.builder().serviceName(remoteServiceName).port(port);
-      if (!builder.parseIp(connection.getHost())) return;
-      span.remoteEndpoint(builder.build());
-    } catch (Exception e) {
-      // remote address is optional
+      Endpoint endpoint = builder.parseIp(connection.getHost()) ? builder.build() : null;
+      return new RemoteEndpoint(catalogDependent, catalog, endpoint);
+    }
+
+    final boolean catalogDependent;
+    @Nullable final String catalog; // only read when catalog dependent
+    @Nullable final Endpoint endpoint; // null when the host isn't an ip
+
+    RemoteEndpoint(boolean catalogDependent, @Nullable String catalog,
+        @Nullable Endpoint endpoint) {
+      this.catalogDependent = catalogDependent;
+      this.catalog = catalog;
+      this.endpoint = endpoint;
+    }
+
+    /** Returns false when the service name should change, as the connection switched catalog. */
+    boolean matches(Connection connection) throws SQLException {
+      if (!catalogDependent) return true;
+      String current = connection.getCatalog();
+      return catalog == null ? current == null : catalog.equals(current);
     }
   }
 
@@ -105,7 +152,12 @@ public class TracingStatementInterceptor implements StatementInterceptorV2 {
   }
 
   @Override public void init(Connection conn, Properties props) throws SQLException {
-    // Don't care
+    normalizeSql = "true".equalsIgnoreCase(props.getProperty("zipkinNormalizeSql"));
+    try {
+      remoteEndpoint = RemoteEndpoint.parse(conn);
+    } catch (Exception e) {
+      // remote address is optional, and will be retried on the first statement
+    }
   }
 
   @Override public void destroy() {
@@ -11,6 +11,9 @@ import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 import zipkin.Endpoint;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
@@ -21,12 +24,13 @@ public class TracingStatementInterceptorTest {
   @Mock DatabaseMetaData metaData;
 
   @Mock Span span;
+  TracingStatementInterceptor interceptor = new TracingStatementInterceptor();
   String url = "jdbc:mysql://myhost:5555/mydatabase";
 
   @Test public void parseServerAddress_ipFromHost_portFromUrl() throws SQLException {
     setupAndReturnPropertiesForHost("127.0.0.1");
 
-    TracingStatementInterceptor.parseServerAddress(connection, span);
+    interceptor.parseServerAddress(connection, span);
 
     verify(span).remoteEndpoint(Endpoint.builder().serviceName("mysql")
         .ipv4(127 << 24 | 1).port(5555).build());
@@ -36,7 +40,7 @@ public class TracingStatementInterceptorTest {
     setupAndReturnPropertiesForHost("127.0.0.1");
     when(connection.getCatalog()).thenReturn("mydatabase");
 
-    TracingStatementInterceptor.parseServerAddress(connection, span);
+    interceptor.parseServerAddress(connection, span);
 
     verify(span).remoteEndpoint(Endpoint.builder().serviceName("mysql-mydatabase")
         .ipv4(127 << 24 | 1).port(5555).build());
@@ -45,7 +49,7 @@ public class TracingStatementInterceptorTest {
   @Test public void parseServerAddress_propertiesOverrideServiceName() throws SQLException {
     setupAndReturnPropertiesForHost("127.0.0.1").setProperty("zipkinServiceName", "foo");
 
-    TracingStatementInterceptor.parseServerAddress(connection, span);
+    interceptor.parseServerAddress(connection, span);
 
     verify(span).remoteEndpoint(Endpoint.builder().serviceName("foo")
         .ipv4(127 << 24 | 1).port(5555).build());
@@ -54,7 +58,7 @@ public class TracingStatementInterceptorTest {
   @Test public void parseServerAddress_emptyZipkinServiceNameIgnored() throws SQLException {
     setupAndReturnPropertiesForHost("127.0.0.1").setProperty("zipkinServiceName", "");
 
-    TracingStatementInterceptor.parseServerAddress(connection, span);
+    interceptor.parseServerAddress(connection, span);
 
     verify(span).remoteEndpoint(Endpoint.builder().serviceName("mysql")
         .ipv4(127 << 24 | 1).port(5555).build());
@@ -63,7 +67,7 @@ public class TracingStatementInterceptorTest {
   @Test public void parseServerAddress_doesntNsLookup() throws SQLException {
     setupAndReturnPropertiesForHost("localhost");
 
-    TracingStatementInterceptor.parseServerAddress(connection, span);
+    interceptor.parseServerAddress(connection, span);
     verifyNoMoreInteractions(span);
   }
 
@@ -73,6 +77,66 @@ public class TracingStatementInterceptorTest {
     verifyNoMoreInteractions(span);
   }
 
+  @Test public void parseServerAddress_cachesEndpoint() throws SQLException {
+    setupAndReturnPropertiesForHost("127.0.0.1").setProperty("zipkinServiceName", "foo");
+
+    interceptor.parseServerAddress(connection, span);
+    interceptor.parseServerAddress(connection, span);
+
+    verify(span, times(2)).remoteEndpoint(Endpoint.builder().serviceName("foo")
+        .ipv4(127 << 24 | 1).port(5555).build());
+    verify(connection, times(1)).getMetaData();
+    verify(connection, never()).getCatalog();
+  }
+
+  @Test public void parseServerAddress_sameCatalogReusesEndpoint() throws SQLException {
+    setupAndReturnPropertiesForHost("127.0.0.1");
+    when(connection.getCatalog()).thenReturn("mydatabase");
+
+    interceptor.parseServerAddress(connection, span);
+    interceptor.parseServerAddress(connection, span);
+
+    verify(span, times(2)).remoteEndpoint(Endpoint.builder().serviceName("mysql-mydatabase")
+        .ipv4(127 << 24 | 1).port(5555).build());
+    verify(connection, times(1)).getMetaData();
+  }
+
+  @Test public void parseServerAddress_catalogChangeInvalidatesEndpoint() throws SQLException {
+    setupAndReturnPropertiesForHost("127.0.0.1");
+    when(connection.getCatalog()).thenReturn("mydatabase");
+
+    interceptor.parseServerAddress(connection, span);
+    interceptor.parseServerAddress(connection, span);
+    when(connection.getCatalog()).thenReturn("otherdatabase"); // ex. after "use otherdatabase"
+    interceptor.parseServerAddress(connection, span);
+
+    verify(span, times(2)).remoteEndpoint(Endpoint.builder().serviceName("mysql-mydatabase")
+        .ipv4(127 << 24 | 1).port(5555).build());
+    verify(span).remoteEndpoint(Endpoint.builder().serviceName("mysql-otherdatabase")
+        .ipv4(127 << 24 | 1).port(5555).build());
+    verify(connection, times(2)).getMetaData();
+  }
+
+  @Test public void init_parsesEndpoint() throws SQLException {
+    setupAndReturnPropertiesForHost("127.0.0.1").setProperty("zipkinServiceName", "foo");
+
+    interceptor.init(connection, new Properties());
+    interceptor.parseServerAddress(connection, span);
+
+    verify(span).remoteEndpoint(Endpoint.builder().serviceName("foo")
+        .ipv4(127 << 24 | 1).port(5555).build());
+    verify(connection, times(1)).getMetaData();
+  }
+
+  @Test public void init_normalizeSql() throws SQLException {
+    Properties properties = new Properties();
+    properties.setProperty("zipkinNormalizeSql", "true");
+
+    interceptor.init(connection, properties);
+
+    assertThat(interceptor.normalizeSql).isTrue();
+  }
+
   Properties setupAndReturnPropertiesForHost(String host) throws SQLException {
     when(connection.getMetaData()).thenReturn(metaData);
     when(metaData.getURL()).thenReturn(url);
@@ -0,0 +1,13 @@
+package brave.netty;
+
+import brave.propagation.Propagation;
+import io.netty.util.AsciiString;
+
+/** Header names are created once, so lookups don't re-encode or re-hash them. */
+enum AsciiStringKeyFactory implements Propagation.KeyFactory<AsciiString> {
+  INSTANCE;
+
+  @Override public AsciiString create(String name) {
+    return AsciiString.of(name);
+  }
+}
@@ -0,0 +1,88 @@
+package brave.netty;
+
+import brave.Span;
+import brave.Tracing;
+import brave.http.HttpTracing;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelDuplexHandler;
+import io.netty.util.Attribute;
+import io.netty.util.AttributeKey;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import javax.annotation.Nullable;
+
+/**
+ * Creates channel handlers that trace HTTP/1.x requests. Add them after the codec, so that they
+ * see {@link io.netty.handler.codec.http.HttpRequest requests} and {@link
+ * io.netty.handler.codec.http.HttpResponse responses} as opposed to bytes.
+ *
+ * <pre>{@code
+ * nettyHttpTracing = NettyHttpTracing.create(httpTracing);
+ * pipeline.addLast(new HttpServerCodec());
+ * pipeline.addLast(nettyHttpTracing.serverHandler());
+ * pipeline.addLast(new YourHandler());
+ * }</pre>
+ *
+ * <p>Handlers are shared across channels. Spans of requests in progress are stored in a channel
+ * attribute, as a channel is serviced by event loop threads which also service other channels.
+ */
+public final class NettyHttpTracing {
+  /**
+   * Spans of requests on a channel, in the order they were sent. HTTP/1.1 responses are in the
+   * same order as their requests, so the first span is finished by the next final response. More
+   * than one span is pending when requests are pipelined.
+   */
+  static final AttributeKey<Deque<Span>> SPANS_ATTRIBUTE =
+      AttributeKey.valueOf(NettyHttpTracing.class.getName() + ".spans");
+
+  /**
+   * Returns the span of the oldest request on the channel which hasn't yet been responded to, or
+   * null if there's none. Call this from a channel handler, as spans are tracked by the event loop.
+   */
+  @Nullable public static Span pendingSpan(Channel channel) {
+    Deque<Span> spans = channel.attr(SPANS_ATTRIBUTE).get();
+    return spans != null ? spans.peekFirst() : null;
+  }
+
+  /** Returns the spans pending on the channel, allocating on first use. */
+  static Deque<Span> spans(Channel channel) {
+    Attribute<Deque<Span>> attribute = channel.attr(SPANS_ATTRIBUTE);
+    Deque<Span> spans = attribute.get();
+    if (spans == null) attribute.set(spans = new ArrayDeque<>());
+    return spans;
+  }
+
+  public static NettyHttpTracing create(Tracing tracing) {
+    return create(HttpTracing.create(tracing));
+  }
+
+  public static NettyHttpTracing create(HttpTracing httpTracing) {
+    return new NettyHttpTracing(httpTracing);
+  }
+
+  final ChannelDuplexHandler serverHandler;
+  final ChannelDuplexHandler clientHandler;
+
+  NettyHttpTracing(HttpTracing httpTracing) {
+    if (httpTracing == null) throw new NullPointerException("httpTracing == null");
+    serverHandler = new TracingHttpServerHandler(httpTracing);
+    clientHandler = new TracingHttpClientHandler(httpTracing);
+  }
+
+  /**
+   * Returns a handler which traces inbound requests. The span is in scope while handlers after it
+   * read the request, and is finished when the response is written.
+   */
+  public ChannelDuplexHandler serverHandler() {
+    return serverHandler;
+  }
+
+  /**
+   * Returns a handler which traces outbound requests. The parent is the span in scope when the
+   * request is written, and the span is finished when the response is read.
+   */
+  public ChannelDuplexHandler clientHandler() {
+    return clientHandler;
+  }
+
+}
@@ -0,0 +1,131 @@
+package brave.netty;
+
+import brave.Span;
+import brave.Tracer;
+import brave.http.EndpointCache;
+import brave.http.HttpClientAdapter;
+import brave.http.HttpClientHandler;
+import brave.http.HttpTracing;
+import brave.propagation.CurrentTraceContext;
+import brave.propagation.TraceContext;
+import io.netty.channel.ChannelDuplexHandler;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
+import io.netty.handler.codec.PrematureChannelClosureException;
+import io.netty.handler.codec.http.HttpHeaders;
+import io.netty.handler.codec.http.HttpRequest;
+import io.netty.handler.codec.http.HttpResponse;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.util.Deque;
+import zipkin.Endpoint;
+
+import static brave.netty.NettyHttpTracing.spans;
+
+@ChannelHandler.Sharable
+final class TracingHttpClientHandler extends ChannelDuplexHandler {
+  final Tracer tracer;
+  final CurrentTraceContext currentTraceContext;
+  final EndpointCache endpointCache;
+  final HttpClientHandler<HttpRequest, HttpResponse> handler;
+  final TraceContext.Injector<HttpHeaders> injector;
+
+  TracingHttpClientHandler(HttpTracing httpTracing) {
+    tracer = httpTracing.tracing().tracer();
+    currentTraceContext = httpTracing.tracing().currentTraceContext();
+    endpointCache = httpTracing.serverEndpointCache();
+    handler = HttpClientHandler.create(httpTracing, new HttpAdapter());
+    injector = httpTracing.tracing().propagationFactory()
+        .create(AsciiStringKeyFactory.INSTANCE)
+        .injector(HttpHeaders::set);
+  }
+
+  @Override public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) {
+    if (!(msg instanceof HttpRequest)) {
+      ctx.write(msg, promise);
+      return;
+    }
+    HttpRequest request = (HttpRequest) msg;
+    Span span = handler.handleSend(injector, request.headers(), request);
+    parseServerAddress(ctx, span);
+    // pipelined requests wait behind those sent before them
+    spans(ctx.channel()).addLast(span);
+    promise = promise.unvoid();
+    promise.addListener(future -> {
+      // no response will be read for a request that wasn't written, for example on a closed channel
+      if (!future.isSuccess() && spans(ctx.channel()).remove(span)) {
+        // a write to a closed channel fails while the span is still in scope
+        try (CurrentTraceContext.Scope ws = currentTraceContext.newScope(null)) {
+          handler.handleReceive(null, future.cause(), span);
+        }
+      }
+    });
+    try (Tracer.SpanInScope ws = tracer.withSpanInScope(span)) {
+      ctx.write(msg, promise);
+    }
+  }
+
+  @Override public void channelRead(ChannelHandlerContext ctx, Object msg) {
+    // the span continues past interim responses, such as "100 Continue"
+    if (msg instanceof HttpResponse
+        && !TracingHttpServerHandler.isInformational((HttpResponse) msg)) {
+      Span span = spans(ctx.channel()).pollFirst();
+      if (span != null) handler.handleReceive((HttpResponse) msg, null, span);
+    }
+    ctx.fireChannelRead(msg);
+  }
+
+  @Override public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+    Deque<Span> spans = spans(ctx.channel());
+    Span span;
+    while ((span = spans.pollFirst()) != null) {
+      handler.handleReceive(null, cause, span);
+    }
+    ctx.fireExceptionCaught(cause);
+  }
+
+  @Override public void channelInactive(ChannelHandlerContext ctx) {
+    Deque<Span> spans = spans(ctx.channel());
+    Span span;
+    while ((span = spans.pollFirst()) != null) {
+      handler.handleReceive(null, new PrematureChannelClosureException(
+          "channel closed before the response was read"), span);
+    }
+    ctx.fireChannelInactive();
+  }
+
+  /** This is different than default because the request does not hold the address */
+  void parseServerAddress(ChannelHandlerContext ctx, Span span) {
+    if (!span.isRecordingData()) return;
+    SocketAddress remoteAddress = ctx.channel().remoteAddress();
+    if (!(remoteAddress instanceof InetSocketAddress)) return;
+    InetSocketAddress socketAddress = (InetSocketAddress) remoteAddress;
+    Endpoint endpoint = endpointCache.get(socketAddress.getAddress(), socketAddress.getPort());
+    if (endpoint != null) span.remoteEndpoint(endpoint);
+  }
+
+  static final class HttpAdapter extends HttpClientAdapter<HttpRequest, HttpResponse> {
+
+    @Override public String method(HttpRequest request) {
+      return request.method().name();
+    }
+
+    @Override public String path(HttpRequest request) {
+      String path = TracingHttpServerHandler.HttpAdapter.relativePath(request);
+      return path != null ? path : super.path(request);
+    }
+
+    @Override public String url(HttpRequest request) {
+      return TracingHttpServerHandler.HttpAdapter.toUrl(request);
+    }
+
+    @Override public String requestHeader(HttpRequest request, String name) {
+      return request.headers().get(name);
+    }
+
+    @Override public Integer statusCode(HttpResponse response) {
+      return response.status().code();
+    }
+  }
+}
@@ -0,0 +1,173 @@
+package brave.netty;
+
+import brave.Span;
+import brave.Tracer;
+import brave.http.EndpointCache;
+import brave.http.HttpServerAdapter;
+import brave.http.HttpServerHandler;
+import brave.http.HttpTracing;
+import brave.propagation.CurrentTraceContext;
+import brave.propagation.TraceContext;
+import io.netty.channel.ChannelDuplexHandler;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPromise;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaders;
+import io.netty.handler.codec.http.HttpRequest;
+import io.netty.handler.codec.http.HttpResponse;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpStatusClass;
+import io.netty.util.AsciiString;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.util.Deque;
+import javax.annotation.Nullable;
+import zipkin.Endpoint;
+
+import static brave.netty.NettyHttpTracing.spans;
+
+@ChannelHandler.Sharable
+final class TracingHttpServerHandler extends ChannelDuplexHandler {
+  static final AsciiString X_FORWARDED_FOR = AsciiString.of("X-Forwarded-For");
+
+  final Tracer tracer;
+  final CurrentTraceContext currentTraceContext;
+  final EndpointCache endpointCache = EndpointCache.create(""); // clients don't have a name
+  final HttpServerHandler<HttpRequest, HttpResponse> handler;
+  final TraceContext.Extractor<HttpHeaders> extractor;
+
+  TracingHttpServerHandler(HttpTracing httpTracing) {
+    tracer = httpTracing.tracing().tracer();
+    currentTraceContext = httpTracing.tracing().currentTraceContext();
+    handler = HttpServerHandler.create(httpTracing, new HttpAdapter());
+    extractor = httpTracing.tracing().propagationFactory()
+        .create(AsciiStringKeyFactory.INSTANCE)
+        .extractor(HttpHeaders::get);
+  }
+
+  /** The span is in scope while handlers after this read the request, including its content. */
+  @Override public void channelRead(ChannelHandlerContext ctx, Object msg) {
+    Span span;
+    if (msg instanceof HttpRequest) {
+      HttpRequest request = (HttpRequest) msg;
+      span = handler.handleReceive(extractor, request.headers(), request);
+      parseChannelAddress(ctx, request, span);
+      // pipelined requests wait behind those read before them
+      spans(ctx.channel()).addLast(span);
+    } else {
+      span = spans(ctx.channel()).peekLast();
+      if (span == null) {
+        ctx.fireChannelRead(msg);
+        return;
+      }
+    }
+    try (Tracer.SpanInScope ws = tracer.withSpanInScope(span)) {
+      ctx.fireChannelRead(msg);
+    }
+  }
+
+  /**
+   * Finishes the span of the oldest request before writing its response, as the client can
+   * otherwise see the response before the span.
+   */
+  @Override public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) {
+    if (msg instanceof HttpResponse && !isInformational((HttpResponse) msg)) {
+      Span span = spans(ctx.channel()).pollFirst();
+      // responses written while reading the request would otherwise finish the span in scope
+      if (span != null) {
+        try (CurrentTraceContext.Scope ws = currentTraceContext.newScope(null)) {
+          handler.handleSend((HttpResponse) msg, null, span);
+        }
+      }
+    }
+    ctx.write(msg, promise);
+  }
+
+  @Override public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+    Deque<Span> spans = spans(ctx.channel());
+    Span span;
+    while ((span = spans.pollFirst()) != null) {
+      handler.handleSend(null, cause, span);
+    }
+    ctx.fireExceptionCaught(cause);
+  }
+
+  /** Finishes the spans of requests the client abandoned before they were responded to. */
+  @Override public void channelInactive(ChannelHandlerContext ctx) {
+    Deque<Span> spans = spans(ctx.channel());
+    Span span;
+    while ((span = spans.pollFirst()) != null) {
+      handler.handleSend(null, null, span);
+    }
+    ctx.fireChannelInactive();
+  }
+
+  /**
+   * Returns true for interim responses, such as "100 Continue", which precede the final response
+   * of the same request. "101 Switching Protocols" is the last http response on the channel.
+   */
+  static boolean isInformational(HttpResponse response) {
+    HttpResponseStatus status = response.status();
+    return status.codeClass() == HttpStatusClass.INFORMATIONAL
+        && status.code() != HttpResponseStatus.SWITCHING_PROTOCOLS.code();
+  }
+
+  /**
+   * The adapter only sees the request, so the remote address of the channel is added here when
+   * there's no "X-Forwarded-For" header.
+   */
+  void parseChannelAddress(ChannelHandlerContext ctx, HttpRequest request, Span span) {
+    if (!span.isRecordingData()) return;
+    if (request.headers().contains(X_FORWARDED_FOR)) return;
+    SocketAddress remoteAddress = ctx.channel().remoteAddress();
+    if (!(remoteAddress instanceof InetSocketAddress)) return;
+    InetSocketAddress socketAddress = (InetSocketAddress) remoteAddress;
+    Endpoint endpoint = endpointCache.get(socketAddress.getAddress(), socketAddress.getPort());
+    if (endpoint != null) span.remoteEndpoint(endpoint);
+  }
+
+  static final class HttpAdapter extends HttpServerAdapter<HttpRequest, HttpResponse> {
+
+    @Override public String method(HttpRequest request) {
+      return request.method().name();
+    }
+
+    /** Avoids building the url, as the request usually only has the path and query. */
+    @Override public String path(HttpRequest request) {
+      String path = relativePath(request);
+      return path != null ? path : super.path(request);
+    }
+
+    @Override public String url(HttpRequest request) {
+      return toUrl(request);
+    }
+
+    @Override public String requestHeader(HttpRequest request, String name) {
+      return request.headers().get(name);
+    }
+
+    @Override public Integer statusCode(HttpResponse response) {
+      return response.status().code();
+    }
+
+    /** Returns null if the request is in absolute form, as opposed to starting with a path. */
+    @Nullable static String relativePath(HttpRequest request) {
+      String uri = request.uri();
+      if (!uri.startsWith("/")) return null;
+      int query = uri.indexOf('?');
+      return query != -1 ? uri.substring(0, query) : uri;
+    }
+
+    /**
+     * Joins the host header and the path, as usually the request only has the latter. The scheme
+     * is assumed to be http, as encryption is handled in an unrelated channel handler.
+     */
+    static String toUrl(HttpRequest request) {
+      String uri = request.uri();
+      if (!uri.startsWith("/")) return uri; // absolute form
+      String host = request.headers().get(HttpHeaderNames.HOST);
+      return host != null ? "http://" + host + uri : uri;
+    }
+  }
+}
@@ -0,0 +1,135 @@
+package brave.netty;
+
+import brave.http.ITHttpClient;
+import brave.propagation.CurrentTraceContext;
+import brave.propagation.TraceContext;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.handler.codec.PrematureChannelClosureException;
+import io.netty.handler.codec.http.DefaultFullHttpRequest;
+import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpClientCodec;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpObjectAggregator;
+import io.netty.util.AttributeKey;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Test;
+
+import static io.netty.handler.codec.http.HttpVersion.HTTP_1_1;
+
+public class ITTracingHttpClientHandler extends ITHttpClient<Bootstrap> {
+  static final AttributeKey<CompletableFuture<FullHttpResponse>> RESPONSE =
+      AttributeKey.valueOf("response");
+  static final AttributeKey<FullHttpRequest> REQUEST = AttributeKey.valueOf("request");
+  static final AttributeKey<TraceContext> PARENT = AttributeKey.valueOf("parent");
+
+  EventLoopGroup group = new NioEventLoopGroup(1);
+
+  class ResponseHandler extends SimpleChannelInboundHandler<FullHttpResponse> {
+    /** Writes with the caller's span in scope, so that it becomes the parent. */
+    @Override public void channelActive(ChannelHandlerContext ctx) {
+      CurrentTraceContext current = httpTracing.tracing().currentTraceContext();
+      try (CurrentTraceContext.Scope ws = current.newScope(ctx.channel().attr(PARENT).get())) {
+        ctx.channel().writeAndFlush(ctx.channel().attr(REQUEST).get());
+      }
+      ctx.fireChannelActive();
+    }
+
+    @Override protected void channelRead0(ChannelHandlerContext ctx, FullHttpResponse response) {
+      ctx.channel().attr(RESPONSE).get().complete(response.retain());
+      ctx.close();
+    }
+
+    @Override public void channelInactive(ChannelHandlerContext ctx) {
+      ctx.channel().attr(RESPONSE).get()
+          .completeExceptionally(new PrematureChannelClosureException());
+    }
+
+    @Override public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+      ctx.channel().attr(RESPONSE).get().completeExceptionally(cause);
+      ctx.close();
+    }
+  }
+
+  @Override protected Bootstrap newClient(int port) {
+    NettyHttpTracing nettyHttpTracing = NettyHttpTracing.create(httpTracing);
+    return new Bootstrap()
+        .group(group)
+        .channel(NioSocketChannel.class)
+        .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, 1000)
+        .remoteAddress("127.0.0.1", port)
+        .handler(new ChannelInitializer<SocketChannel>() {
+          @Override protected void initChannel(SocketChannel ch) {
+            ch.pipeline().addLast(new HttpClientCodec());
+            ch.pipeline().addLast(nettyHttpTracing.clientHandler());
+            ch.pipeline().addLast(new HttpObjectAggregator(1024));
+            ch.pipeline().addLast(new ResponseHandler());
+          }
+        });
+  }
+
+  @Override protected void closeClient(Bootstrap client) {
+    // the event loop group is shared across clients
+  }
+
+  @Override protected void get(Bootstrap client, String pathIncludingQuery) throws Exception {
+    send(client, request(HttpMethod.GET, pathIncludingQuery)).get(10, TimeUnit.SECONDS).release();
+  }
+
+  @Override protected void post(Bootstrap client, String pathIncludingQuery, String body)
+      throws Exception {
+    FullHttpRequest request = request(HttpMethod.POST, pathIncludingQuery);
+    request.content().writeCharSequence(body, StandardCharsets.UTF_8);
+    request.headers().setInt(HttpHeaderNames.CONTENT_LENGTH, request.content().readableBytes());
+    send(client, request).get(10, TimeUnit.SECONDS).release();
+  }
+
+  @Override protected void getAsync(Bootstrap client, String pathIncludingQuery) throws Exception {
+    send(client, request(HttpMethod.GET, pathIncludingQuery));
+  }
+
+  FullHttpRequest request(HttpMethod method, String pathIncludingQuery) {
+    FullHttpRequest request =
+        new DefaultFullHttpRequest(HTTP_1_1, method, pathIncludingQuery, Unpooled.buffer());
+    request.headers().set(HttpHeaderNames.HOST, "127.0.0.1:" + server.getPort());
+    return request;
+  }
+
+  /**
+   * The request is written as soon as the channel is active, as the server may close it right
+   * after. Writing later could find the channel closed, and the tracing handler removed.
+   */
+  CompletableFuture<FullHttpResponse> send(Bootstrap client, FullHttpRequest request) {
+    CompletableFuture<FullHttpResponse> response = new CompletableFuture<>();
+    client.clone()
+        .attr(RESPONSE, response)
+        .attr(REQUEST, request)
+        .attr(PARENT, httpTracing.tracing().currentTraceContext().get())
+        .connect().addListener(f -> {
+          if (!f.isSuccess()) response.completeExceptionally(f.cause());
+        });
+    return response;
+  }
+
+  @After public void shutdownGroup() {
+    group.shutdownGracefully();
+  }
+
+  @Override @Test(expected = AssertionError.class)
+  public void redirect() throws Exception { // redirects aren't followed
+    super.redirect();
+  }
+}
@@ -0,0 +1,156 @@
+package brave.netty;
+
+import brave.Tracer;
+import brave.http.ITHttpServer;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.handler.codec.http.DefaultFullHttpResponse;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpObjectAggregator;
+import io.netty.handler.codec.http.HttpRequest;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpServerCodec;
+import io.netty.handler.codec.http.QueryStringDecoder;
+import io.netty.util.CharsetUtil;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.concurrent.CompletableFuture;
+import org.junit.After;
+import org.junit.Test;
+import zipkin.Constants;
+import zipkin.TraceKeys;
+import zipkin.internal.Util;
+
+import static io.netty.handler.codec.http.HttpVersion.HTTP_1_1;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ITTracingHttpServerHandler extends ITHttpServer {
+  EventLoopGroup bossGroup;
+  EventLoopGroup workerGroup;
+  Channel serverChannel;
+
+  class TestHandler extends SimpleChannelInboundHandler<HttpRequest> {
+    final Tracer tracer = httpTracing.tracing().tracer();
+
+    @Override protected void channelRead0(ChannelHandlerContext ctx, HttpRequest request)
+        throws Exception {
+      switch (new QueryStringDecoder(request.uri()).path()) {
+        case "/foo":
+          respond(ctx, HttpResponseStatus.OK);
+          return;
+        case "/badrequest":
+          respond(ctx, HttpResponseStatus.BAD_REQUEST);
+          return;
+        case "/continue":
+          ctx.writeAndFlush(new DefaultFullHttpResponse(HTTP_1_1, HttpResponseStatus.CONTINUE));
+          respond(ctx, HttpResponseStatus.OK);
+          return;
+        case "/child":
+          tracer.nextSpan().name("child").start().finish();
+          respond(ctx, HttpResponseStatus.OK);
+          return;
+        case "/async":
+          CompletableFuture.runAsync(() -> respond(ctx, HttpResponseStatus.OK));
+          return;
+        case "/exception":
+          throw new IOException();
+        case "/exceptionAsync":
+          CompletableFuture.runAsync(() -> {
+            throw new IllegalStateException();
+          }).whenComplete((v, t) -> exceptionCaught(ctx, t));
+          return;
+        default:
+          respond(ctx, HttpResponseStatus.NOT_FOUND);
+      }
+    }
+
+    @Override public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+      respond(ctx, HttpResponseStatus.INTERNAL_SERVER_ERROR);
+    }
+
+    void respond(ChannelHandlerContext ctx, HttpResponseStatus status) {
+      ctx.writeAndFlush(response(status));
+    }
+  }
+
+  /** The span finishes with the final response, not an interim one like "100 Continue" */
+  @Test public void skipsInformationalResponses() throws Exception {
+    get("/continue");
+
+    assertThat(spans)
+        .flatExtracting(s -> s.binaryAnnotations)
+        .extracting(b -> b.key)
+        .doesNotContain(TraceKeys.HTTP_STATUS_CODE, Constants.ERROR);
+  }
+
+  /** Each response finishes the span of its own request, even when requests are pipelined */
+  @Test public void pipelinedRequests() throws Exception {
+    EmbeddedChannel channel = new EmbeddedChannel(
+        new HttpServerCodec(), NettyHttpTracing.create(httpTracing).serverHandler());
+    // both requests are read before either is responded to
+    channel.writeInbound(Unpooled.copiedBuffer(
+        "GET /foo HTTP/1.1\r\n\r\nGET /badrequest HTTP/1.1\r\n\r\n", CharsetUtil.US_ASCII));
+    channel.writeOutbound(response(HttpResponseStatus.OK));
+    channel.writeOutbound(response(HttpResponseStatus.BAD_REQUEST));
+    channel.finishAndReleaseAll();
+
+    assertThat(spans)
+        .extracting(s -> s.name)
+        .containsExactly("get", "get");
+    assertThat(spans.getFirst().binaryAnnotations)
+        .extracting(b -> b.key)
+        .doesNotContain(TraceKeys.HTTP_STATUS_CODE, Constants.ERROR);
+    assertThat(spans.getLast().binaryAnnotations)
+        .filteredOn(b -> b.key.equals(TraceKeys.HTTP_STATUS_CODE))
+        .extracting(b -> new String(b.value, Util.UTF_8))
+        .containsExactly("400");
+  }
+
+  static FullHttpResponse response(HttpResponseStatus status) {
+    FullHttpResponse response = new DefaultFullHttpResponse(HTTP_1_1, status);
+    response.headers().setInt(HttpHeaderNames.CONTENT_LENGTH, 0);
+    return response;
+  }
+
+  @Override protected void init() throws Exception {
+    stop();
+    bossGroup = new NioEventLoopGroup(1);
+    workerGroup = new NioEventLoopGroup();
+
+    NettyHttpTracing nettyHttpTracing = NettyHttpTracing.create(httpTracing);
+    serverChannel = new ServerBootstrap()
+        .group(bossGroup, workerGroup)
+        .channel(NioServerSocketChannel.class)
+        .childHandler(new ChannelInitializer<SocketChannel>() {
+          @Override protected void initChannel(SocketChannel ch) {
+            ch.pipeline().addLast(new HttpServerCodec());
+            ch.pipeline().addLast(nettyHttpTracing.serverHandler());
+            ch.pipeline().addLast(new HttpObjectAggregator(1024));
+            ch.pipeline().addLast(new TestHandler());
+          }
+        })
+        .bind("127.0.0.1", 0).sync().channel();
+  }
+
+  @Override protected String url(String path) {
+    int port = ((InetSocketAddress) serverChannel.localAddress()).getPort();
+    return "http://127.0.0.1:" + port + path;
+  }
+
+  @After public void stop() throws InterruptedException {
+    if (serverChannel == null) return;
+    serverChannel.close().sync();
+    bossGroup.shutdownGracefully();
+    workerGroup.shutdownGracefully();
+  }
+}
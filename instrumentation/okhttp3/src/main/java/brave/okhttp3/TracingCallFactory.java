@@ -7,6 +7,7 @@ import brave.propagation.CurrentTraceContext;
 import brave.propagation.TraceContext;
 import java.io.IOException;
 import okhttp3.Call;
+import okhttp3.Callback;
 import okhttp3.Interceptor;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
@@ -36,30 +37,90 @@ public final class TracingCallFactory implements Call.Factory {
     if (ok == null) throw new NullPointerException("OkHttpClient == null");
     this.currentTraceContext = httpTracing.tracing().currentTraceContext();
     OkHttpClient.Builder builder = ok.newBuilder();
+    builder.interceptors().add(0, new SetParentSpanInScope());
     builder.networkInterceptors().add(0, TracingInterceptor.create(httpTracing));
     this.ok = builder.build();
   }
 
+  /**
+   * The client is built once, so the parent is carried to the dispatcher thread in the request
+   * tag. OkHttp 3 only has one tag, so ours holds the original request, which is what
+   * interceptors, callbacks and {@link Call#request()} see.
+   */
   @Override public Call newCall(Request request) {
-    TraceContext currentSpan = currentTraceContext.get();
-    OkHttpClient.Builder b = ok.newBuilder();
-    if (currentSpan != null) b.interceptors().add(0, new SetParentSpanInScope(currentSpan));
-    // TODO: This can hide errors at the beginning of call.execute, such as invalid host!
-    return b.build().newCall(request);
+    TraceContext parent = currentTraceContext.get();
+    if (parent == null) return ok.newCall(request); // nothing to re-apply
+    ParentTag tag = new ParentTag(parent, request);
+    return new TracingCall(ok.newCall(request.newBuilder().tag(tag).build()), request);
   }
 
-  /** In case a request is deferred due to a backlog, we re-apply the span that was in scope */
-  class SetParentSpanInScope implements Interceptor {
-    final TraceContext previous;
+  static final class ParentTag {
+    final TraceContext parent;
+    final Request request;
 
-    SetParentSpanInScope(TraceContext previous) {
-      this.previous = previous;
+    ParentTag(TraceContext parent, Request request) {
+      this.parent = parent;
+      this.request = request;
     }
+  }
 
+  /** In case a request is deferred due to a backlog, we re-apply the span that was in scope */
+  final class SetParentSpanInScope implements Interceptor {
     @Override public Response intercept(Chain chain) throws IOException {
-      try (CurrentTraceContext.Scope ws = currentTraceContext.newScope(previous)) {
-        return chain.proceed(chain.request());
+      Request request = chain.request();
+      Object tag = request.tag();
+      if (!(tag instanceof ParentTag)) return chain.proceed(request);
+      ParentTag parentTag = (ParentTag) tag;
+      try (CurrentTraceContext.Scope ws = currentTraceContext.newScope(parentTag.parent)) {
+        return chain.proceed(parentTag.request);
       }
     }
   }
+
+  /** Hides the request holding {@link ParentTag} from the caller. */
+  static final class TracingCall implements Call {
+    final Call delegate;
+    final Request request;
+
+    TracingCall(Call delegate, Request request) {
+      this.delegate = delegate;
+      this.request = request;
+    }
+
+    @Override public Request request() {
+      return request;
+    }
+
+    @Override public Response execute() throws IOException {
+      return delegate.execute();
+    }
+
+    @Override public void enqueue(Callback responseCallback) {
+      delegate.enqueue(new Callback() {
+        @Override public void onFailure(Call call, IOException e) {
+          responseCallback.onFailure(TracingCall.this, e);
+        }
+
+        @Override public void onResponse(Call call, Response response) throws IOException {
+          responseCallback.onResponse(TracingCall.this, response);
+        }
+      });
+    }
+
+    @Override public void cancel() {
+      delegate.cancel();
+    }
+
+    @Override public boolean isExecuted() {
+      return delegate.isExecuted();
+    }
+
+    @Override public boolean isCanceled() {
+      return delegate.isCanceled();
+    }
+
+    @Override public Call clone() {
+      return new TracingCall(delegate.clone(), request);
+    }
+  }
 }
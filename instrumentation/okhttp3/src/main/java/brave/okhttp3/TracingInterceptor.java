@@ -3,6 +3,7 @@ package brave.okhttp3;
 import brave.Span;
 import brave.Tracer;
 import brave.Tracing;
+import brave.http.EndpointCache;
 import brave.http.HttpClientHandler;
 import brave.http.HttpTracing;
 import brave.propagation.TraceContext;
@@ -30,14 +31,14 @@ public final class TracingInterceptor implements Interceptor {
   }
 
   final Tracer tracer;
-  final String remoteServiceName;
+  final EndpointCache endpointCache;
   final HttpClientHandler<Request, Response> handler;
   final TraceContext.Injector<Request.Builder> injector;
 
   TracingInterceptor(HttpTracing httpTracing) {
     if (httpTracing == null) throw new NullPointerException("HttpTracing == null");
     tracer = httpTracing.tracing().tracer();
-    remoteServiceName = httpTracing.serverName();
+    endpointCache = httpTracing.serverEndpointCache();
     handler = HttpClientHandler.create(httpTracing, new HttpAdapter());
     injector = httpTracing.tracing().propagation().injector(Request.Builder::addHeader);
   }
@@ -62,12 +63,11 @@ public final class TracingInterceptor implements Interceptor {
 
   /** This is different than default because the request does not hold the address */
   void parseServerAddress(Connection connection, Span span) {
-    if (span.isNoop()) return;
+    if (!span.isRecordingData()) return;
     InetSocketAddress remoteAddress = connection.route().socketAddress();
-    Endpoint.Builder builder = Endpoint.builder().serviceName(remoteServiceName);
-    builder.parseIp(remoteAddress.getAddress());
-    builder.port(remoteAddress.getPort());
-    span.remoteEndpoint(builder.build());
+    Endpoint endpoint = endpointCache.get(remoteAddress.getAddress(), remoteAddress.getPort());
+    // when the address isn't an ip, still record the remote service name
+    span.remoteEndpoint(endpoint != null ? endpoint : endpointCache.serviceOnly());
   }
 
   static final class HttpAdapter extends brave.http.HttpClientAdapter<Request, Response> {
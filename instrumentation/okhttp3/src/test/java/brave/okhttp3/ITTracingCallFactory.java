@@ -80,4 +80,29 @@ public class ITTracingCallFactory extends ITHttpClient<Call.Factory> {
     assertThat(request.getHeader("x-b3-traceId"))
         .isEqualTo(request.getHeader("my-id"));
   }
+
+  @Test public void userTagVisibleToUserInterceptors() throws Exception {
+    Tracer tracer = httpTracing.tracing().tracer();
+    server.enqueue(new MockResponse());
+    closeClient(client);
+
+    client = TracingCallFactory.create(httpTracing, new OkHttpClient.Builder()
+        .addInterceptor(chain -> chain.proceed(chain.request().newBuilder()
+            .addHeader("my-tag", chain.request().tag().toString())
+            .build()))
+        .build());
+
+    Request request = new Request.Builder().url(url("/foo")).tag("bar").build();
+    brave.Span parent = tracer.newTrace().name("test").start();
+    try (Tracer.SpanInScope ws = tracer.withSpanInScope(parent)) {
+      Call call = client.newCall(request);
+      assertThat(call.request()).isSameAs(request);
+      call.execute();
+    } finally {
+      parent.finish();
+    }
+
+    assertThat(server.takeRequest().getHeader("my-tag"))
+        .isEqualTo("bar");
+  }
 }
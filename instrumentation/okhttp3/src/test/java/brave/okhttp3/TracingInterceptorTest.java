@@ -21,10 +21,10 @@ public class TracingInterceptorTest {
   @Mock Span span;
 
   @Test public void parseServerAddress_skipsOnNoop() {
-    when(span.isNoop()).thenReturn(true);
+    when(span.isRecordingData()).thenReturn(false);
     filter.parseServerAddress(connection, span);
 
-    verify(span).isNoop();
+    verify(span).isRecordingData();
     verifyNoMoreInteractions(span);
   }
 }
@@ -0,0 +1,50 @@
+package brave.p6spy;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Names spans after the leading verb of a statement, such as "select" or "commit". Names of prepared
+ * statements are cached, as their sql is reused.
+ */
+final class SpanNames {
+  final int maxCached;
+  final ConcurrentMap<String, String> cache = new ConcurrentHashMap<>();
+
+  SpanNames(int maxCached) {
+    this.maxCached = maxCached;
+  }
+
+  /** Returns a span name for prepared sql, which includes placeholders instead of literals. */
+  String forPreparedSql(String sql) {
+    String result = cache.get(sql);
+    if (result != null) return result;
+    result = verb(sql);
+    // unlike literal sql, prepared sql is bounded in practice, but we guard anyway. When full, an
+    // arbitrary entry is replaced, so that statements issued later are still cached.
+    if (cache.size() >= maxCached) evictOne(cache);
+    cache.put(sql, result);
+    return result;
+  }
+
+  static void evictOne(ConcurrentMap<?, ?> map) {
+    Iterator<?> keys = map.keySet().iterator();
+    if (keys.hasNext()) {
+      keys.next();
+      keys.remove();
+    }
+  }
+
+  /**
+   * Returns the first word of the sql, skipping leading whitespace. Ex. "COMMIT" or "select" for
+   * "  select * from users"
+   */
+  static String verb(String sql) {
+    int length = sql.length(), start = 0;
+    while (start < length && Character.isWhitespace(sql.charAt(start))) start++;
+    int end = start;
+    while (end < length && !Character.isWhitespace(sql.charAt(end))) end++;
+    return start == 0 && end == length ? sql : sql.substring(start, end);
+  }
+}
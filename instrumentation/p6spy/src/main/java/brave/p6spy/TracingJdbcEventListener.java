@@ -3,34 +3,115 @@ package brave.p6spy;
 import brave.Span;
 import brave.Tracer;
 import brave.Tracing;
+import brave.sql.SqlNormalizer;
+import com.p6spy.engine.common.ConnectionInformation;
+import com.p6spy.engine.common.PreparedStatementInformation;
+import com.p6spy.engine.common.ResultSetInformation;
 import com.p6spy.engine.common.StatementInformation;
 import com.p6spy.engine.event.SimpleJdbcEventListener;
 import java.net.URI;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import javax.annotation.Nullable;
 import zipkin.Constants;
 import zipkin.Endpoint;
 import zipkin.TraceKeys;
 
 final class TracingJdbcEventListener extends SimpleJdbcEventListener {
 
+  /** Shared across factories, as applications usually issue the same statements */
+  static final SqlNormalizer SQL_NORMALIZER = new SqlNormalizer(1000, 4096);
+  /** Placeholder for connections whose endpoint can't be parsed, as map values can't be null. */
+  static final Endpoint UNPARSED = Endpoint.builder().serviceName("").build();
+  static final int MAX_ENDPOINTS = 1000;
+  /** Bounds batches kept between callbacks, as p6spy doesn't signal when a statement closes. */
+  static final int MAX_PENDING = 1000;
+  static final String BATCH_COUNT = "jdbc.batch.count";
+  static final String BATCH_ROWS = "jdbc.batch.rows";
+  static final String RESULT_SET_ROWS = "jdbc.result_set.rows";
+  /** Annotates when a query returned, when the span continues until its results are read */
+  static final String EXECUTED = "jdbc.executed";
+
   final String remoteServiceName;
+  final SpanNames spanNames = new SpanNames(1000);
+  final boolean normalizeSql;
+  /**
+   * Parsing the JDBC url per statement is expensive, so endpoints are cached until the connection
+   * closes. Bounded in case close events are missed, for example when a pool discards connections:
+   * when full, an arbitrary entry is evicted.
+   */
+  final ConcurrentMap<ConnectionInformation, Endpoint> endpoints = new ConcurrentHashMap<>();
+
+  /** First sql added to a plain statement's batch, used to name the span of the batch */
+  final ConcurrentMap<StatementInformation, String> batchSql = new ConcurrentHashMap<>();
+  final boolean resultSetTiming;
+  /**
+   * Queries whose spans finish when their result set is exhausted or closed, or when the next
+   * statement runs on the same connection. This holds at most one entry per open connection.
+   */
+  final ConcurrentMap<ConnectionInformation, Fetch> fetches = new ConcurrentHashMap<>();
 
-  TracingJdbcEventListener(String remoteServiceName) {
+  TracingJdbcEventListener(String remoteServiceName, boolean normalizeSql,
+      boolean resultSetTiming) {
     this.remoteServiceName = remoteServiceName;
+    this.normalizeSql = normalizeSql;
+    this.resultSetTiming = resultSetTiming;
+  }
+
+  // p6spy only records the sql of a plain statement after listeners are invoked, so we do it here
+  @Override public void onBeforeExecute(StatementInformation info, String sql) {
+    info.setStatementQuery(sql);
+    super.onBeforeExecute(info, sql);
+  }
+
+  @Override public void onBeforeExecuteUpdate(StatementInformation info, String sql) {
+    info.setStatementQuery(sql);
+    super.onBeforeExecuteUpdate(info, sql);
+  }
+
+  @Override public void onBeforeExecuteQuery(StatementInformation info, String sql) {
+    info.setStatementQuery(sql);
+    super.onBeforeExecuteQuery(info, sql);
   }
 
   @Override public void onBeforeAnyExecute(StatementInformation info) {
+    start(info, info.getSql());
+  }
+
+  /** Only the first statement of a plain batch is kept, as batches can hold thousands of them. */
+  @Override public void onBeforeAddBatch(StatementInformation info, String sql) {
+    if (sql == null || batchSql.size() >= MAX_PENDING) return;
+    batchSql.putIfAbsent(info, sql);
+  }
+
+  /** Traces a batch as a single span, named and tagged after its first statement. */
+  @Override public void onBeforeExecuteBatch(StatementInformation info) {
+    String sql = batchSql.get(info);
+    start(info, sql != null ? sql : info.getSql());
+  }
+
+  void start(StatementInformation info, @Nullable String sql) {
     Tracer tracer = Tracing.currentTracer();
     if (tracer == null) return;
+    // p6spy doesn't signal when a statement closes, so we assume results of the previous query on
+    // this connection are no longer read once it runs another statement.
+    finishFetch(info.getConnectionInformation(), null, null);
 
     Span span = tracer.nextSpan();
     // regardless of noop or not, set it in scope so that custom contexts can see it (like slf4j)
     if (!span.isNoop()) {
-      String sql = info.getSql();
-      span.kind(Span.Kind.CLIENT).name(sql.substring(0, sql.indexOf(' ')));
-      span.tag(TraceKeys.SQL_QUERY, sql);
-      parseServerAddress(info.getConnectionInformation().getConnection(), span);
+      if (sql == null) sql = ""; // ex. executeBatch on a statement that didn't add any sql
+      span.kind(Span.Kind.CLIENT).name(info instanceof PreparedStatementInformation
+          ? spanNames.forPreparedSql(sql)
+          : SpanNames.verb(sql));
+      if (span.isRecordingData()) {
+        span.tag(TraceKeys.SQL_QUERY, normalizeSql ? SQL_NORMALIZER.normalize(sql) : sql);
+        Endpoint endpoint = remoteEndpoint(info.getConnectionInformation());
+        if (endpoint != null) span.remoteEndpoint(endpoint);
+      }
       span.start();
     }
 
@@ -44,43 +125,161 @@ final class TracingJdbcEventListener extends SimpleJdbcEventListener {
   final ThreadLocal<Tracer.SpanInScope> currentSpanInScope = new ThreadLocal<>();
 
   @Override public void onAfterAnyExecute(StatementInformation info, long elapsed, SQLException e) {
+    Span span = closeScope();
+    if (span != null) finish(span, e);
+  }
+
+  @Override public void onAfterExecuteBatch(StatementInformation info, long elapsed,
+      int[] updateCounts, SQLException e) {
+    batchSql.remove(info);
+    Span span = closeScope();
+    if (span == null) return;
+
+    if (span.isRecordingData() && updateCounts != null) {
+      span.tag(BATCH_COUNT, Integer.toString(updateCounts.length));
+      long rows = 0;
+      for (int count : updateCounts) {
+        if (count < 0) { // ex. Statement.SUCCESS_NO_INFO
+          rows = -1;
+          break;
+        }
+        rows += count;
+      }
+      if (rows != -1) span.tag(BATCH_ROWS, Long.toString(rows));
+    }
+    finish(span, e);
+  }
+
+  @Override public void onAfterExecuteQuery(PreparedStatementInformation info, long elapsed,
+      SQLException e) {
+    afterExecuteQuery(info, e);
+  }
+
+  @Override public void onAfterExecuteQuery(StatementInformation info, long elapsed, String sql,
+      SQLException e) {
+    afterExecuteQuery(info, e);
+  }
+
+  /**
+   * When result set timing is enabled, the span stays open until the last row is read, the result
+   * set or its connection is closed, or another statement runs on its connection. The scope still
+   * closes here, as the caller may read results later.
+   */
+  void afterExecuteQuery(StatementInformation info, SQLException e) {
+    Span span = closeScope();
+    if (span == null) return;
+    if (!resultSetTiming || e != null || span.isNoop()) {
+      finish(span, e);
+      return;
+    }
+    span.annotate(EXECUTED);
+    Fetch previous = fetches.put(info.getConnectionInformation(), new Fetch(info, span));
+    if (previous != null) previous.finish(null); // ex. two threads sharing a connection
+  }
+
+  @Override public void onAfterResultSetNext(ResultSetInformation info, long elapsed,
+      boolean hasNext, SQLException e) {
+    if (fetches.isEmpty()) return;
+    StatementInformation statement = info.getStatementInformation();
+    if (hasNext && e == null) {
+      Fetch fetch = fetches.get(statement.getConnectionInformation());
+      if (fetch != null && fetch.statement == statement) fetch.rows++;
+    } else {
+      finishFetch(statement.getConnectionInformation(), statement, e);
+    }
+  }
+
+  @Override public void onAfterResultSetClose(ResultSetInformation info, SQLException e) {
+    StatementInformation statement = info.getStatementInformation();
+    finishFetch(statement.getConnectionInformation(), statement, null);
+  }
+
+  /** Finishes the pending fetch on the connection, if it belongs to the statement when not null */
+  void finishFetch(ConnectionInformation info, @Nullable StatementInformation statement,
+      @Nullable SQLException e) {
+    if (fetches.isEmpty()) return;
+    Fetch fetch = fetches.get(info);
+    if (fetch == null || (statement != null && fetch.statement != statement)) return;
+    if (fetches.remove(info, fetch)) fetch.finish(e);
+  }
+
+  @Nullable Span closeScope() {
     Tracer tracer = Tracing.currentTracer();
-    if (tracer == null) return;
+    if (tracer == null) return null;
 
     Tracer.SpanInScope spanInScope = currentSpanInScope.get();
-    if (spanInScope == null) return;
+    if (spanInScope == null) return null;
     Span span = tracer.currentSpan();
     spanInScope.close();
+    return span;
+  }
 
+  static void finish(Span span, @Nullable SQLException e) {
     if (e != null) {
       span.tag(Constants.ERROR, Integer.toString(e.getErrorCode()));
     }
     span.finish();
   }
 
+  static final class Fetch {
+    final StatementInformation statement;
+    final Span span;
+    int rows; // only read and written by the thread iterating the result set
+
+    Fetch(StatementInformation statement, Span span) {
+      this.statement = statement;
+      this.span = span;
+    }
+
+    void finish(@Nullable SQLException e) {
+      span.tag(RESULT_SET_ROWS, Integer.toString(rows));
+      TracingJdbcEventListener.finish(span, e);
+    }
+  }
+
+  @Override public void onAfterConnectionClose(ConnectionInformation info, SQLException e) {
+    endpoints.remove(info);
+    finishFetch(info, null, null);
+    // batches added, but never executed
+    for (Iterator<StatementInformation> i = batchSql.keySet().iterator(); i.hasNext(); ) {
+      if (i.next().getConnectionInformation() == info) i.remove();
+    }
+  }
+
+  @Nullable Endpoint remoteEndpoint(ConnectionInformation info) {
+    Endpoint endpoint = endpoints.get(info);
+    if (endpoint == null) {
+      try {
+        endpoint = parseServerAddress(info.getConnection());
+      } catch (Exception e) {
+        return null; // remote address is optional, so retry next time
+      }
+      if (endpoint == null) endpoint = UNPARSED;
+      if (endpoints.size() >= MAX_ENDPOINTS) SpanNames.evictOne(endpoints);
+      endpoints.put(info, endpoint);
+    }
+    return endpoint != UNPARSED ? endpoint : null;
+  }
+
   /**
    * This attempts to get the ip and port from the JDBC URL. Ex. localhost and 5555 from {@code
    * jdbc:mysql://localhost:5555/mydatabase}.
    */
-  void parseServerAddress(Connection connection, Span span) {
-    try {
-      URI url = URI.create(connection.getMetaData().getURL().substring(5)); // strip "jdbc:"
-      Endpoint.Builder builder = Endpoint.builder().port(url.getPort());
-      boolean parsed = builder.parseIp(url.getHost());
-      if (remoteServiceName == null || "".equals(remoteServiceName)) {
-        String databaseName = connection.getCatalog();
-        if (databaseName != null && !databaseName.isEmpty()) {
-          builder.serviceName(databaseName);
-        } else {
-          if (!parsed) return;
-          builder.serviceName("");
-        }
+  @Nullable Endpoint parseServerAddress(Connection connection) throws SQLException {
+    URI url = URI.create(connection.getMetaData().getURL().substring(5)); // strip "jdbc:"
+    Endpoint.Builder builder = Endpoint.builder().port(url.getPort());
+    boolean parsed = builder.parseIp(url.getHost());
+    if (remoteServiceName == null || "".equals(remoteServiceName)) {
+      String databaseName = connection.getCatalog();
+      if (databaseName != null && !databaseName.isEmpty()) {
+        builder.serviceName(databaseName);
       } else {
-        builder.serviceName(remoteServiceName);
+        if (!parsed) return null;
+        builder.serviceName("");
       }
-      span.remoteEndpoint(builder.build());
-    } catch (Exception e) {
-      // remote address is optional
+    } else {
+      builder.serviceName(remoteServiceName);
     }
+    return builder.build();
   }
 }
@@ -9,12 +9,29 @@ import com.p6spy.engine.spy.option.P6OptionsRepository;
 public final class TracingP6Factory implements P6Factory {
 
   TracingP6SpyOptions options;
+  /**
+   * P6Spy asks for a listener per connection. One is shared, so that connections share the caches
+   * of span names, endpoints and normalized sql. Options are loaded after {@link #getOptions}, so
+   * this is created on first use.
+   */
+  volatile TracingJdbcEventListener listener;
 
   @Override public P6LoadableOptions getOptions(P6OptionsRepository repository) {
+    listener = null;
     return options = new TracingP6SpyOptions(repository);
   }
 
   @Override public JdbcEventListener getJdbcEventListener() {
-    return new TracingJdbcEventListener(options.remoteServiceName());
+    TracingJdbcEventListener result = listener;
+    if (result == null) {
+      synchronized (this) {
+        result = listener;
+        if (result == null) {
+          listener = result = new TracingJdbcEventListener(options.remoteServiceName(),
+              options.normalizeSql(), options.resultSetTiming());
+        }
+      }
+    }
+    return result;
   }
 }
@@ -6,6 +6,8 @@ import java.util.Map;
 
 final class TracingP6SpyOptions extends P6SpyOptions {
   static final String REMOTE_SERVICE_NAME = "remoteServiceName";
+  static final String NORMALIZE_SQL = "normalizeSql";
+  static final String RESULT_SET_TIMING = "resultSetTiming";
 
   final P6OptionsRepository optionsRepository;
 
@@ -17,9 +19,19 @@ final class TracingP6SpyOptions extends P6SpyOptions {
   @Override public void load(Map<String, String> options) {
     super.load(options);
     optionsRepository.set(String.class, REMOTE_SERVICE_NAME, options.get(REMOTE_SERVICE_NAME));
+    optionsRepository.set(Boolean.class, NORMALIZE_SQL, options.get(NORMALIZE_SQL));
+    optionsRepository.set(Boolean.class, RESULT_SET_TIMING, options.get(RESULT_SET_TIMING));
   }
 
   String remoteServiceName() {
     return optionsRepository.get(String.class, REMOTE_SERVICE_NAME);
   }
+
+  boolean normalizeSql() {
+    return Boolean.TRUE.equals(optionsRepository.get(Boolean.class, NORMALIZE_SQL));
+  }
+
+  boolean resultSetTiming() {
+    return Boolean.TRUE.equals(optionsRepository.get(Boolean.class, RESULT_SET_TIMING));
+  }
 }
@@ -9,6 +9,7 @@ import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.concurrent.ConcurrentLinkedDeque;
 import org.junit.After;
 import org.junit.Before;
@@ -100,6 +101,52 @@ public class ITTracingP6Factory {
         .contains(tuple(Constants.SERVER_ADDR, "myservice"));
   }
 
+  @Test
+  public void statementIncludesQuery() throws Exception {
+    try (Statement statement = connection.createStatement()) {
+      statement.execute(QUERY);
+    }
+
+    assertThat(spans)
+        .extracting(s -> s.name)
+        .containsExactly("select");
+    assertThat(spans)
+        .flatExtracting(s -> s.binaryAnnotations)
+        .filteredOn(a -> a.key.equals(TraceKeys.SQL_QUERY))
+        .extracting(a -> new String(a.value, Util.UTF_8))
+        .containsExactly(QUERY);
+  }
+
+  @Test
+  public void batchIsSingleSpan() throws Exception {
+    try (Statement statement = connection.createStatement()) {
+      statement.execute("CREATE TABLE batch_test (id INT)");
+    }
+    spans.clear();
+
+    try (PreparedStatement ps = connection.prepareStatement("INSERT INTO batch_test VALUES (?)")) {
+      for (int i = 0; i < 3; i++) {
+        ps.setInt(1, i);
+        ps.addBatch();
+      }
+      ps.executeBatch();
+    } finally {
+      try (Statement statement = connection.createStatement()) {
+        statement.execute("DROP TABLE batch_test");
+      }
+    }
+
+    assertThat(spans.getFirst().name)
+        .isEqualTo("insert");
+    assertThat(spans.getFirst().binaryAnnotations)
+        .extracting(a -> a.key, a -> new String(a.value, Util.UTF_8))
+        .contains(
+            tuple(TraceKeys.SQL_QUERY, "INSERT INTO batch_test VALUES (?)"),
+            tuple("jdbc.batch.count", "3"),
+            tuple("jdbc.batch.rows", "3")
+        );
+  }
+
   void prepareExecuteSelect(String query) throws SQLException {
     try (PreparedStatement ps = connection.prepareStatement(query)) {
       try (ResultSet resultSet = ps.executeQuery()) {
@@ -0,0 +1,46 @@
+package brave.p6spy;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SpanNamesTest {
+  SpanNames spanNames = new SpanNames(1);
+
+  @Test public void verb() {
+    assertThat(SpanNames.verb("select * from users"))
+        .isEqualTo("select");
+  }
+
+  @Test public void verb_singleWord() {
+    assertThat(SpanNames.verb("COMMIT"))
+        .isEqualTo("COMMIT");
+  }
+
+  @Test public void verb_leadingWhitespace() {
+    assertThat(SpanNames.verb("\n  update users\tset name = ?"))
+        .isEqualTo("update");
+  }
+
+  @Test public void verb_empty() {
+    assertThat(SpanNames.verb(""))
+        .isEmpty();
+    assertThat(SpanNames.verb("   "))
+        .isEmpty();
+  }
+
+  @Test public void forPreparedSql_cached() {
+    String name = spanNames.forPreparedSql("select * from users where id = ?");
+
+    assertThat(spanNames.forPreparedSql("select * from users where id = ?"))
+        .isSameAs(name);
+  }
+
+  @Test public void forPreparedSql_bounded() {
+    spanNames.forPreparedSql("select * from users where id = ?");
+    spanNames.forPreparedSql("delete from users where id = ?");
+
+    assertThat(spanNames.cache)
+        .containsOnlyKeys("delete from users where id = ?");
+  }
+}
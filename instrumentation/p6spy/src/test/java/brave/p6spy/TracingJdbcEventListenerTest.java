@@ -1,17 +1,28 @@
 package brave.p6spy;
 
-import brave.Span;
+import brave.Tracing;
+import com.p6spy.engine.common.ConnectionInformation;
+import com.p6spy.engine.common.ResultSetInformation;
+import com.p6spy.engine.common.StatementInformation;
 import java.sql.Connection;
 import java.sql.DatabaseMetaData;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
+import zipkin.Constants;
 import zipkin.Endpoint;
+import zipkin.TraceKeys;
+import zipkin.internal.Util;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
-import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -19,17 +30,14 @@ public class TracingJdbcEventListenerTest {
   @Mock Connection connection;
   @Mock DatabaseMetaData metaData;
 
-  @Mock Span span;
   String url = "jdbc:mysql://127.0.0.1:5555/mydatabase";
 
   @Test public void parseServerAddress_ipAndPortFromUrl() throws SQLException {
     when(connection.getMetaData()).thenReturn(metaData);
     when(metaData.getURL()).thenReturn(url);
 
-    new TracingJdbcEventListener("").parseServerAddress(connection, span);
-
-    verify(span).remoteEndpoint(Endpoint.builder().serviceName("")
-        .ipv4(127 << 24 | 1).port(5555).build());
+    assertThat(new TracingJdbcEventListener("", false, false).parseServerAddress(connection))
+        .isEqualTo(Endpoint.builder().serviceName("").ipv4(127 << 24 | 1).port(5555).build());
   }
 
   @Test public void parseServerAddress_serviceNameFromDatabaseName() throws SQLException {
@@ -37,33 +45,241 @@ public class TracingJdbcEventListenerTest {
     when(metaData.getURL()).thenReturn(url);
     when(connection.getCatalog()).thenReturn("mydatabase");
 
-    new TracingJdbcEventListener("").parseServerAddress(connection, span);
-
-    verify(span).remoteEndpoint(Endpoint.builder().serviceName("mydatabase")
-        .ipv4(127 << 24 | 1).port(5555).build());
+    assertThat(new TracingJdbcEventListener("", false, false).parseServerAddress(connection))
+        .isEqualTo(Endpoint.builder().serviceName("mydatabase")
+            .ipv4(127 << 24 | 1).port(5555).build());
   }
 
   @Test public void parseServerAddress_overrideServiceName() throws SQLException {
     when(connection.getMetaData()).thenReturn(metaData);
     when(metaData.getURL()).thenReturn(url);
 
-    new TracingJdbcEventListener("foo").parseServerAddress(connection, span);
-
-    verify(span).remoteEndpoint(Endpoint.builder().serviceName("foo")
-        .ipv4(127 << 24 | 1).port(5555).build());
+    assertThat(new TracingJdbcEventListener("foo", false, false).parseServerAddress(connection))
+        .isEqualTo(Endpoint.builder().serviceName("foo").ipv4(127 << 24 | 1).port(5555).build());
   }
 
   @Test public void parseServerAddress_doesntNsLookup() throws SQLException {
     when(connection.getMetaData()).thenReturn(metaData);
     when(metaData.getURL()).thenReturn("jdbc:mysql://localhost:5555/mydatabase");
 
-    new TracingJdbcEventListener("").parseServerAddress(connection, span);
-    verifyNoMoreInteractions(span);
+    assertThat(new TracingJdbcEventListener("", false, false).parseServerAddress(connection))
+        .isNull();
   }
 
-  @Test public void parseServerAddress_doesntCrash() throws SQLException {
+  @Test public void remoteEndpoint_doesntCrash() throws SQLException {
     when(connection.getMetaData()).thenThrow(new SQLException());
 
-    verifyNoMoreInteractions(span);
+    assertThat(new TracingJdbcEventListener("", false, false).remoteEndpoint(
+        ConnectionInformation.fromTestConnection(connection)))
+        .isNull();
+  }
+
+  @Test public void remoteEndpoint_cachedUntilConnectionClose() throws SQLException {
+    when(connection.getMetaData()).thenReturn(metaData);
+    when(metaData.getURL()).thenReturn(url);
+    TracingJdbcEventListener listener = new TracingJdbcEventListener("foo", false, false);
+    ConnectionInformation info = ConnectionInformation.fromTestConnection(connection);
+
+    Endpoint endpoint = listener.remoteEndpoint(info);
+    assertThat(listener.remoteEndpoint(info))
+        .isSameAs(endpoint);
+    verify(connection, times(1)).getMetaData();
+
+    listener.onAfterConnectionClose(info, null);
+    assertThat(listener.endpoints).isEmpty();
+  }
+
+  @Test public void remoteEndpoint_cachesUnparsed() throws SQLException {
+    when(connection.getMetaData()).thenReturn(metaData);
+    when(metaData.getURL()).thenReturn("jdbc:mysql://localhost:5555/mydatabase");
+    TracingJdbcEventListener listener = new TracingJdbcEventListener("", false, false);
+    ConnectionInformation info = ConnectionInformation.fromTestConnection(connection);
+
+    assertThat(listener.remoteEndpoint(info)).isNull();
+    assertThat(listener.remoteEndpoint(info)).isNull();
+    verify(connection, times(1)).getMetaData();
+  }
+
+  @Test public void normalizeSql() {
+    List<zipkin.Span> spans = new ArrayList<>();
+    try (Tracing tracing = Tracing.newBuilder().reporter(spans::add).build()) {
+      TracingJdbcEventListener listener = new TracingJdbcEventListener("", true, false);
+      StatementInformation info =
+          new StatementInformation(ConnectionInformation.fromTestConnection(connection));
+      info.setStatementQuery("select * from users where id in (1, 2)");
+
+      listener.onBeforeAnyExecute(info);
+      listener.onAfterAnyExecute(info, 1L, null);
+    }
+
+    assertThat(spans)
+        .flatExtracting(s -> s.binaryAnnotations)
+        .filteredOn(a -> a.key.equals(TraceKeys.SQL_QUERY))
+        .extracting(a -> new String(a.value, Util.UTF_8))
+        .containsExactly("select * from users where id in (?)");
+  }
+
+  @Test public void executeBatch_singleSpanTaggedWithFirstStatementAndCounts() {
+    List<zipkin.Span> spans = new ArrayList<>();
+    try (Tracing tracing = Tracing.newBuilder().reporter(spans::add).build()) {
+      TracingJdbcEventListener listener = new TracingJdbcEventListener("", false, false);
+      StatementInformation info =
+          new StatementInformation(ConnectionInformation.fromTestConnection(connection));
+      listener.onBeforeAddBatch(info, "insert into users values (1)");
+      listener.onBeforeAddBatch(info, "update users set id = 2");
+
+      listener.onBeforeExecuteBatch(info);
+      listener.onAfterExecuteBatch(info, 1L, new int[] {1, 3}, null);
+      assertThat(listener.batchSql).isEmpty();
+    }
+
+    assertThat(spans)
+        .extracting(s -> s.name)
+        .containsExactly("insert");
+    assertThat(spans)
+        .flatExtracting(s -> s.binaryAnnotations)
+        .filteredOn(a -> !a.key.equals(Constants.SERVER_ADDR))
+        .extracting(a -> a.key, a -> new String(a.value, Util.UTF_8))
+        .containsOnly(
+            tuple(TraceKeys.SQL_QUERY, "insert into users values (1)"),
+            tuple(TracingJdbcEventListener.BATCH_COUNT, "2"),
+            tuple(TracingJdbcEventListener.BATCH_ROWS, "4")
+        );
+  }
+
+  @Test public void executeBatch_skipsRowsWhenUnknown() {
+    List<zipkin.Span> spans = new ArrayList<>();
+    try (Tracing tracing = Tracing.newBuilder().reporter(spans::add).build()) {
+      TracingJdbcEventListener listener = new TracingJdbcEventListener("", false, false);
+      StatementInformation info =
+          new StatementInformation(ConnectionInformation.fromTestConnection(connection));
+      listener.onBeforeAddBatch(info, "insert into users values (1)");
+
+      listener.onBeforeExecuteBatch(info);
+      listener.onAfterExecuteBatch(info, 1L, new int[] {1, Statement.SUCCESS_NO_INFO}, null);
+    }
+
+    assertThat(spans)
+        .flatExtracting(s -> s.binaryAnnotations)
+        .extracting(a -> a.key)
+        .contains(TracingJdbcEventListener.BATCH_COUNT)
+        .doesNotContain(TracingJdbcEventListener.BATCH_ROWS);
+  }
+
+  @Test public void resultSetTiming_finishesAfterLastRow() {
+    List<zipkin.Span> spans = new ArrayList<>();
+    try (Tracing tracing = Tracing.newBuilder().reporter(spans::add).build()) {
+      TracingJdbcEventListener listener = new TracingJdbcEventListener("", false, true);
+      StatementInformation info =
+          new StatementInformation(ConnectionInformation.fromTestConnection(connection));
+      ResultSetInformation resultSet = new ResultSetInformation(info);
+
+      listener.onBeforeExecuteQuery(info, "select * from users");
+      listener.onAfterExecuteQuery(info, 1L, "select * from users", null);
+      listener.onAfterResultSetNext(resultSet, 1L, true, null);
+      listener.onAfterResultSetNext(resultSet, 1L, true, null);
+      assertThat(spans).isEmpty();
+
+      listener.onAfterResultSetNext(resultSet, 1L, false, null);
+      listener.onAfterResultSetClose(resultSet, null);
+      assertThat(listener.fetches).isEmpty();
+    }
+
+    assertThat(spans)
+        .flatExtracting(s -> s.annotations)
+        .extracting(a -> a.value)
+        .containsExactly("cs", TracingJdbcEventListener.EXECUTED, "cr");
+    assertThat(spans)
+        .flatExtracting(s -> s.binaryAnnotations)
+        .filteredOn(a -> a.key.equals(TracingJdbcEventListener.RESULT_SET_ROWS))
+        .extracting(a -> new String(a.value, Util.UTF_8))
+        .containsExactly("2");
+  }
+
+  @Test public void resultSetTiming_finishesOnClose() {
+    List<zipkin.Span> spans = new ArrayList<>();
+    try (Tracing tracing = Tracing.newBuilder().reporter(spans::add).build()) {
+      TracingJdbcEventListener listener = new TracingJdbcEventListener("", false, true);
+      StatementInformation info =
+          new StatementInformation(ConnectionInformation.fromTestConnection(connection));
+      ResultSetInformation resultSet = new ResultSetInformation(info);
+
+      listener.onBeforeExecuteQuery(info, "select * from users");
+      listener.onAfterExecuteQuery(info, 1L, "select * from users", null);
+      listener.onAfterResultSetNext(resultSet, 1L, true, null);
+      listener.onAfterResultSetClose(resultSet, null);
+    }
+
+    assertThat(spans)
+        .flatExtracting(s -> s.binaryAnnotations)
+        .filteredOn(a -> a.key.equals(TracingJdbcEventListener.RESULT_SET_ROWS))
+        .extracting(a -> new String(a.value, Util.UTF_8))
+        .containsExactly("1");
+  }
+
+  @Test public void resultSetTiming_finishesOnConnectionClose() {
+    List<zipkin.Span> spans = new ArrayList<>();
+    try (Tracing tracing = Tracing.newBuilder().reporter(spans::add).build()) {
+      TracingJdbcEventListener listener = new TracingJdbcEventListener("", false, true);
+      ConnectionInformation connectionInfo = ConnectionInformation.fromTestConnection(connection);
+      StatementInformation info = new StatementInformation(connectionInfo);
+      StatementInformation other = new StatementInformation(
+          ConnectionInformation.fromTestConnection(connection));
+
+      listener.onBeforeExecuteQuery(info, "select * from users");
+      listener.onAfterExecuteQuery(info, 1L, "select * from users", null);
+      listener.onAfterResultSetNext(new ResultSetInformation(info), 1L, true, null);
+      listener.onBeforeExecuteQuery(other, "select * from users");
+      listener.onAfterExecuteQuery(other, 1L, "select * from users", null);
+
+      listener.onAfterConnectionClose(connectionInfo, null);
+      assertThat(listener.fetches).containsOnlyKeys(other.getConnectionInformation());
+    }
+
+    assertThat(spans)
+        .flatExtracting(s -> s.binaryAnnotations)
+        .filteredOn(a -> a.key.equals(TracingJdbcEventListener.RESULT_SET_ROWS))
+        .extracting(a -> new String(a.value, Util.UTF_8))
+        .containsExactly("1");
+  }
+
+  @Test public void resultSetTiming_finishesOnNextStatement() {
+    List<zipkin.Span> spans = new ArrayList<>();
+    try (Tracing tracing = Tracing.newBuilder().reporter(spans::add).build()) {
+      TracingJdbcEventListener listener = new TracingJdbcEventListener("", false, true);
+      ConnectionInformation connectionInfo = ConnectionInformation.fromTestConnection(connection);
+      StatementInformation info = new StatementInformation(connectionInfo);
+      StatementInformation next = new StatementInformation(connectionInfo);
+
+      listener.onBeforeExecuteQuery(info, "select * from users");
+      listener.onAfterExecuteQuery(info, 1L, "select * from users", null);
+      listener.onAfterResultSetNext(new ResultSetInformation(info), 1L, true, null);
+      assertThat(spans).isEmpty();
+
+      listener.onBeforeExecuteUpdate(next, "delete from users");
+      assertThat(spans).hasSize(1);
+      listener.onAfterExecuteUpdate(next, 1L, "delete from users", 1, null);
+      assertThat(listener.fetches).isEmpty();
+    }
+
+    assertThat(spans)
+        .flatExtracting(s -> s.binaryAnnotations)
+        .filteredOn(a -> a.key.equals(TracingJdbcEventListener.RESULT_SET_ROWS))
+        .extracting(a -> new String(a.value, Util.UTF_8))
+        .containsExactly("1");
+  }
+
+  @Test public void resultSetTiming_disabledFinishesOnExecute() {
+    List<zipkin.Span> spans = new ArrayList<>();
+    try (Tracing tracing = Tracing.newBuilder().reporter(spans::add).build()) {
+      TracingJdbcEventListener listener = new TracingJdbcEventListener("", false, false);
+      StatementInformation info =
+          new StatementInformation(ConnectionInformation.fromTestConnection(connection));
+
+      listener.onBeforeExecuteQuery(info, "select * from users");
+      listener.onAfterExecuteQuery(info, 1L, "select * from users", null);
+      assertThat(spans).hasSize(1);
+      assertThat(listener.fetches).isEmpty();
+    }
   }
 }
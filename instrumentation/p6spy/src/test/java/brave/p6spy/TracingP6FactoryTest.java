@@ -0,0 +1,32 @@
+package brave.p6spy;
+
+import com.p6spy.engine.event.JdbcEventListener;
+import com.p6spy.engine.spy.option.P6OptionsRepository;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TracingP6FactoryTest {
+  TracingP6Factory factory = new TracingP6Factory();
+  P6OptionsRepository repository = new P6OptionsRepository();
+
+  @Before public void loadOptions() {
+    factory.getOptions(repository);
+    repository.initCompleted();
+  }
+
+  @Test public void getJdbcEventListener_sharedAcrossConnections() {
+    assertThat(factory.getJdbcEventListener())
+        .isSameAs(factory.getJdbcEventListener());
+  }
+
+  @Test public void getOptions_resetsListener() {
+    JdbcEventListener listener = factory.getJdbcEventListener();
+
+    factory.getOptions(repository);
+
+    assertThat(factory.getJdbcEventListener())
+        .isNotSameAs(listener);
+  }
+}
@@ -9,8 +9,26 @@ import zipkin.Endpoint;
 // public for others like sparkjava to use
 public final class HttpServletAdapter
     extends HttpServerAdapter<HttpServletRequest, HttpServletResponse> {
+  /**
+   * Frameworks which match routes, such as Spring Web MVC, set the route template of the request
+   * as an attribute with this name.
+   */
+  public static final String ROUTE_ATTRIBUTE = "http.route";
+
   final ServletRuntime servlet = ServletRuntime.get();
 
+  /**
+   * Returns the value of the request attribute {@link #ROUTE_ATTRIBUTE}, if it is a string.
+   *
+   * <p>Note: {@link TracingFilter} names the span before the request reaches frameworks, so this is
+   * null there unless an earlier filter set the attribute. Frameworks that match routes later, such
+   * as Spring WebMVC, need their own instrumentation to add the route to the span.
+   */
+  @Override public String route(HttpServletRequest request) {
+    Object route = request.getAttribute(ROUTE_ATTRIBUTE);
+    return route instanceof String ? (String) route : null;
+  }
+
   /**
    * Parses the remote address, via the "X-Forwarded-For" header, falling back to the
    * {@linkplain HttpServletRequest#getRemoteAddr() remote address}.
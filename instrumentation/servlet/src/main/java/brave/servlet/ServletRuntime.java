@@ -6,6 +6,7 @@ import java.io.IOException;
 import javax.annotation.Nullable;
 import javax.servlet.AsyncEvent;
 import javax.servlet.AsyncListener;
+import javax.servlet.ServletRequest;
 import javax.servlet.ServletResponse;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
@@ -29,8 +30,16 @@ abstract class ServletRuntime {
 
   abstract boolean isAsync(HttpServletRequest request);
 
-  abstract void handleAsync(HttpServerHandler<HttpServletRequest, HttpServletResponse> handler,
-      HttpServletRequest request, Span span);
+  /**
+   * Returns a listener shared by all async requests of a filter, or null when async isn't
+   * supported. This returns {@code Object} so that this type can load in Servlet 2.5, which lacks
+   * {@link AsyncListener}.
+   */
+  abstract @Nullable Object asyncListener(
+      HttpServerHandler<HttpServletRequest, HttpServletResponse> handler);
+
+  /** @param asyncListener the result of {@link #asyncListener} */
+  abstract void handleAsync(Object asyncListener, HttpServletRequest request, Span span);
 
   ServletRuntime() {
   }
@@ -65,26 +74,62 @@ abstract class ServletRuntime {
       return response.getStatus();
     }
 
-    @Override void handleAsync(HttpServerHandler<HttpServletRequest, HttpServletResponse> handler,
-        HttpServletRequest request, Span span) {
+    @Override Object asyncListener(
+        HttpServerHandler<HttpServletRequest, HttpServletResponse> handler) {
+      return new TracingAsyncListener(handler);
+    }
+
+    @Override void handleAsync(Object asyncListener, HttpServletRequest request, Span span) {
       if (span.isNoop()) return; // don't add overhead when we aren't httpTracing
-      request.getAsyncContext().addListener(new AsyncListener() {
-        @Override public void onComplete(AsyncEvent e) throws IOException {
-          handler.handleSend((HttpServletResponse) e.getSuppliedResponse(), null, span);
-        }
+      request.setAttribute(TracingAsyncListener.SPAN_ATTRIBUTE, span);
+      request.getAsyncContext().addListener((AsyncListener) asyncListener);
+    }
+  }
+
+  /**
+   * Finishes the span saved as a request attribute, so that async requests don't each allocate a
+   * listener. The attribute is removed once handled, as a timeout or error is followed by complete.
+   */
+  static final class TracingAsyncListener implements AsyncListener {
+    static final String SPAN_ATTRIBUTE = TracingAsyncListener.class.getName() + ".span";
+
+    final HttpServerHandler<HttpServletRequest, HttpServletResponse> handler;
+
+    TracingAsyncListener(HttpServerHandler<HttpServletRequest, HttpServletResponse> handler) {
+      this.handler = handler;
+    }
+
+    @Override public void onComplete(AsyncEvent e) throws IOException {
+      Span span = takeSpan(e);
+      if (span == null) return;
+      handler.handleSend((HttpServletResponse) e.getSuppliedResponse(), null, span);
+    }
+
+    @Override public void onTimeout(AsyncEvent e) throws IOException {
+      Span span = takeSpan(e);
+      if (span == null) return;
+      span.tag(ERROR, String.format("Timed out after %sms", e.getAsyncContext().getTimeout()));
+      handler.handleSend((HttpServletResponse) e.getSuppliedResponse(), null, span);
+    }
+
+    @Override public void onError(AsyncEvent e) throws IOException {
+      Span span = takeSpan(e);
+      if (span == null) return;
+      handler.handleSend(null, e.getThrowable(), span);
+    }
 
-        @Override public void onTimeout(AsyncEvent e) throws IOException {
-          span.tag(ERROR, String.format("Timed out after %sms", e.getAsyncContext().getTimeout()));
-          handler.handleSend((HttpServletResponse) e.getSuppliedResponse(), null, span);
-        }
+    @Override public void onStartAsync(AsyncEvent e) throws IOException {
+    }
 
-        @Override public void onError(AsyncEvent e) throws IOException {
-          handler.handleSend(null, e.getThrowable(), span);
-        }
+    @Nullable static Span takeSpan(AsyncEvent e) {
+      ServletRequest request = e.getAsyncContext().getRequest();
+      Span span = (Span) request.getAttribute(SPAN_ATTRIBUTE);
+      if (span != null) request.removeAttribute(SPAN_ATTRIBUTE);
+      return span;
+    }
 
-        @Override public void onStartAsync(AsyncEvent e) throws IOException {
-        }
-      });
+    @Override public String toString() {
+      return "TracingAsyncListener{" + handler + "}";
     }
   }
 
@@ -97,8 +142,12 @@ abstract class ServletRuntime {
       return false;
     }
 
-    @Override void handleAsync(HttpServerHandler<HttpServletRequest, HttpServletResponse> handler,
-        HttpServletRequest request, Span span) {
+    @Override @Nullable Object asyncListener(
+        HttpServerHandler<HttpServletRequest, HttpServletResponse> handler) {
+      return null;
+    }
+
+    @Override void handleAsync(Object asyncListener, HttpServletRequest request, Span span) {
       assert false : "this should never be called in Servlet 2.5";
     }
 
@@ -1,6 +1,7 @@
 package brave.servlet;
 
 import brave.Span;
+import brave.SpanCustomizer;
 import brave.Tracer;
 import brave.Tracing;
 import brave.http.HttpServerHandler;
@@ -16,6 +17,11 @@ import javax.servlet.ServletResponse;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
+/**
+ * Traces incoming requests. The span representing the request is available to downstream filters
+ * and frameworks as the request attribute named after {@link SpanCustomizer}. For example, Spring
+ * WebMVC's tracing interceptor uses it to add the route, instead of tracing the request again.
+ */
 public final class TracingFilter implements Filter {
   public static Filter create(Tracing tracing) {
     return new TracingFilter(HttpTracing.create(tracing));
@@ -29,11 +35,13 @@ public final class TracingFilter implements Filter {
   final Tracer tracer;
   final HttpServerHandler<HttpServletRequest, HttpServletResponse> handler;
   final TraceContext.Extractor<HttpServletRequest> extractor;
+  final Object asyncListener; // null in Servlet 2.5
 
   TracingFilter(HttpTracing httpTracing) {
     tracer = httpTracing.tracing().tracer();
     handler = HttpServerHandler.create(httpTracing, new HttpServletAdapter());
     extractor = httpTracing.tracing().propagation().extractor(HttpServletRequest::getHeader);
+    asyncListener = servlet.asyncListener(handler);
   }
 
   @Override
@@ -43,6 +51,7 @@ public final class TracingFilter implements Filter {
     HttpServletResponse httpResponse = servlet.httpResponse(response);
 
     Span span = handler.handleReceive(extractor, httpRequest);
+    httpRequest.setAttribute(SpanCustomizer.class.getName(), span);
     Throwable error = null;
     try (Tracer.SpanInScope ws = tracer.withSpanInScope(span)) {
       chain.doFilter(httpRequest, httpResponse); // any downstream filters see Tracer.currentSpan
@@ -50,10 +59,13 @@ public final class TracingFilter implements Filter {
       error = e;
       throw e;
     } finally {
-      if (servlet.isAsync(httpRequest)) { // we don't have the actual response, handle later
-        servlet.handleAsync(handler, httpRequest, span);
-      } else { // we have a synchronous response, so we can finish the span
-        handler.handleSend(httpResponse, error, span);
+      // a noop span has nothing to finish, so we needn't check if the request is async
+      if (!span.isNoop()) {
+        if (servlet.isAsync(httpRequest)) { // we don't have the actual response, handle later
+          servlet.handleAsync(asyncListener, httpRequest, span);
+        } else { // we have a synchronous response, so we can finish the span
+          handler.handleSend(httpResponse, error, span);
+        }
       }
     }
   }
@@ -28,6 +28,18 @@ public class HttpServletAdapterTest {
         .isEqualTo("/bar");
   }
 
+  @Test public void route_nullWhenAttributeAbsent() {
+    assertThat(adapter.route(request))
+        .isNull();
+  }
+
+  @Test public void route_readsAttribute() {
+    when(request.getAttribute(HttpServletAdapter.ROUTE_ATTRIBUTE)).thenReturn("/users/{userId}");
+
+    assertThat(adapter.route(request))
+        .isEqualTo("/users/{userId}");
+  }
+
   @Test public void url_derivedFromUrlAndQueryString() {
     when(request.getRequestURL()).thenReturn(new StringBuffer("http://foo:8080/bar"));
     when(request.getQueryString()).thenReturn("hello=world");
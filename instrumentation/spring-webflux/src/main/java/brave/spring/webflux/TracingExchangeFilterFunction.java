@@ -0,0 +1,98 @@
+package brave.spring.webflux;
+
+import brave.Span;
+import brave.Tracing;
+import brave.http.HttpClientAdapter;
+import brave.http.HttpClientHandler;
+import brave.http.HttpTracing;
+import brave.propagation.CurrentTraceContext;
+import brave.propagation.TraceContext;
+import java.util.concurrent.CancellationException;
+import javax.annotation.Nullable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+
+/**
+ * Traces requests made by a {@link org.springframework.web.reactive.function.client.WebClient}.
+ *
+ * <p>The parent is the span in scope when the exchange is created, not when it is subscribed to,
+ * as subscription often happens later on another thread. When nothing is in scope, the parent is
+ * the {@link TraceContext} in the subscriber context, such as that added by {@link
+ * TracingWebFilter}.
+ *
+ * <p>When the exchange is cancelled before the response arrives, the span is tagged with the
+ * {@link zipkin.Constants#ERROR error} "CANCELLED".
+ */
+public final class TracingExchangeFilterFunction implements ExchangeFilterFunction {
+  public static ExchangeFilterFunction create(Tracing tracing) {
+    return create(HttpTracing.create(tracing));
+  }
+
+  public static ExchangeFilterFunction create(HttpTracing httpTracing) {
+    return new TracingExchangeFilterFunction(httpTracing);
+  }
+
+  /** The error tag of spans whose exchange was cancelled before the response arrived */
+  static final String CANCELLED = "CANCELLED";
+
+  final CurrentTraceContext currentTraceContext;
+  final HttpClientHandler<ClientRequest, ClientResponse> handler;
+  final TraceContext.Injector<ClientRequest.Builder> injector;
+
+  @Autowired TracingExchangeFilterFunction(HttpTracing httpTracing) {
+    currentTraceContext = httpTracing.tracing().currentTraceContext();
+    handler = HttpClientHandler.create(httpTracing, new HttpAdapter());
+    injector = httpTracing.tracing().propagation().injector(ClientRequest.Builder::header);
+  }
+
+  @Override public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+    TraceContext parent = currentTraceContext.get();
+    // deferred so that each subscription, such as a retry, is a new span
+    if (parent != null) return Mono.defer(() -> exchange(request, next, parent));
+    // ex. the exchange was created on another thread than the server request it is part of
+    return Mono.subscriberContext().flatMap(context ->
+        exchange(request, next, context.getOrDefault(TraceContext.class, null)));
+  }
+
+  Mono<ClientResponse> exchange(ClientRequest request, ExchangeFunction next,
+      @Nullable TraceContext parent) {
+    ClientRequest.Builder builder = ClientRequest.from(request);
+    Span span;
+    try (CurrentTraceContext.Scope ws = currentTraceContext.newScope(parent)) {
+      span = handler.handleSend(injector, builder, request);
+    }
+    Mono<ClientResponse> exchange;
+    try (CurrentTraceContext.Scope ws = currentTraceContext.newScope(span.context())) {
+      exchange = next.exchange(builder.build());
+    } catch (RuntimeException | Error e) {
+      handler.handleReceive(null, e, span);
+      throw e;
+    }
+    return exchange
+        .doOnSuccessOrError((response, error) -> handler.handleReceive(response, error, span))
+        .doOnCancel(() -> handler.handleReceive(null, new CancellationException(CANCELLED), span));
+  }
+
+  static final class HttpAdapter extends HttpClientAdapter<ClientRequest, ClientResponse> {
+
+    @Override public String method(ClientRequest request) {
+      return request.method().name();
+    }
+
+    @Override public String url(ClientRequest request) {
+      return request.url().toString();
+    }
+
+    @Override public String requestHeader(ClientRequest request, String name) {
+      return request.headers().getFirst(name);
+    }
+
+    @Override public Integer statusCode(ClientResponse response) {
+      return response.statusCode().value();
+    }
+  }
+}
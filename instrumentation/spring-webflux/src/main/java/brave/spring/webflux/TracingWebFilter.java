@@ -0,0 +1,192 @@
+package brave.spring.webflux;
+
+import brave.Span;
+import brave.Tracing;
+import brave.http.HttpServerAdapter;
+import brave.http.HttpServerHandler;
+import brave.http.HttpTracing;
+import brave.propagation.CurrentTraceContext;
+import brave.propagation.TraceContext;
+import java.net.InetSocketAddress;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.annotation.Nullable;
+import org.reactivestreams.Subscription;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.CoreSubscriber;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+import zipkin.Endpoint;
+
+/**
+ * Traces requests handled by Spring WebFlux.
+ *
+ * <p>The span is only in scope while the rest of the filter chain is subscribed to, so user code
+ * invoked synchronously, such as controller methods, sees it as the current span. Reactor doesn't
+ * use thread locals, so code running later on another thread should read the {@link TraceContext}
+ * from the subscriber {@link Context}, where it is stored under the key {@code
+ * TraceContext.class}.
+ */
+public final class TracingWebFilter implements WebFilter {
+  public static WebFilter create(Tracing tracing) {
+    return create(HttpTracing.create(tracing));
+  }
+
+  public static WebFilter create(HttpTracing httpTracing) {
+    return new TracingWebFilter(httpTracing);
+  }
+
+  final CurrentTraceContext currentTraceContext;
+  final HttpServerHandler<ServerHttpRequest, ServerHttpResponse> handler;
+  final TraceContext.Extractor<ServerHttpRequest> extractor;
+
+  @Autowired TracingWebFilter(HttpTracing httpTracing) {
+    currentTraceContext = httpTracing.tracing().currentTraceContext();
+    handler = HttpServerHandler.create(httpTracing, new HttpAdapter());
+    extractor = httpTracing.tracing().propagation()
+        .extractor((request, key) -> request.getHeaders().getFirst(key));
+  }
+
+  @Override public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+    Span span = handler.handleReceive(extractor, exchange.getRequest());
+    FinishSpan finishSpan = new FinishSpan(span, exchange.getResponse());
+    // Finish before the response is sent, as the client can otherwise see it before the span
+    exchange.getResponse().beforeCommit(() -> {
+      finishSpan.finish(null);
+      return Mono.empty();
+    });
+    return new TracingMono(chain, exchange, finishSpan);
+  }
+
+  /** Ensures the span is finished once, whether on commit, completion, error or cancel. */
+  final class FinishSpan {
+    final AtomicBoolean finished = new AtomicBoolean();
+    final Span span;
+    final ServerHttpResponse response;
+
+    FinishSpan(Span span, ServerHttpResponse response) {
+      this.span = span;
+      this.response = response;
+    }
+
+    void finish(@Nullable Throwable error) {
+      if (!finished.compareAndSet(false, true)) return;
+      // signals can arrive while the span is in scope, such as when the handler is synchronous
+      try (CurrentTraceContext.Scope ws = currentTraceContext.newScope(null)) {
+        handler.handleSend(response, error, span);
+      }
+    }
+  }
+
+  /** Subscribes to the rest of the filter chain with the span in scope. */
+  final class TracingMono extends Mono<Void> {
+    final WebFilterChain chain;
+    final ServerWebExchange exchange;
+    final FinishSpan finishSpan;
+
+    TracingMono(WebFilterChain chain, ServerWebExchange exchange, FinishSpan finishSpan) {
+      this.chain = chain;
+      this.exchange = exchange;
+      this.finishSpan = finishSpan;
+    }
+
+    @Override public void subscribe(CoreSubscriber<? super Void> actual) {
+      TraceContext context = finishSpan.span.context();
+      try (CurrentTraceContext.Scope ws = currentTraceContext.newScope(context)) {
+        chain.filter(exchange).subscribe(new TracingSubscriber(actual, context, finishSpan));
+      }
+    }
+  }
+
+  static final class TracingSubscriber implements CoreSubscriber<Void>, Subscription {
+    final CoreSubscriber<? super Void> actual;
+    final Context context;
+    final FinishSpan finishSpan;
+    Subscription upstream;
+
+    TracingSubscriber(CoreSubscriber<? super Void> actual, TraceContext traceContext,
+        FinishSpan finishSpan) {
+      this.actual = actual;
+      this.context = actual.currentContext().put(TraceContext.class, traceContext);
+      this.finishSpan = finishSpan;
+    }
+
+    @Override public Context currentContext() {
+      return context;
+    }
+
+    @Override public void onSubscribe(Subscription s) {
+      upstream = s;
+      actual.onSubscribe(this);
+    }
+
+    @Override public void onNext(Void value) {
+      actual.onNext(value);
+    }
+
+    @Override public void onError(Throwable t) {
+      finishSpan.finish(t);
+      actual.onError(t);
+    }
+
+    /**
+     * The span is usually finished when completion commits the response. Otherwise, such as when
+     * nothing commits it, the span is finished here.
+     */
+    @Override public void onComplete() {
+      actual.onComplete();
+      finishSpan.finish(null);
+    }
+
+    @Override public void request(long n) {
+      upstream.request(n);
+    }
+
+    @Override public void cancel() {
+      upstream.cancel();
+      finishSpan.finish(null);
+    }
+  }
+
+  static final class HttpAdapter extends HttpServerAdapter<ServerHttpRequest, ServerHttpResponse> {
+
+    /**
+     * Parses the remote address, via the "X-Forwarded-For" header, falling back to the
+     * {@linkplain ServerHttpRequest#getRemoteAddress() remote address}.
+     */
+    @Override public boolean parseClientAddress(ServerHttpRequest req, Endpoint.Builder builder) {
+      if (super.parseClientAddress(req, builder)) return true;
+      InetSocketAddress remoteAddress = req.getRemoteAddress();
+      if (remoteAddress == null || !builder.parseIp(remoteAddress.getAddress())) return false;
+      builder.port(remoteAddress.getPort());
+      return true;
+    }
+
+    @Override public String method(ServerHttpRequest request) {
+      return request.getMethodValue();
+    }
+
+    @Override public String path(ServerHttpRequest request) {
+      return request.getURI().getPath();
+    }
+
+    @Override public String url(ServerHttpRequest request) {
+      return request.getURI().toString();
+    }
+
+    @Override public String requestHeader(ServerHttpRequest request, String name) {
+      return request.getHeaders().getFirst(name);
+    }
+
+    /** Returns null when the status wasn't set, which implies 200 once committed. */
+    @Override public Integer statusCode(ServerHttpResponse response) {
+      HttpStatus status = response.getStatusCode();
+      return status != null ? status.value() : null;
+    }
+  }
+}
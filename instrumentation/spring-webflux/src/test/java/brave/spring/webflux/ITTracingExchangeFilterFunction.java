@@ -0,0 +1,84 @@
+package brave.spring.webflux;
+
+import brave.http.ITHttpClient;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.RecordedRequest;
+import okhttp3.mockwebserver.SocketPolicy;
+import org.junit.Test;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
+import zipkin.Constants;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ITTracingExchangeFilterFunction extends ITHttpClient<WebClient> {
+
+  @Override protected WebClient newClient(int port) {
+    return WebClient.builder()
+        .baseUrl("http://127.0.0.1:" + port)
+        .filter(TracingExchangeFilterFunction.create(httpTracing))
+        .build();
+  }
+
+  @Override protected void closeClient(WebClient client) {
+    // the connection pool is shared
+  }
+
+  @Override protected void get(WebClient client, String pathIncludingQuery) {
+    client.get().uri(pathIncludingQuery)
+        .exchange()
+        .flatMap(response -> response.bodyToMono(String.class))
+        .block();
+  }
+
+  @Override protected void post(WebClient client, String uri, String content) {
+    client.post().uri(uri)
+        .syncBody(content)
+        .exchange()
+        .flatMap(response -> response.bodyToMono(String.class))
+        .block();
+  }
+
+  @Override protected void getAsync(WebClient client, String uri) {
+    client.get().uri(uri)
+        .exchange()
+        .flatMap(response -> response.bodyToMono(String.class))
+        .subscribe();
+  }
+
+  @Test public void currentSpanVisibleToUserFilters() throws Exception {
+    server.enqueue(new MockResponse());
+
+    WebClient client = this.client.mutate().filter((request, next) -> next.exchange(
+        ClientRequest.from(request)
+            .header("my-id", currentTraceContext.get().traceIdString())
+            .build()
+    )).build();
+    get(client, "/foo");
+
+    RecordedRequest request = server.takeRequest();
+    assertThat(request.getHeader("x-b3-traceId"))
+        .isEqualTo(request.getHeader("my-id"));
+  }
+
+  @Test public void addsErrorTagOnCancel() throws Exception {
+    server.enqueue(new MockResponse().setSocketPolicy(SocketPolicy.NO_RESPONSE));
+
+    Disposable exchange = client.get().uri("/foo").exchange().subscribe();
+    server.takeRequest(); // wait until the request is sent
+    exchange.dispose();
+
+    assertReportedTagsInclude(Constants.ERROR, TracingExchangeFilterFunction.CANCELLED);
+  }
+
+  @Override @Test(expected = AssertionError.class)
+  public void redirect() throws Exception { // redirects aren't followed
+    super.redirect();
+  }
+
+  @Override @Test(expected = AssertionError.class)
+  public void reportsServerAddress() throws Exception { // doesn't know the remote address
+    super.reportsServerAddress();
+  }
+}
@@ -0,0 +1,158 @@
+package brave.spring.webflux;
+
+import brave.Tracer;
+import brave.http.HttpTracing;
+import brave.http.ITHttpServer;
+import brave.propagation.TraceContext;
+import java.io.IOException;
+import java.time.Duration;
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.HttpHandler;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ReactorHttpHandlerAdapter;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.reactive.config.EnableWebFlux;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.adapter.WebHttpHandlerBuilder;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.ipc.netty.NettyContext;
+import reactor.ipc.netty.http.server.HttpServer;
+import zipkin.Span;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ITTracingWebFilter extends ITHttpServer {
+  NettyContext server;
+
+  @RestController static class TestController {
+    final Tracer tracer;
+    final WebClient webClient;
+
+    @Autowired TestController(HttpTracing httpTracing) {
+      this.tracer = httpTracing.tracing().tracer();
+      this.webClient = WebClient.builder()
+          .filter(TracingExchangeFilterFunction.create(httpTracing))
+          .build();
+    }
+
+    @RequestMapping(value = "/foo")
+    public ResponseEntity<Void> foo() {
+      return new ResponseEntity<>(HttpStatus.OK);
+    }
+
+    @RequestMapping(value = "/badrequest")
+    public ResponseEntity<Void> badrequest() {
+      return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+    }
+
+    @RequestMapping(value = "/child")
+    public ResponseEntity<Void> child() {
+      tracer.nextSpan().name("child").start().finish();
+      return new ResponseEntity<>(HttpStatus.OK);
+    }
+
+    @RequestMapping(value = "/async")
+    public Mono<ResponseEntity<Void>> async() {
+      return Mono.fromCallable(() -> new ResponseEntity<Void>(HttpStatus.OK))
+          .subscribeOn(Schedulers.elastic());
+    }
+
+    @RequestMapping(value = "/childAsync")
+    public Mono<ResponseEntity<Void>> childAsync() {
+      return Mono.subscriberContext().publishOn(Schedulers.elastic()).map(context -> {
+        tracer.newChild(context.get(TraceContext.class)).name("child").start().finish();
+        return new ResponseEntity<>(HttpStatus.OK);
+      });
+    }
+
+    @RequestMapping(value = "/webClientAsync")
+    public Mono<ResponseEntity<Void>> webClientAsync(ServerHttpRequest request) {
+      // the delay hops threads, so the exchange is created when no span is in scope
+      return Mono.delay(Duration.ofMillis(1))
+          .flatMap(i -> webClient.get().uri(request.getURI().resolve("/foo")).exchange())
+          .flatMap(response -> response.bodyToMono(String.class)
+              .then(Mono.just(new ResponseEntity<Void>(response.statusCode()))));
+    }
+
+    @RequestMapping(value = "/exception")
+    public ResponseEntity<Void> disconnect() throws IOException {
+      throw new IOException();
+    }
+
+    @RequestMapping(value = "/exceptionAsync")
+    public Mono<ResponseEntity<Void>> disconnectAsync() {
+      return Mono.<ResponseEntity<Void>>fromCallable(() -> {
+        throw new IOException();
+      }).subscribeOn(Schedulers.elastic());
+    }
+  }
+
+  @Configuration
+  @EnableWebFlux
+  static class TracingConfig {
+    @Bean WebFilter tracingFilter(HttpTracing httpTracing) {
+      return TracingWebFilter.create(httpTracing);
+    }
+  }
+
+  /** Code on other threads can read the trace context from the subscriber context */
+  @Test public void createsChildSpan_subscriberContext() throws Exception {
+    get("/childAsync");
+
+    assertThat(spans).hasSize(2);
+
+    Span child = spans.pop();
+    Span parent = spans.pop();
+
+    assertThat(parent.traceId).isEqualTo(child.traceId);
+    assertThat(parent.id).isEqualTo(child.parentId);
+  }
+
+  /** WebClient calls on other threads are children of the request via the subscriber context */
+  @Test public void webClientIsChildOfRequest_subscriberContext() throws Exception {
+    get("/webClientAsync");
+
+    // the request, the WebClient call and the request that call made to "/foo"
+    assertThat(spans).hasSize(3)
+        .extracting(s -> s.traceId)
+        .containsOnly(spans.peek().traceId);
+    assertThat(spans)
+        .filteredOn(s -> s.parentId == null)
+        .hasSize(1);
+  }
+
+  @Override protected void init() {
+    stop();
+
+    AnnotationConfigApplicationContext appContext = new AnnotationConfigApplicationContext();
+    appContext.getBeanFactory().registerSingleton("httpTracing", httpTracing);
+    appContext.register(TestController.class); // the test resource
+    appContext.register(TracingConfig.class); // generic tracing setup
+    appContext.refresh();
+
+    HttpHandler handler = WebHttpHandlerBuilder.applicationContext(appContext).build();
+    server = HttpServer.create("127.0.0.1", 0)
+        .newHandler(new ReactorHttpHandlerAdapter(handler))
+        .block();
+  }
+
+  @Override protected String url(String path) {
+    return "http://127.0.0.1:" + server.address().getPort() + path;
+  }
+
+  @After public void stop() {
+    if (server == null) return;
+    server.dispose();
+    server.onClose().block();
+  }
+}
@@ -1,23 +1,32 @@
 package brave.spring.webmvc;
 
 import brave.Span;
+import brave.SpanCustomizer;
 import brave.Tracer;
 import brave.Tracer.SpanInScope;
 import brave.Tracing;
 import brave.http.HttpServerHandler;
+import brave.http.HttpServerParser;
 import brave.http.HttpTracing;
 import brave.propagation.TraceContext;
 import brave.servlet.HttpServletAdapter;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.servlet.AsyncHandlerInterceptor;
 import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
 import org.springframework.web.servlet.handler.HandlerInterceptorAdapter;
 
 /**
  * Tracing interceptor for Spring Web MVC, which can be used as both an {@link
  * AsyncHandlerInterceptor} or a normal {@link HandlerInterceptor}.
+ *
+ * <p>When {@link brave.servlet.TracingFilter} already traces the request, this adds what the
+ * {@link HttpServerParser parser} derives from the route to its span, as opposed to extracting and
+ * starting another one.
  */
 public final class TracingHandlerInterceptor extends HandlerInterceptorAdapter {
 
@@ -30,12 +39,16 @@ public final class TracingHandlerInterceptor extends HandlerInterceptorAdapter {
   }
 
   final Tracer tracer;
+  final HttpServerParser parser;
+  final HttpServletAdapter adapter;
   final HttpServerHandler<HttpServletRequest, HttpServletResponse> handler;
   final TraceContext.Extractor<HttpServletRequest> extractor;
 
   @Autowired TracingHandlerInterceptor(HttpTracing httpTracing) { // internal
     tracer = httpTracing.tracing().tracer();
-    handler = HttpServerHandler.create(httpTracing, new HttpServletAdapter());
+    parser = httpTracing.serverParser();
+    adapter = new HttpServletAdapter();
+    handler = HttpServerHandler.create(httpTracing, adapter);
     extractor = httpTracing.tracing().propagation().extractor(HttpServletRequest::getHeader);
   }
 
@@ -45,17 +58,80 @@ public final class TracingHandlerInterceptor extends HandlerInterceptorAdapter {
       return true; // already handled (possibly due to async request)
     }
 
+    // Spring has already matched the handler, so the adapter can read its route
+    Object route = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+
+    Object customizer = request.getAttribute(SpanCustomizer.class.getName());
+    if (customizer != null) { // TracingFilter started the span before the route was known
+      if (route != null && !isNoop(customizer)) {
+        parseRoute(request, route, (SpanCustomizer) customizer);
+      }
+      return true;
+    }
+
+    if (route != null) request.setAttribute(HttpServletAdapter.ROUTE_ATTRIBUTE, route);
     Span span = handler.handleReceive(extractor, request);
     request.setAttribute(SpanInScope.class.getName(), tracer.withSpanInScope(span));
     return true;
   }
 
+  /**
+   * Parses the request again now that the adapter knows its route. Only the name and tags which
+   * differ from what the filter parsed without the route are added, so no tag is repeated.
+   */
+  void parseRoute(HttpServletRequest request, Object route, SpanCustomizer customizer) {
+    ParsedRequest withoutRoute = new ParsedRequest();
+    parser.request(adapter, request, withoutRoute);
+    request.setAttribute(HttpServletAdapter.ROUTE_ATTRIBUTE, route);
+    ParsedRequest withRoute = new ParsedRequest();
+    parser.request(adapter, request, withRoute);
+
+    if (withRoute.name != null && !withRoute.name.equals(withoutRoute.name)) {
+      customizer.name(withRoute.name);
+    }
+    for (Map.Entry<String, String> tag : withRoute.tags.entrySet()) {
+      if (!tag.getValue().equals(withoutRoute.tags.get(tag.getKey()))) {
+        customizer.tag(tag.getKey(), tag.getValue());
+      }
+    }
+  }
+
   @Override
   public void afterCompletion(HttpServletRequest request, HttpServletResponse response,
       Object o, Exception ex) {
+    SpanInScope ws = (SpanInScope) request.getAttribute(SpanInScope.class.getName());
+    if (ws == null) return; // TracingFilter finishes its own span
     Span span = tracer.currentSpan();
     if (span == null) return;
-    ((SpanInScope) request.getAttribute(SpanInScope.class.getName())).close();
+    ws.close();
     handler.handleSend(response, ex, span);
   }
+
+  static boolean isNoop(Object customizer) {
+    return customizer instanceof Span && ((Span) customizer).isNoop();
+  }
+
+  /** Holds the name and tags a parser adds. Annotations aren't expected when parsing requests. */
+  static final class ParsedRequest implements SpanCustomizer {
+    String name;
+    final Map<String, String> tags = new LinkedHashMap<>();
+
+    @Override public SpanCustomizer name(String name) {
+      this.name = name;
+      return this;
+    }
+
+    @Override public SpanCustomizer tag(String key, String value) {
+      tags.put(key, value);
+      return this;
+    }
+
+    @Override public SpanCustomizer annotate(String value) {
+      return this;
+    }
+
+    @Override public SpanCustomizer annotate(long timestamp, String value) {
+      return this;
+    }
+  }
 }
@@ -7,6 +7,7 @@ import java.io.IOException;
 import java.util.concurrent.Callable;
 import org.eclipse.jetty.servlet.ServletContextHandler;
 import org.eclipse.jetty.servlet.ServletHolder;
+import org.junit.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.support.DefaultListableBeanFactory;
 import org.springframework.context.annotation.Bean;
@@ -22,6 +23,8 @@ import org.springframework.web.servlet.config.annotation.EnableWebMvc;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurerAdapter;
 
+import static org.assertj.core.api.Assertions.assertThat;
+
 public class ITTracingHandlerInterceptor extends ITServletContainer {
 
   @Controller static class TestController {
@@ -36,6 +39,11 @@ public class ITTracingHandlerInterceptor extends ITServletContainer {
       return new ResponseEntity<>(HttpStatus.OK);
     }
 
+    @RequestMapping(value = "/items/{itemId}")
+    public ResponseEntity<Void> item() {
+      return new ResponseEntity<>(HttpStatus.OK);
+    }
+
     @RequestMapping(value = "/badrequest")
     public ResponseEntity<Void> badrequest() throws IOException {
       return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
@@ -81,6 +89,20 @@ public class ITTracingHandlerInterceptor extends ITServletContainer {
     }
   }
 
+  @Override protected boolean supportsRoute() {
+    return true;
+  }
+
+  @Test
+  public void spanNameIncludesRoute() throws Exception {
+    get("/items/1");
+
+    assertThat(spans)
+        .extracting(s -> s.name)
+        .containsExactly("get /items/{itemid}");
+    assertReportedTagsInclude("http.route", "/items/{itemId}");
+  }
+
   @Override public void init(ServletContextHandler handler) {
     AnnotationConfigWebApplicationContext appContext =
         new AnnotationConfigWebApplicationContext() {
@@ -0,0 +1,51 @@
+package brave.spring.webmvc;
+
+import brave.http.HttpAdapter;
+import brave.http.HttpServerAdapter;
+import brave.http.HttpServerParser;
+import brave.servlet.TracingFilter;
+import org.eclipse.jetty.servlet.FilterHolder;
+import org.eclipse.jetty.servlet.FilterMapping;
+import org.eclipse.jetty.servlet.ServletContextHandler;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/** Ensures the interceptor adds the route to the span of {@link TracingFilter}, if present. */
+public class ITTracingHandlerInterceptorWithFilter extends ITTracingHandlerInterceptor {
+
+  @Override public void init(ServletContextHandler handler) {
+    super.init(handler);
+    // int dispatch types, as this is also compiled against Servlet 2.5 by the invoker tests
+    handler.getServletHandler().addFilterWithMapping(
+        new FilterHolder(TracingFilter.create(httpTracing)), "/*", FilterMapping.REQUEST);
+  }
+
+  /** The filter already tagged the request, so the interceptor mustn't tag it again */
+  @Test public void addingRouteDoesntDuplicateTags() throws Exception {
+    get("/items/1");
+
+    assertThat(spans)
+        .flatExtracting(s -> s.binaryAnnotations)
+        .extracting(b -> b.key)
+        .doesNotHaveDuplicates();
+  }
+
+  /** The configured parser, not the interceptor, decides how the route affects the span */
+  @Test public void addingRouteUsesConfiguredParser() throws Exception {
+    httpTracing = httpTracing.toBuilder().serverParser(new HttpServerParser() {
+      @Override protected <Req> String spanName(HttpAdapter<Req, ?> adapter, Req req) {
+        String route = ((HttpServerAdapter<Req, ?>) adapter).route(req);
+        return route != null ? route : "unmatched";
+      }
+    }).build();
+    init();
+
+    get("/items/1");
+
+    assertThat(spans)
+        .extracting(s -> s.name)
+        .containsExactly("/items/{itemid}");
+    assertReportedTagsInclude("http.route", "/items/{itemId}");
+  }
+}
@@ -0,0 +1,160 @@
+package brave.sql;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Pattern;
+
+/**
+ * Replaces literals in sql with '?' and collapses IN lists, so that statements which only differ by
+ * values share the same tag. Ex. "select * from users where id in (?)" for
+ * "select * from users where id in (1, 2, 3)"
+ *
+ * <p>Comments are removed, as they can hold literals too. Double-quoted and back-quoted text is
+ * copied as-is, as these are identifiers in standard SQL and MySQL. In MySQL's default mode, double
+ * quotes delimit strings, so their values are kept.
+ *
+ * <p>Like MySQL's default mode, a backslash escapes the next character in a single-quoted string.
+ * Where backslash is a literal character, as in standard SQL, a string ending in a backslash is
+ * normalized together with the text up to the next quote.
+ *
+ * <p>"--" only starts a comment when followed by whitespace, as in MySQL. MySQL's "#" comments
+ * aren't recognized, and its executable comments, like "/*! ... *&#47;", are removed with the rest.
+ *
+ * <p>Results are cached, as applications usually issue a limited set of statement shapes. The cache
+ * is read without locking. When it is full, an arbitrary entry is evicted, so its size can briefly
+ * exceed the bound under concurrent writes. Long statements aren't cached, as they'd retain too
+ * much memory.
+ */
+public final class SqlNormalizer {
+  static final Pattern IN_LIST = Pattern.compile("(?i)\\b(in) ?\\( ?\\?(?: ?, ?\\?)* ?\\)");
+
+  final int maxCached, maxCachedLength;
+  final ConcurrentMap<String, String> cache = new ConcurrentHashMap<String, String>();
+
+  /**
+   * @param maxCached maximum count of normalized statements to cache
+   * @param maxCachedLength sql longer than this isn't cached
+   */
+  public SqlNormalizer(int maxCached, int maxCachedLength) {
+    this.maxCached = maxCached;
+    this.maxCachedLength = maxCachedLength;
+  }
+
+  public String normalize(String sql) {
+    if (sql.length() > maxCachedLength) return doNormalize(sql);
+    String result = cache.get(sql);
+    if (result != null) return result;
+    result = doNormalize(sql);
+    if (cache.size() >= maxCached) evictOne();
+    String existing = cache.putIfAbsent(sql, result);
+    return existing != null ? existing : result;
+  }
+
+  void evictOne() {
+    Iterator<String> keys = cache.keySet().iterator();
+    if (keys.hasNext()) {
+      keys.next();
+      keys.remove();
+    }
+  }
+
+  static String doNormalize(String sql) {
+    int length = sql.length();
+    StringBuilder result = new StringBuilder(length);
+    for (int i = 0; i < length; ) {
+      char c = sql.charAt(i);
+      if (c == '\'') { // string literal
+        i = skipQuoted(sql, i);
+        result.append('?');
+      } else if (c == '"' || c == '`') { // quoted identifier, which may include digits or spaces
+        int start = i;
+        i = skipQuotedIdentifier(sql, i);
+        result.append(sql, start, i);
+      } else if (c >= '0' && c <= '9') { // numeric literal, as identifiers are copied whole below
+        while (i < length && (isIdentifierPart(sql.charAt(i)) || sql.charAt(i) == '.')) i++;
+        result.append('?');
+      } else if (Character.isWhitespace(c) || commentEnd(sql, i) != i) {
+        // collapse whitespace and comments, trimming the ends
+        i = skipWhitespaceAndComments(sql, i);
+        if (result.length() > 0 && i < length) result.append(' ');
+      } else if (isIdentifierPart(c)) {
+        int start = i;
+        while (i < length && isIdentifierPart(sql.charAt(i))) i++;
+        result.append(sql, start, i);
+      } else {
+        result.append(c);
+        i++;
+      }
+    }
+    return IN_LIST.matcher(result).replaceAll("$1 (?)");
+  }
+
+  /** Returns the index after the closing quote, honoring doubled quotes and backslash escapes. */
+  static int skipQuoted(String sql, int i) {
+    int length = sql.length();
+    for (i++; i < length; i++) {
+      char c = sql.charAt(i);
+      if (c == '\\') {
+        i++;
+      } else if (c == '\'') {
+        if (i + 1 < length && sql.charAt(i + 1) == '\'') {
+          i++;
+        } else {
+          return i + 1;
+        }
+      }
+    }
+    return length;
+  }
+
+  /** Returns the index after the closing quote, honoring doubled quotes. */
+  static int skipQuotedIdentifier(String sql, int i) {
+    int length = sql.length();
+    char quote = sql.charAt(i);
+    for (i++; i < length; i++) {
+      if (sql.charAt(i) != quote) continue;
+      if (i + 1 < length && sql.charAt(i + 1) == quote) {
+        i++;
+      } else {
+        return i + 1;
+      }
+    }
+    return length;
+  }
+
+  static int skipWhitespaceAndComments(String sql, int i) {
+    int length = sql.length();
+    while (i < length) {
+      if (Character.isWhitespace(sql.charAt(i))) {
+        i++;
+        continue;
+      }
+      int end = commentEnd(sql, i);
+      if (end == i) return i;
+      i = end;
+    }
+    return length;
+  }
+
+  /** Returns the index after a comment starting at the index, or the same index if there's none. */
+  static int commentEnd(String sql, int i) {
+    int length = sql.length();
+    if (i + 1 >= length) return i;
+    char c = sql.charAt(i), next = sql.charAt(i + 1);
+    if (c == '/' && next == '*') {
+      int end = sql.indexOf("*/", i + 2);
+      return end == -1 ? length : end + 2;
+    }
+    // "1--1" is arithmetic, so only "--" followed by whitespace starts a comment
+    if (c == '-' && next == '-' && (i + 2 == length || Character.isWhitespace(sql.charAt(i + 2)))) {
+      int end = sql.indexOf('\n', i + 2);
+      return end == -1 ? length : end + 1;
+    }
+    return i;
+  }
+
+  static boolean isIdentifierPart(char c) {
+    return Character.isLetterOrDigit(c) || c == '_' || c == '$';
+  }
+}
@@ -0,0 +1,93 @@
+package brave.sql;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SqlNormalizerTest {
+  SqlNormalizer normalizer = new SqlNormalizer(2, 100);
+
+  @Test public void replacesLiterals() {
+    assertThat(normalizer.normalize("select * from users where id = 1 and name = 'bob'"))
+        .isEqualTo("select * from users where id = ? and name = ?");
+  }
+
+  @Test public void replacesDecimalsAndNegatives() {
+    assertThat(normalizer.normalize("update prices set price = -12.50 where sku = 0x1F"))
+        .isEqualTo("update prices set price = -? where sku = ?");
+  }
+
+  @Test public void keepsIdentifiersWithDigits() {
+    assertThat(normalizer.normalize("select col1 from table_2 where $x3 = 3"))
+        .isEqualTo("select col1 from table_2 where $x3 = ?");
+  }
+
+  @Test public void handlesEscapedQuotes() {
+    assertThat(normalizer.normalize("insert into t values ('it''s', 'a\\'b', 7)"))
+        .isEqualTo("insert into t values (?, ?, ?)");
+  }
+
+  @Test public void unterminatedQuote() {
+    assertThat(normalizer.normalize("select 'oops"))
+        .isEqualTo("select ?");
+  }
+
+  @Test public void collapsesInLists() {
+    assertThat(normalizer.normalize("select * from t where id IN (1, 2,3) or x in ( ? , ? )"))
+        .isEqualTo("select * from t where id IN (?) or x in (?)");
+  }
+
+  @Test public void collapsesWhitespace() {
+    assertThat(normalizer.normalize("\n  select *\n\tfrom   t  "))
+        .isEqualTo("select * from t");
+  }
+
+  @Test public void keepsQuotedIdentifiers() {
+    assertThat(normalizer.normalize("select \"name\", `id` from t"))
+        .isEqualTo("select \"name\", `id` from t");
+  }
+
+  @Test public void keepsDigitsAndQuotesInQuotedIdentifiers() {
+    assertThat(normalizer.normalize("select \"col 1\", `it's` from t where a = 'b'"))
+        .isEqualTo("select \"col 1\", `it's` from t where a = ?");
+  }
+
+  @Test public void removesComments() {
+    assertThat(normalizer.normalize(
+        "/* user 42 */ select * from t -- where id = 'secret'\nwhere id = 1 /* unterminated"))
+        .isEqualTo("select * from t where id = ?");
+  }
+
+  @Test public void doubleDashWithoutSpaceIsntComment() {
+    assertThat(normalizer.normalize("select a--1 from t"))
+        .isEqualTo("select a--? from t");
+  }
+
+  @Test public void cachesResult() {
+    String result = normalizer.normalize("select 1");
+
+    assertThat(normalizer.normalize("select 1"))
+        .isSameAs(result);
+  }
+
+  @Test public void boundsCacheSize() {
+    normalizer.normalize("select 1");
+    normalizer.normalize("select 2");
+    normalizer.normalize("select 3");
+
+    assertThat(normalizer.cache)
+        .hasSize(2)
+        .containsKey("select 3");
+  }
+
+  @Test public void doesntCacheLongSql() {
+    StringBuilder sql = new StringBuilder("select * from t where id in (");
+    for (int i = 0; i < 100; i++) sql.append(i).append(", ");
+    sql.append("100)");
+
+    assertThat(normalizer.normalize(sql.toString()))
+        .isEqualTo("select * from t where id in (?)");
+    assertThat(normalizer.cache)
+        .isEmpty();
+  }
+}
@@ -0,0 +1,13 @@
+package brave.undertow;
+
+import brave.propagation.Propagation;
+import io.undertow.util.HttpString;
+
+/** Header names are created once, so lookups don't re-encode or re-hash them. */
+enum HttpStringKeyFactory implements Propagation.KeyFactory<HttpString> {
+  INSTANCE;
+
+  @Override public HttpString create(String name) {
+    return HttpString.tryFromString(name);
+  }
+}
@@ -0,0 +1,146 @@
+package brave.undertow;
+
+import brave.Span;
+import brave.Tracer;
+import brave.Tracing;
+import brave.http.HttpServerAdapter;
+import brave.http.HttpServerHandler;
+import brave.http.HttpTracing;
+import brave.propagation.CurrentTraceContext;
+import brave.propagation.TraceContext;
+import io.undertow.server.ExchangeCompletionListener;
+import io.undertow.server.HttpHandler;
+import io.undertow.server.HttpServerExchange;
+import io.undertow.server.ResponseCommitListener;
+import io.undertow.util.HeaderMap;
+import java.net.InetSocketAddress;
+import java.util.concurrent.atomic.AtomicBoolean;
+import zipkin.Endpoint;
+
+/**
+ * Traces requests handled by Undertow, without the servlet layer.
+ *
+ * <pre>{@code
+ * server = Undertow.builder()
+ *     .addHttpListener(8080, "localhost")
+ *     .setHandler(TracingHttpHandler.create(httpTracing, yourHandler))
+ *     .build();
+ * }</pre>
+ *
+ * <p>The span is in scope while the next handler is invoked, and is finished when the response is
+ * committed, or when the exchange completes without one. Handlers which {@link HttpServerExchange#dispatch(Runnable) dispatch} to another
+ * thread don't see the span unless they wrap their task with {@link CurrentTraceContext#wrap}.
+ */
+public final class TracingHttpHandler implements HttpHandler {
+  public static HttpHandler create(Tracing tracing, HttpHandler next) {
+    return create(HttpTracing.create(tracing), next);
+  }
+
+  public static HttpHandler create(HttpTracing httpTracing, HttpHandler next) {
+    return new TracingHttpHandler(httpTracing, next);
+  }
+
+  final Tracer tracer;
+  final CurrentTraceContext currentTraceContext;
+  final HttpServerHandler<HttpServerExchange, HttpServerExchange> handler;
+  final TraceContext.Extractor<HeaderMap> extractor;
+  final HttpHandler next;
+
+  TracingHttpHandler(HttpTracing httpTracing, HttpHandler next) {
+    if (httpTracing == null) throw new NullPointerException("httpTracing == null");
+    if (next == null) throw new NullPointerException("next == null");
+    tracer = httpTracing.tracing().tracer();
+    currentTraceContext = httpTracing.tracing().currentTraceContext();
+    handler = HttpServerHandler.create(httpTracing, new HttpAdapter());
+    extractor = httpTracing.tracing().propagationFactory()
+        .create(HttpStringKeyFactory.INSTANCE)
+        .extractor(HeaderMap::getFirst);
+    this.next = next;
+  }
+
+  @Override public void handleRequest(HttpServerExchange exchange) throws Exception {
+    Span span = handler.handleReceive(extractor, exchange.getRequestHeaders(), exchange);
+    FinishSpan finishSpan = new FinishSpan(span);
+    exchange.addResponseCommitListener(finishSpan);
+    exchange.addExchangeCompleteListener(finishSpan);
+    try (Tracer.SpanInScope ws = tracer.withSpanInScope(span)) {
+      next.handleRequest(exchange);
+    } catch (Exception | Error e) { // Undertow ends the exchange with status 500, so keep the cause
+      finishSpan.error = e;
+      throw e;
+    }
+  }
+
+  /**
+   * Finishes before the response is committed, as the client can otherwise see it before the span.
+   * Exchanges which complete without a response, such as when the connection is closed, finish on
+   * completion instead.
+   */
+  final class FinishSpan implements ResponseCommitListener, ExchangeCompletionListener {
+    final AtomicBoolean finished = new AtomicBoolean();
+    final Span span;
+    volatile Throwable error;
+
+    FinishSpan(Span span) {
+      this.span = span;
+    }
+
+    @Override public void beforeCommit(HttpServerExchange exchange) {
+      finish(exchange);
+    }
+
+    @Override public void exchangeEvent(HttpServerExchange exchange, NextListener nextListener) {
+      try {
+        finish(exchange);
+      } finally {
+        nextListener.proceed();
+      }
+    }
+
+    void finish(HttpServerExchange exchange) {
+      if (!finished.compareAndSet(false, true)) return;
+      // the response can be committed while the span is in scope, such as by the next handler
+      try (CurrentTraceContext.Scope ws = currentTraceContext.newScope(null)) {
+        handler.handleSend(exchange, error, span);
+      }
+    }
+  }
+
+  static final class HttpAdapter extends HttpServerAdapter<HttpServerExchange, HttpServerExchange> {
+
+    /**
+     * Parses the remote address, via the "X-Forwarded-For" header, falling back to the
+     * {@linkplain HttpServerExchange#getSourceAddress() source address}.
+     */
+    @Override public boolean parseClientAddress(HttpServerExchange exchange,
+        Endpoint.Builder builder) {
+      if (super.parseClientAddress(exchange, builder)) return true;
+      InetSocketAddress sourceAddress = exchange.getSourceAddress();
+      if (sourceAddress == null || !builder.parseIp(sourceAddress.getAddress())) return false;
+      builder.port(sourceAddress.getPort());
+      return true;
+    }
+
+    @Override public String method(HttpServerExchange exchange) {
+      return exchange.getRequestMethod().toString();
+    }
+
+    @Override public String path(HttpServerExchange exchange) {
+      return exchange.getRequestPath();
+    }
+
+    @Override public String url(HttpServerExchange exchange) {
+      String url = exchange.getRequestURL();
+      String query = exchange.getQueryString();
+      return query.isEmpty() ? url : url + "?" + query;
+    }
+
+    @Override public String requestHeader(HttpServerExchange exchange, String name) {
+      return exchange.getRequestHeaders().getFirst(name);
+    }
+
+    @Override public Integer statusCode(HttpServerExchange exchange) {
+      return exchange.getStatusCode();
+    }
+  }
+}
@@ -0,0 +1,60 @@
+package brave.undertow;
+
+import brave.Tracer;
+import brave.http.ITHttpServer;
+import io.undertow.Undertow;
+import io.undertow.server.HttpHandler;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import org.junit.After;
+
+public class ITTracingHttpHandler extends ITHttpServer {
+  Undertow server;
+
+  @Override protected void init() {
+    stop();
+
+    Tracer tracer = httpTracing.tracing().tracer();
+    HttpHandler handler = exchange -> {
+      switch (exchange.getRequestPath()) {
+        case "/foo":
+          exchange.getResponseSender().send("bar");
+          return;
+        case "/badrequest":
+          exchange.setStatusCode(400);
+          return;
+        case "/child":
+          tracer.nextSpan().name("child").start().finish();
+          exchange.getResponseSender().send("happy");
+          return;
+        case "/async":
+          exchange.dispatch(e -> e.getResponseSender().send("foo"));
+          return;
+        case "/exception":
+          throw new IOException();
+        case "/exceptionAsync":
+          exchange.dispatch(e -> {
+            throw new IOException();
+          });
+          return;
+        default:
+          exchange.setStatusCode(404);
+      }
+    };
+
+    server = Undertow.builder()
+        .addHttpListener(0, "127.0.0.1")
+        .setHandler(TracingHttpHandler.create(httpTracing, handler))
+        .build();
+    server.start();
+  }
+
+  @Override protected String url(String path) {
+    InetSocketAddress address = (InetSocketAddress) server.getListenerInfo().get(0).getAddress();
+    return "http://127.0.0.1:" + address.getPort() + path;
+  }
+
+  @After public void stop() {
+    if (server != null) server.stop();
+  }
+}